@@ -0,0 +1,289 @@
+package com.vildanden.auth_template.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Propiedades de configuración para autenticación y carga de usuarios
+ * Mapea las propiedades auth.* del application.yml
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+
+    private final PrincipalCache principalCache = new PrincipalCache();
+    private final RefreshTokens refreshTokens = new RefreshTokens();
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+    private final UserImport userImport = new UserImport();
+
+    public AuthProperties() {}
+
+    public PrincipalCache getPrincipalCache() {
+        return principalCache;
+    }
+
+    public RefreshTokens getRefreshTokens() {
+        return refreshTokens;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public UserImport getUserImport() {
+        return userImport;
+    }
+
+    /**
+     * Configuración de la caché de usuarios autenticados (UserPrincipal)
+     */
+    public static class PrincipalCache {
+
+        private boolean enabled = true;
+        private long maxSize = 10000;
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Configuración del almacén de refresh tokens (purga de expirados)
+     */
+    public static class RefreshTokens {
+
+        private int purgeBatchSize = 1000;
+        private long purgeInterval = 3600000;
+        private Instant adoptIssuedBefore; // null = sin adopción de tokens sin registro
+
+        public int getPurgeBatchSize() {
+            return purgeBatchSize;
+        }
+
+        public void setPurgeBatchSize(int purgeBatchSize) {
+            this.purgeBatchSize = purgeBatchSize;
+        }
+
+        public long getPurgeInterval() {
+            return purgeInterval;
+        }
+
+        public void setPurgeInterval(long purgeInterval) {
+            this.purgeInterval = purgeInterval;
+        }
+
+        public Instant getAdoptIssuedBefore() {
+            return adoptIssuedBefore;
+        }
+
+        public void setAdoptIssuedBefore(Instant adoptIssuedBefore) {
+            this.adoptIssuedBefore = adoptIssuedBefore;
+        }
+    }
+
+    /**
+     * Configuración del pool dedicado al hash y verificación de contraseñas
+     */
+    public static class PasswordHashing {
+
+        private int poolSize = 0; // 0 = un hilo por núcleo
+        private int queueCapacity = 64;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private int strength = 0; // 0 = calibrar al iniciar según target-hash-time
+        private Duration targetHashTime = Duration.ofMillis(250);
+        private int minStrength = 10;
+        private int maxStrength = 16;
+        private int upgradeBelow = 0; // 0 = strength si es fijo, si no min-strength
+        private int completionPoolSize = 10; // igual al pool de conexiones JDBC por defecto
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public Duration getTargetHashTime() {
+            return targetHashTime;
+        }
+
+        public void setTargetHashTime(Duration targetHashTime) {
+            this.targetHashTime = targetHashTime;
+        }
+
+        public int getMinStrength() {
+            return minStrength;
+        }
+
+        public void setMinStrength(int minStrength) {
+            this.minStrength = minStrength;
+        }
+
+        public int getMaxStrength() {
+            return maxStrength;
+        }
+
+        public void setMaxStrength(int maxStrength) {
+            this.maxStrength = maxStrength;
+        }
+
+        public int getUpgradeBelow() {
+            return upgradeBelow;
+        }
+
+        public void setUpgradeBelow(int upgradeBelow) {
+            this.upgradeBelow = upgradeBelow;
+        }
+
+        public int getCompletionPoolSize() {
+            return completionPoolSize;
+        }
+
+        public void setCompletionPoolSize(int completionPoolSize) {
+            this.completionPoolSize = completionPoolSize;
+        }
+    }
+
+    /**
+     * Configuración del límite de intentos de login fallidos (ventana deslizante)
+     */
+    public static class LoginThrottling {
+
+        private boolean enabled = true;
+        private Duration window = Duration.ofMinutes(5);
+        private int maxFailuresPerUsername = 5;
+        private int maxFailuresPerAddress = 50;
+        private long maxTrackedKeys = 100000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxFailuresPerUsername() {
+            return maxFailuresPerUsername;
+        }
+
+        public void setMaxFailuresPerUsername(int maxFailuresPerUsername) {
+            this.maxFailuresPerUsername = maxFailuresPerUsername;
+        }
+
+        public int getMaxFailuresPerAddress() {
+            return maxFailuresPerAddress;
+        }
+
+        public void setMaxFailuresPerAddress(int maxFailuresPerAddress) {
+            this.maxFailuresPerAddress = maxFailuresPerAddress;
+        }
+
+        public long getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(long maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+    }
+
+    /**
+     * Configuración de la importación masiva de usuarios (CSV / NDJSON)
+     */
+    public static class UserImport {
+
+        private int chunkSize = 500;
+        private int maxRows = 20000;
+        private int hashParallelism = 0;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public int getHashParallelism() {
+            return hashParallelism;
+        }
+
+        public void setHashParallelism(int hashParallelism) {
+            this.hashParallelism = hashParallelism;
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.vildanden.auth_template.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Propiedades de configuración para JWT
  * Mapea las propiedades del application.yml
@@ -17,6 +21,22 @@ public class JwtProperties {
     private String secret = "MyVerySecureJWTSecretKeyForAuthTemplateApplication2025WithMinimum256BitsAndMoreCharactersToEnsureProperLength";
     private long expiration = 86400000;
     private long refreshExpiration = 604800000;
+    private Algorithm algorithm = Algorithm.HS256;
+    private String privateKey;
+    private String publicKey;
+    private Instant secretRetireAt;
+    private List<SigningKey> keys = new ArrayList<>();
+    private long keyRotationCheckInterval = 60000;
+    private long tokenVersionRefreshInterval = 30000;
+    private boolean selfContained = false;
+    private boolean fastVerification = true;
+    private boolean fastMinting = true;
+    private TokenFormat tokenFormat = TokenFormat.JWT;
+    private final Cache cache = new Cache();
+    private final BatchValidation batchValidation = new BatchValidation();
+    private final Revocation revocation = new Revocation();
+    private final ReferenceTokens referenceTokens = new ReferenceTokens();
+    private final RejectedTokens rejectedTokens = new RejectedTokens();
 
     public JwtProperties() {}
 
@@ -28,6 +48,18 @@ public class JwtProperties {
         this.secret = secret;
     }
 
+    /**
+     * Con anillo de claves, desde este instante los tokens sin kid (firmados con jwt.secret)
+     * dejan de aceptarse. Sin valor se aceptan mientras jwt.secret siga configurado
+     */
+    public Instant getSecretRetireAt() {
+        return secretRetireAt;
+    }
+
+    public void setSecretRetireAt(Instant secretRetireAt) {
+        this.secretRetireAt = secretRetireAt;
+    }
+
     public long getExpiration() {
         return expiration;
     }
@@ -44,6 +76,86 @@ public class JwtProperties {
         this.refreshExpiration = refreshExpiration;
     }
 
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public List<SigningKey> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<SigningKey> keys) {
+        this.keys = keys;
+    }
+
+    public long getKeyRotationCheckInterval() {
+        return keyRotationCheckInterval;
+    }
+
+    public void setKeyRotationCheckInterval(long keyRotationCheckInterval) {
+        this.keyRotationCheckInterval = keyRotationCheckInterval;
+    }
+
+    public long getTokenVersionRefreshInterval() {
+        return tokenVersionRefreshInterval;
+    }
+
+    public void setTokenVersionRefreshInterval(long tokenVersionRefreshInterval) {
+        this.tokenVersionRefreshInterval = tokenVersionRefreshInterval;
+    }
+
+    public boolean isSelfContained() {
+        return selfContained;
+    }
+
+    public void setSelfContained(boolean selfContained) {
+        this.selfContained = selfContained;
+    }
+
+    public boolean isFastVerification() {
+        return fastVerification;
+    }
+
+    public void setFastVerification(boolean fastVerification) {
+        this.fastVerification = fastVerification;
+    }
+
+    public boolean isFastMinting() {
+        return fastMinting;
+    }
+
+    public void setFastMinting(boolean fastMinting) {
+        this.fastMinting = fastMinting;
+    }
+
+    public TokenFormat getTokenFormat() {
+        return tokenFormat;
+    }
+
+    public void setTokenFormat(TokenFormat tokenFormat) {
+        this.tokenFormat = tokenFormat;
+    }
+
     /**
      * Obtiene el tiempo de expiración en segundos
      */
@@ -57,4 +169,264 @@ public class JwtProperties {
     public long getRefreshExpirationInSeconds() {
         return refreshExpiration / 1000;
     }
-}
\ No newline at end of file
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public BatchValidation getBatchValidation() {
+        return batchValidation;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+
+    public ReferenceTokens getReferenceTokens() {
+        return referenceTokens;
+    }
+
+    public RejectedTokens getRejectedTokens() {
+        return rejectedTokens;
+    }
+
+    /**
+     * Algoritmos de firma soportados
+     * HS256 usa el secreto compartido; ES256 y EdDSA usan un par de claves
+     * cuya clave pública se publica en /.well-known/jwks.json
+     */
+    public enum Algorithm {
+        HS256,
+        ES256,
+        EdDSA;
+
+        public boolean isAsymmetric() {
+            return this != HS256;
+        }
+    }
+
+    /**
+     * Formato de los access tokens
+     * JWT es autoverificable; REFERENCE emite un token opaco corto (rt_...) cuya sesión
+     * se guarda en el almacén de tokens de referencia del nodo
+     */
+    public enum TokenFormat {
+        JWT,
+        REFERENCE
+    }
+
+    /**
+     * Clave HS256 del anillo de claves, identificada por su kid
+     * Firma tokens desde activeFrom y se sigue aceptando para verificar hasta retireAt;
+     * la superposición entre claves debe cubrir al menos la vida de los tokens
+     */
+    public static class SigningKey {
+
+        private String id;
+        private String secret;
+        private Instant activeFrom;
+        private Instant retireAt;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public Instant getActiveFrom() {
+            return activeFrom;
+        }
+
+        public void setActiveFrom(Instant activeFrom) {
+            this.activeFrom = activeFrom;
+        }
+
+        public Instant getRetireAt() {
+            return retireAt;
+        }
+
+        public void setRetireAt(Instant retireAt) {
+            this.retireAt = retireAt;
+        }
+    }
+
+    /**
+     * Configuración de la caché de tokens verificados
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+        private long maxSize = 100000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Configuración de la validación de tokens por lotes
+     */
+    public static class BatchValidation {
+
+        private int maxTokens = 10000;
+        private int chunkSize = 256;
+
+        public int getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(int maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Configuración de la lista de tokens revocados (logout)
+     */
+    public static class Revocation {
+
+        private boolean enabled = true;
+        private long expectedRevocations = 100000;
+        private double falsePositiveRate = 0.001;
+        private String snapshotFile;
+        private long maintenanceInterval = 60000;
+        private long syncInterval = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExpectedRevocations() {
+            return expectedRevocations;
+        }
+
+        public void setExpectedRevocations(long expectedRevocations) {
+            this.expectedRevocations = expectedRevocations;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public long getMaintenanceInterval() {
+            return maintenanceInterval;
+        }
+
+        public void setMaintenanceInterval(long maintenanceInterval) {
+            this.maintenanceInterval = maintenanceInterval;
+        }
+
+        public long getSyncInterval() {
+            return syncInterval;
+        }
+
+        public void setSyncInterval(long syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+    }
+
+    /**
+     * Configuración del almacén de tokens de referencia (jwt.token-format: REFERENCE)
+     */
+    public static class ReferenceTokens {
+
+        private int capacity = 262144;
+        private long purgeInterval = 60000;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public long getPurgeInterval() {
+            return purgeInterval;
+        }
+
+        public void setPurgeInterval(long purgeInterval) {
+            this.purgeInterval = purgeInterval;
+        }
+    }
+
+    /**
+     * Configuración de la caché negativa de tokens rechazados
+     */
+    public static class RejectedTokens {
+
+        private boolean enabled = true;
+        private long maxSize = 10000;
+        private long ttl = 600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(long ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.vildanden.auth_template.config;
 
+import com.vildanden.auth_template.security.BCryptStrengthCalibrator;
+import com.vildanden.auth_template.security.FlooredBCryptPasswordEncoder;
 import com.vildanden.auth_template.security.JwtAuthenticationEntryPoint;
 import com.vildanden.auth_template.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
@@ -16,10 +18,13 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 /**
  * Configuración principal de seguridad de Spring Security
  * Define las políticas de acceso, autenticación y filtros JWT
@@ -33,9 +38,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final AuthProperties authProperties;
 
     /**
      * Configuración del filtro de seguridad
@@ -56,6 +64,7 @@ public class SecurityConfig {
                                 "/auth/validate",
                                 "/health",
                                 "/info",
+                                "/.well-known/jwks.json",
                                 "/actuator/health"
                         ).permitAll()
 
@@ -105,9 +114,26 @@ public class SecurityConfig {
 
     /**
      * Configuración del encoder de contraseñas
+     * Los hashes nuevos se guardan como {bcrypt} con el costo calibrado para este nodo.
+     * Los hashes BCrypt sin prefijo (anteriores a este formato) se siguen verificando
+     * y se actualizan en el siguiente login exitoso, igual que los de costo menor al
+     * mínimo del clúster (upgrade-below); el costo calibrado local no cuenta para eso
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        AuthProperties.PasswordHashing config = authProperties.getPasswordHashing();
+        int strength = config.getStrength() > 0
+                ? config.getStrength()
+                : BCryptStrengthCalibrator.calibrate(
+                        config.getTargetHashTime(), config.getMinStrength(), config.getMaxStrength());
+        int upgradeBelow = config.getUpgradeBelow() > 0
+                ? config.getUpgradeBelow()
+                : config.getStrength() > 0 ? config.getStrength() : config.getMinStrength();
+
+        // Un hash regenerado nunca queda por debajo del mínimo: se regeneraría en cada login
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID,
+                Map.of(BCRYPT_ID, new FlooredBCryptPasswordEncoder(Math.max(strength, upgradeBelow), upgradeBelow)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,28 @@
 package com.vildanden.auth_template.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.vildanden.auth_template.dto.auth.*;
 import com.vildanden.auth_template.dto.common.ApiResponseDTO;
+import com.vildanden.auth_template.exception.TooManyRequestsException;
 import com.vildanden.auth_template.security.UserPrincipal;
 import com.vildanden.auth_template.service.AuthService;
+import com.vildanden.auth_template.service.TokenBatchValidationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controlador REST para autenticación y gestión de tokens
@@ -25,49 +37,87 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AuthController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final AuthService authService;
+    private final TokenBatchValidationService tokenBatchValidationService;
 
     /**
      * Endpoint para login de usuarios
+     * Asíncrono: el hilo de Tomcat se libera mientras la contraseña se verifica en el pool de hash.
+     * Con la cola de hash llena, o tras demasiados fallos del usuario o de la dirección,
+     * responde 429 con Retry-After. Detrás de un proxy, getRemoteAddr() ya es la dirección
+     * del cliente resuelta por server.forward-headers-strategy
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponseDTO<LoginResponseDTO>> login(
-            @Valid @RequestBody LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<ApiResponseDTO<LoginResponseDTO>>> login(
+            @Valid @RequestBody LoginRequestDTO loginRequest,
+            HttpServletRequest request) {
 
         log.info("POST /auth/login - Usuario: {}", loginRequest.usernameOrEmail());
 
         try {
-            LoginResponseDTO response = authService.login(loginRequest);
-            return ResponseEntity.ok(
-                    ApiResponseDTO.success("Login exitoso", response)
-            );
+            return authService.login(loginRequest, request.getRemoteAddr())
+                    .thenApply(response -> ResponseEntity.ok(
+                            ApiResponseDTO.success("Login exitoso", response)
+                    ))
+                    .exceptionally(e -> loginFailed(loginRequest, e));
+        } catch (TooManyRequestsException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(e));
         } catch (Exception e) {
-            log.warn("Error en login para usuario: {} - {}", loginRequest.usernameOrEmail(), e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponseDTO.success("Credenciales inválidas", null));
+            return CompletableFuture.completedFuture(loginFailed(loginRequest, e));
         }
     }
 
+    private ResponseEntity<ApiResponseDTO<LoginResponseDTO>> loginFailed(LoginRequestDTO loginRequest, Throwable e) {
+        log.warn("Error en login para usuario: {} - {}", loginRequest.usernameOrEmail(), causeOf(e).getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponseDTO.success("Credenciales inválidas", null));
+    }
+
     /**
      * Endpoint para registro de nuevos usuarios
+     * Asíncrono: el hash de la contraseña corre en el pool de hash.
+     * Con la cola de hash llena responde 429 con Retry-After
      */
     @PostMapping("/register")
-    public ResponseEntity<ApiResponseDTO<RegisterResponseDTO>> register(
+    public CompletableFuture<ResponseEntity<ApiResponseDTO<RegisterResponseDTO>>> register(
             @Valid @RequestBody RegisterRequestDTO registerRequest) {
 
         log.info("POST /auth/register - Usuario: {}", registerRequest.username());
 
         try {
-            RegisterResponseDTO response = authService.register(registerRequest);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponseDTO.success("Usuario registrado exitosamente", response));
+            return authService.register(registerRequest)
+                    .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED)
+                            .body(ApiResponseDTO.success("Usuario registrado exitosamente", response)))
+                    .exceptionally(e -> registerFailed(registerRequest, e));
+        } catch (TooManyRequestsException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(e));
         } catch (Exception e) {
-            log.warn("Error en registro para usuario: {} - {}", registerRequest.username(), e.getMessage());
-            return ResponseEntity.badRequest()
-                    .body(ApiResponseDTO.success(e.getMessage(), null));
+            return CompletableFuture.completedFuture(registerFailed(registerRequest, e));
         }
     }
 
+    private ResponseEntity<ApiResponseDTO<RegisterResponseDTO>> registerFailed(RegisterRequestDTO registerRequest,
+                                                                               Throwable e) {
+        String message = causeOf(e).getMessage();
+        log.warn("Error en registro para usuario: {} - {}", registerRequest.username(), message);
+        return ResponseEntity.badRequest()
+                .body(ApiResponseDTO.success(message, null));
+    }
+
+    private static <T> ResponseEntity<ApiResponseDTO<T>> tooManyRequests(TooManyRequestsException e) {
+        log.warn("Solicitud rechazada: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponseDTO.success(e.getMessage(), null));
+    }
+
+    private static Throwable causeOf(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
     /**
      * Endpoint para renovar access token usando refresh token
      */
@@ -104,6 +154,8 @@ public class AuthController {
             return ResponseEntity.ok(
                     ApiResponseDTO.success("Contraseña cambiada exitosamente")
             );
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             log.warn("Error cambiando contraseña para usuario: {} - {}",
                     currentUser.getUsername(), e.getMessage());
@@ -166,20 +218,76 @@ public class AuthController {
     }
 
     /**
-     * Endpoint de logout (invalidación del lado cliente)
+     * Endpoint de introspección de tokens (RFC 7662)
+     * Devuelve estado, sujeto, roles, tipo y expiración en una sola respuesta.
+     * Requiere un access token del llamante (RFC 7662 §2.1). La respuesta no se cachea:
+     * un token revocado debe informarse inactivo desde la siguiente consulta
+     */
+    @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<TokenIntrospectionDTO> introspectToken(@RequestParam String token) {
+
+        log.debug("POST /auth/introspect");
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(authService.introspectToken(token));
+    }
+
+    /**
+     * Endpoint para validar un lote de tokens en una sola petición
+     * Recibe un array JSON o NDJSON en el body (los tokens no viajan en la URL)
+     * y devuelve un resultado NDJSON por token a medida que se verifican, más una línea
+     * final de estado (completed o aborted). Requiere un access token del llamante:
+     * una sola petición dispara hasta max-tokens verificaciones
+     */
+    @PostMapping(
+            value = "/validate/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE},
+            produces = APPLICATION_NDJSON_VALUE
+    )
+    public ResponseEntity<StreamingResponseBody> validateTokens(InputStream body) {
+
+        log.debug("POST /auth/validate/batch");
+
+        StreamingResponseBody stream = output -> {
+            try {
+                int count = tokenBatchValidationService.validate(body, output);
+                log.debug("Lote validado - Tokens: {}", count);
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                // La respuesta ya comenzó: la línea de estado aborted informa el corte al cliente
+                log.debug("Lote de tokens cortado: {}", e.getMessage());
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(stream);
+    }
+
+    /**
+     * Endpoint de logout: revoca el access token usado en la petición y los refresh tokens
+     * de la sesión indicada en el body (o de todas las sesiones del usuario si no se indica)
      */
     @PostMapping("/logout")
     public ResponseEntity<ApiResponseDTO<Void>> logout(
-            @AuthenticationPrincipal UserPrincipal currentUser) {
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @RequestBody(required = false) LogoutRequestDTO logoutRequest) {
 
         log.info("POST /auth/logout - Usuario: {}", currentUser.getUsername());
 
-        // Con JWT stateless, el logout se maneja en el cliente eliminando el token
-        // Aquí se puede implementar una blacklist de tokens si es necesario
-
-        return ResponseEntity.ok(
-                ApiResponseDTO.success("Logout exitoso")
-        );
+        try {
+            // El filtro JWT ya autenticó la petición con este mismo token
+            authService.logout(authorization.substring(BEARER_PREFIX.length()), currentUser.getId(),
+                    logoutRequest != null ? logoutRequest.refreshToken() : null);
+            return ResponseEntity.ok(
+                    ApiResponseDTO.success("Logout exitoso")
+            );
+        } catch (Exception e) {
+            log.warn("Error en logout para usuario: {} - {}", currentUser.getUsername(), e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDTO.success("Error cerrando la sesión"));
+        }
     }
 
 }
\ No newline at end of file
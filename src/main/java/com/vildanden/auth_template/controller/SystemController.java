@@ -5,9 +5,19 @@ import com.vildanden.auth_template.dto.common.HealthResponseDTO;
 import com.vildanden.auth_template.dto.common.SystemStatsResponseDTO;
 import com.vildanden.auth_template.repository.RoleRepository;
 import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.LoginThrottle;
+import com.vildanden.auth_template.security.PrincipalCache;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.RejectedTokenCache;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.VerifiedTokenCache;
+import com.vildanden.auth_template.service.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controlador REST para endpoints del sistema
@@ -33,6 +44,15 @@ public class SystemController {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final ReferenceTokenStore referenceTokenStore;
+    private final RejectedTokenCache rejectedTokenCache;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginThrottle loginThrottle;
+    private final JwtService jwtService;
 
     @Value("${app.name:Auth Template API}")
     private String appName;
@@ -89,6 +109,19 @@ public class SystemController {
         );
     }
 
+    /**
+     * Claves públicas para verificar tokens localmente (público, RFC 7517)
+     * Se devuelve sin envoltorio ApiResponseDTO para respetar el formato estándar
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        log.debug("GET /api/.well-known/jwks.json");
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+                .body(jwtService.getPublicJwks());
+    }
+
     /**
      * Estadísticas del sistema (solo ADMIN)
      */
@@ -126,6 +159,29 @@ public class SystemController {
         }
     }
 
+    /**
+     * Estadísticas de las cachés de seguridad (solo ADMIN)
+     */
+    @GetMapping("/admin/security-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDTO<Map<String, Object>>> getSecurityStats() {
+        log.info("GET /api/admin/security-stats");
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("verifiedTokenCache", verifiedTokenCache.stats());
+        stats.put("principalCache", principalCache.stats());
+        stats.put("revocationList", tokenRevocationList.stats());
+        stats.put("tokenVersions", Map.of("trackedUsers", tokenVersionRegistry.size()));
+        stats.put("referenceTokens", referenceTokenStore.stats());
+        stats.put("rejectedTokens", rejectedTokenCache.stats());
+        stats.put("passwordHashing", passwordHashingService.stats());
+        stats.put("loginThrottle", loginThrottle.stats());
+
+        return ResponseEntity.ok(
+                ApiResponseDTO.success("Estadísticas de seguridad", stats)
+        );
+    }
+
     /**
      * Información detallada del sistema (solo ADMIN)
      */
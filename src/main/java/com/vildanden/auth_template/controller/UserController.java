@@ -1,21 +1,29 @@
 package com.vildanden.auth_template.controller;
 
 import com.vildanden.auth_template.dto.common.ApiResponseDTO;
+import com.vildanden.auth_template.dto.common.CursorPageResponseDTO;
 import com.vildanden.auth_template.dto.common.PageResponseDTO;
 import com.vildanden.auth_template.dto.user.*;
 import com.vildanden.auth_template.security.UserPrincipal;
+import com.vildanden.auth_template.service.UserImportService;
 import com.vildanden.auth_template.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
+import static com.vildanden.auth_template.controller.AuthController.APPLICATION_NDJSON_VALUE;
+
 /**
  * Controlador REST para gestión de usuarios
  * Proporciona endpoints para operaciones CRUD sobre usuarios
@@ -29,7 +37,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UserService userService;
+    private final UserImportService userImportService;
 
     /**
      * Obtiene el perfil del usuario autenticado
@@ -101,6 +112,39 @@ public class UserController {
         }
     }
 
+    /**
+     * Obtiene usuarios paginados por cursor (solo ADMIN)
+     * Se activa con el parámetro cursor (vacío para la primera página); las páginas siguientes
+     * usan el nextCursor de la respuesta, que conserva el orden. Sin COUNT salvo includeTotal=true
+     */
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDTO<CursorPageResponseDTO<UserResponseDTO>>> getUsersByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("GET /api/users - cursor, tamaño: {}", size);
+
+        try {
+            CursorPageResponseDTO<UserResponseDTO> users =
+                    userService.getUsersByCursor(cursor, size, sortBy, sortDir, includeTotal);
+            return ResponseEntity.ok(
+                    ApiResponseDTO.success("Lista de usuarios", users)
+            );
+        } catch (IllegalArgumentException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseDTO.success(e.getMessage(), null));
+        } catch (Exception e) {
+            log.error("Error obteniendo lista de usuarios: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponseDTO.success("Error obteniendo usuarios", null));
+        }
+    }
+
     /**
      * Obtiene un usuario por ID (solo ADMIN)
      */
@@ -142,6 +186,39 @@ public class UserController {
         }
     }
 
+    /**
+     * Importa usuarios en bloque desde CSV o NDJSON (solo ADMIN)
+     * Devuelve en NDJSON los errores de cada fila rechazada, el progreso por bloque
+     * y un resumen final, a medida que se escriben
+     */
+    @PostMapping(
+            value = "/import",
+            consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE},
+            produces = APPLICATION_NDJSON_VALUE
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        log.info("POST /api/users/import - Usuario: {}", currentUser.getUsername());
+
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        StreamingResponseBody stream = output -> {
+            // El resumen final (completed / aborted) se escribe como última línea
+            if (csv) {
+                userImportService.importCsv(body, output);
+            } else {
+                userImportService.importNdjson(body, output);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(stream);
+    }
+
     /**
      * Actualiza un usuario existente (solo ADMIN)
      */
@@ -0,0 +1,12 @@
+package com.vildanden.auth_template.dto.auth;
+
+/**
+ * DTO para solicitud de logout
+ * El refresh token es opcional: sin él se cierran todas las sesiones del usuario
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record LogoutRequestDTO(
+        String refreshToken
+) {}
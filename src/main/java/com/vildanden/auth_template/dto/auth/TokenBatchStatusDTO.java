@@ -0,0 +1,26 @@
+package com.vildanden.auth_template.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO con la línea final de la validación de un lote de tokens (NDJSON)
+ * completed: se validaron todos los tokens; aborted: el lote se cortó (entrada inválida
+ * o más tokens que el máximo) y sólo los processed primeros tienen resultado
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenBatchStatusDTO(
+        String status,
+        int processed,
+        String error
+) {
+    public static TokenBatchStatusDTO completed(int processed) {
+        return new TokenBatchStatusDTO("completed", processed, null);
+    }
+
+    public static TokenBatchStatusDTO aborted(int processed, String error) {
+        return new TokenBatchStatusDTO("aborted", processed, error);
+    }
+}
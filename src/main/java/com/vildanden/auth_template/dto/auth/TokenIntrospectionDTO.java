@@ -0,0 +1,28 @@
+package com.vildanden.auth_template.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Set;
+
+/**
+ * DTO de respuesta de introspección de tokens (formato RFC 7662)
+ * Un token inactivo sólo informa {"active": false}
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospectionDTO(
+        boolean active,
+        String sub,
+        String username,
+        Set<String> roles,
+        @JsonProperty("token_type") String tokenType,
+        Long exp,
+        Long iat
+) {
+    public static TokenIntrospectionDTO inactive() {
+        return new TokenIntrospectionDTO(false, null, null, null, null, null, null);
+    }
+}
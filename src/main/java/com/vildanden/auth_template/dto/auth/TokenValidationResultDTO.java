@@ -0,0 +1,27 @@
+package com.vildanden.auth_template.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO con el resultado de validar un token dentro de un lote
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenValidationResultDTO(
+        int index,
+        boolean valid,
+        String subject,
+        String type,
+        Long expiresIn,
+        String error
+) {
+    public static TokenValidationResultDTO valid(int index, String subject, String type, long expiresIn) {
+        return new TokenValidationResultDTO(index, true, subject, type, expiresIn, null);
+    }
+
+    public static TokenValidationResultDTO invalid(int index, String error) {
+        return new TokenValidationResultDTO(index, false, null, null, null, error);
+    }
+}
@@ -0,0 +1,33 @@
+package com.vildanden.auth_template.dto.common;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * DTO para estadísticas de uso de una caché en memoria
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record CacheStatsDTO(
+        boolean enabled,
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions
+) {
+    public static CacheStatsDTO disabled() {
+        return new CacheStatsDTO(false, 0, 0, 0, 0.0, 0);
+    }
+
+    public static CacheStatsDTO of(long size, CacheStats stats) {
+        return new CacheStatsDTO(
+                true,
+                size,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
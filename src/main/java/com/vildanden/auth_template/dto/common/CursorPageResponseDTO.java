@@ -0,0 +1,21 @@
+package com.vildanden.auth_template.dto.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * DTO para respuestas paginadas por cursor (keyset)
+ * nextCursor se envía en la siguiente petición; totalElements sólo si se pidió el total
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPageResponseDTO<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        boolean hasNext,
+        Long totalElements
+) {}
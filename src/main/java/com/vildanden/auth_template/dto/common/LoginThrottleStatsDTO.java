@@ -0,0 +1,18 @@
+package com.vildanden.auth_template.dto.common;
+
+/**
+ * DTO para estadísticas del límite de intentos de login fallidos
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record LoginThrottleStatsDTO(
+        boolean enabled,
+        long trackedKeys,
+        long throttledByUsername,
+        long throttledByAddress
+) {
+    public static LoginThrottleStatsDTO disabled() {
+        return new LoginThrottleStatsDTO(false, 0, 0, 0);
+    }
+}
@@ -0,0 +1,17 @@
+package com.vildanden.auth_template.dto.common;
+
+/**
+ * DTO para estadísticas del pool de hash de contraseñas
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record PasswordHashingStatsDTO(
+        int poolSize,
+        int activeThreads,
+        int queuedTasks,
+        int queueCapacity,
+        long completedTasks,
+        long rejectedTasks
+) {
+}
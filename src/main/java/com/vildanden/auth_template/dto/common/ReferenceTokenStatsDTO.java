@@ -0,0 +1,20 @@
+package com.vildanden.auth_template.dto.common;
+
+/**
+ * DTO para estadísticas del almacén de tokens de referencia
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record ReferenceTokenStatsDTO(
+        boolean enabled,
+        long capacity,
+        long occupiedSlots,
+        int segments,
+        long offHeapBytes,
+        long compactions
+) {
+    public static ReferenceTokenStatsDTO disabled() {
+        return new ReferenceTokenStatsDTO(false, 0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.vildanden.auth_template.dto.common;
+
+/**
+ * DTO para estadísticas de la lista de tokens revocados
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record RevocationStatsDTO(
+        boolean enabled,
+        long revokedTokens,
+        long bloomFilterBits,
+        int bloomFilterHashes,
+        double bloomFilterFillRatio,
+        long bloomFilterRejections,
+        long exactLookups
+) {
+    public static RevocationStatsDTO disabled() {
+        return new RevocationStatsDTO(false, 0, 0, 0, 0.0, 0, 0);
+    }
+}
@@ -0,0 +1,17 @@
+package com.vildanden.auth_template.dto.common;
+
+import java.util.Map;
+
+/**
+ * DTO para estadísticas de tokens rechazados y de la caché negativa
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record TokenRejectionStatsDTO(
+        boolean negativeCacheEnabled,
+        long cachedTokens,
+        long rejectedFromCache,
+        Map<String, Long> rejectionsByReason
+) {
+}
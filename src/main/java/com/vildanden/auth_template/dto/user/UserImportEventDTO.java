@@ -0,0 +1,37 @@
+package com.vildanden.auth_template.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO con un evento de la importación masiva de usuarios (una línea NDJSON)
+ * error: fila rechazada; progress: bloque escrito; completed / aborted: resumen final
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportEventDTO(
+        String type,
+        Integer row,
+        String username,
+        String error,
+        Integer processed,
+        Integer imported,
+        Integer failed
+) {
+    public static UserImportEventDTO error(int row, String username, String error) {
+        return new UserImportEventDTO("error", row, username, error, null, null, null);
+    }
+
+    public static UserImportEventDTO progress(int processed, int imported, int failed) {
+        return new UserImportEventDTO("progress", null, null, null, processed, imported, failed);
+    }
+
+    public static UserImportEventDTO completed(int processed, int imported, int failed) {
+        return new UserImportEventDTO("completed", null, null, null, processed, imported, failed);
+    }
+
+    public static UserImportEventDTO aborted(int processed, int imported, int failed, String error) {
+        return new UserImportEventDTO("aborted", null, null, error, processed, imported, failed);
+    }
+}
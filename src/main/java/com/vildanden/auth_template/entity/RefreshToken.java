@@ -0,0 +1,86 @@
+package com.vildanden.auth_template.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un refresh token emitido
+ * Se identifica por el hash del token; los tokens rotados de una misma sesión
+ * comparten la familia, que se revoca completa si se detecta una reutilización
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken implements Persistable<String> {
+
+    @Id
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 32)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Builder.Default
+    @Column(name = "used", nullable = false)
+    private Boolean used = false;
+
+    @Builder.Default
+    @Column(name = "revoked", nullable = false)
+    private Boolean revoked = false;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * El id es asignado: sin esta marca save() haría un SELECT previo para decidir entre insert y merge
+     */
+    @Transient
+    @Builder.Default
+    private boolean newToken = true;
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newToken;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        this.newToken = false;
+    }
+
+    /**
+     * Verifica si el token puede canjearse por uno nuevo
+     * @param now instante de referencia
+     * @return true si no fue usado, no fue revocado y no expiró
+     */
+    public boolean isRedeemableAt(LocalDateTime now) {
+        return !used && !revoked && expiresAt.isAfter(now);
+    }
+}
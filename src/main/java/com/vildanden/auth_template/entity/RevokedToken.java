@@ -0,0 +1,63 @@
+package com.vildanden.auth_template.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un access token revocado por logout
+ * Se identifica por el claim jti y se conserva hasta la expiración del token,
+ * de modo que todos los nodos lo rechazan y un reinicio no lo olvida
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken implements Persistable<String> {
+
+    @Id
+    @Column(name = "token_id", nullable = false, length = 64)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private LocalDateTime revokedAt;
+
+    /**
+     * El id es asignado: sin esta marca save() haría un SELECT previo para decidir entre insert y merge
+     */
+    @Transient
+    @Builder.Default
+    private boolean newToken = true;
+
+    @Override
+    public String getId() {
+        return tokenId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newToken;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.revokedAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        this.newToken = false;
+    }
+}
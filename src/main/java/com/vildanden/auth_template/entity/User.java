@@ -67,6 +67,10 @@ public class User extends BaseEntity {
     @Column(name = "credentials_non_expired", nullable = false)
     private Boolean credentialsNonExpired = true;
 
+    @Builder.Default
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
     @JoinTable(
             name = "user_roles",
@@ -120,6 +124,15 @@ public class User extends BaseEntity {
         return enabled && accountNonExpired && accountNonLocked && credentialsNonExpired;
     }
 
+    /**
+     * Incrementa la versión de tokens: invalida todos los tokens emitidos hasta ahora
+     * @return la nueva versión
+     */
+    public int incrementTokenVersion() {
+        tokenVersion = tokenVersion + 1;
+        return tokenVersion;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,6 +2,7 @@ package com.vildanden.auth_template.exception;
 
 import com.vildanden.auth_template.dto.common.ErrorResponseDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -58,6 +59,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    /**
+     * Maneja solicitudes rechazadas por exceso de carga o de intentos
+     * (cola de hash de contraseñas llena, login bloqueado temporalmente)
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTooManyRequests(
+            TooManyRequestsException ex, WebRequest request) {
+
+        log.warn("Solicitud rechazada: {}", ex.getMessage());
+
+        ErrorResponseDTO error = new ErrorResponseDTO(
+                ex.getMessage(),
+                "TOO_MANY_REQUESTS",
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     /**
      * Maneja errores de autenticación (credenciales inválidas)
      */
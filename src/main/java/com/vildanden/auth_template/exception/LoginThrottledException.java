@@ -0,0 +1,16 @@
+package com.vildanden.auth_template.exception;
+
+/**
+ * Excepción para intentos de login rechazados por demasiados fallos recientes
+ * del mismo usuario o de la misma dirección
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class LoginThrottledException extends TooManyRequestsException {
+
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Demasiados intentos de login fallidos, reintente en " + retryAfterSeconds + " s",
+                retryAfterSeconds);
+    }
+}
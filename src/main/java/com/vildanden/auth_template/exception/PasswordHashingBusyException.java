@@ -0,0 +1,15 @@
+package com.vildanden.auth_template.exception;
+
+/**
+ * Excepción para solicitudes rechazadas porque la cola de hash de contraseñas está llena
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class PasswordHashingBusyException extends TooManyRequestsException {
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Demasiadas solicitudes de autenticación en curso, reintente en " + retryAfterSeconds + " s",
+                retryAfterSeconds);
+    }
+}
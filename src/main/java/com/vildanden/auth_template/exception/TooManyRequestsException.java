@@ -0,0 +1,22 @@
+package com.vildanden.auth_template.exception;
+
+/**
+ * Excepción base para solicitudes rechazadas por exceso de carga o de intentos (HTTP 429)
+ * Indica al cliente cuántos segundos esperar antes de reintentar (header Retry-After)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,65 @@
+package com.vildanden.auth_template.repository;
+
+import com.vildanden.auth_template.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio para la gestión de refresh tokens en la base de datos
+ * Todas las búsquedas de un token son lecturas por clave primaria (hash del token)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Busca un token por su hash bloqueando la fila hasta el fin de la transacción
+     * Dos renovaciones concurrentes con el mismo token se serializan: la segunda lo ve usado
+     * @param tokenHash hash del token
+     * @return Optional con el token si existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findForUpdate(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Revoca todos los tokens de una familia
+     * @param familyId id de la familia
+     * @return cantidad de tokens revocados
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId AND t.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Revoca todos los tokens de un usuario
+     * @param userId id del usuario
+     * @return cantidad de tokens revocados
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.userId = :userId AND t.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Elimina un lote de tokens expirados
+     * Cada lote es una transacción corta para no retener locks sobre la tabla
+     * @param now instante de referencia
+     * @param limit tamaño máximo del lote
+     * @return cantidad de tokens eliminados
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,49 @@
+package com.vildanden.auth_template.repository;
+
+import com.vildanden.auth_template.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de los tokens revocados compartidos entre nodos
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Revocaciones cuyos tokens aún no expiraron (carga inicial de un nodo)
+     * @param now instante de referencia
+     * @return tokens revocados vigentes
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Revocaciones registradas desde un instante que aún no expiraron
+     * @param since instante desde el que se leen las revocaciones
+     * @param now instante de referencia para descartar las expiradas
+     * @return tokens revocados
+     */
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    /**
+     * Elimina un lote de revocaciones cuyos tokens ya expiraron
+     * @param now instante de referencia
+     * @param limit tamaño máximo del lote
+     * @return cantidad de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM revoked_tokens WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
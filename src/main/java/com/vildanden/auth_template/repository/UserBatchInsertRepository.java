@@ -0,0 +1,90 @@
+package com.vildanden.auth_template.repository;
+
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de inserción por lotes de usuarios (importación masiva)
+ * Escribe con JDBC directo: un INSERT por lotes en users y otro en user_roles,
+ * sin pasar por el contexto de persistencia de JPA
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserBatchInsertRepository {
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (username, email, password, first_name, last_name, enabled, " +
+            "account_non_expired, account_non_locked, credentials_non_expired, token_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_ROLE_SQL =
+            "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta los usuarios y sus roles en una sola transacción
+     * Asigna a cada usuario el ID generado
+     * @throws org.springframework.dao.DataIntegrityViolationException si alguna fila viola
+     *         una clave única (no se inserta ninguna)
+     */
+    @Transactional
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement =
+                         connection.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (User user : users) {
+                    statement.setString(1, user.getUsername());
+                    statement.setString(2, user.getEmail());
+                    statement.setString(3, user.getPassword());
+                    statement.setString(4, user.getFirstName());
+                    statement.setString(5, user.getLastName());
+                    statement.setBoolean(6, user.getEnabled());
+                    statement.setBoolean(7, user.getAccountNonExpired());
+                    statement.setBoolean(8, user.getAccountNonLocked());
+                    statement.setBoolean(9, user.getCredentialsNonExpired());
+                    statement.setInt(10, user.getTokenVersion());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                // Las claves generadas llegan en el mismo orden de las filas del lote
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (User user : users) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("La base no devolvió el ID de todos los usuarios insertados");
+                        }
+                        user.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<Object[]> userRoles = new ArrayList<>();
+        for (User user : users) {
+            for (Role role : user.getRoles()) {
+                userRoles.add(new Object[]{user.getId(), role.getId()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, userRoles);
+    }
+}
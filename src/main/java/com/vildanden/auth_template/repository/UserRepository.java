@@ -1,10 +1,16 @@
 package com.vildanden.auth_template.repository;
 
 import com.vildanden.auth_template.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +47,44 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsernameOrEmail(String username, String email);
 
+    /**
+     * Obtiene sólo la versión de tokens del usuario
+     * @param id ID del usuario
+     * @return Optional con la versión si el usuario existe
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    /**
+     * Reemplaza el hash de la contraseña sólo si no cambió desde que se leyó
+     * @param id ID del usuario
+     * @param currentPassword hash leído
+     * @param upgradedPassword hash nuevo
+     * @return 1 si se actualizó, 0 si la contraseña cambió entretanto
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :upgradedPassword WHERE u.id = :id AND u.password = :currentPassword")
+    int upgradePassword(@Param("id") Long id,
+                        @Param("currentPassword") String currentPassword,
+                        @Param("upgradedPassword") String upgradedPassword);
+
+    /**
+     * Cambia la contraseña e incrementa la versión de tokens en una única sentencia,
+     * sólo si la contraseña no cambió desde que se verificó la actual
+     * @param id ID del usuario
+     * @param currentPassword hash contra el que se verificó la contraseña actual
+     * @param newPassword hash de la contraseña nueva
+     * @return 1 si se actualizó, 0 si la contraseña cambió entretanto
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword, u.tokenVersion = u.tokenVersion + 1 " +
+            "WHERE u.id = :id AND u.password = :currentPassword")
+    int changePassword(@Param("id") Long id,
+                       @Param("currentPassword") String currentPassword,
+                       @Param("newPassword") String newPassword);
+
     /**
      * Verifica si existe un usuario con el username especificado
      * @param username nombre de usuario a verificar
@@ -105,4 +149,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles")
     List<User> findAllWithRoles();
+
+    /**
+     * Página de usuarios por clave (keyset): búsqueda por rango a partir de la posición,
+     * sin OFFSET ni COUNT. Se lee un usuario más para saber si hay página siguiente
+     * @param position posición después del último usuario de la página anterior
+     * @param sort orden; debe terminar en el id para que la posición sea única
+     * @param limit tamaño de página
+     * @return ventana con los usuarios y la posición de cada uno
+     */
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.vildanden.auth_template.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+/**
+ * Calibra el costo de BCrypt según el hardware del nodo
+ * Mide el hash con el costo mínimo y, como cada punto de costo duplica el trabajo,
+ * elige el mayor costo cuyo tiempo estimado no supera el objetivo
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-123";
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {}
+
+    /**
+     * Elige el costo de BCrypt para el tiempo de hash objetivo
+     * @param targetHashTime tiempo buscado para un hash
+     * @param minStrength costo mínimo (se usa aunque supere el objetivo)
+     * @param maxStrength costo máximo
+     * @return costo entre minStrength y maxStrength
+     */
+    public static int calibrate(Duration targetHashTime, int minStrength, int maxStrength) {
+        int min = Math.max(4, Math.min(minStrength, 31));
+        int max = Math.max(min, Math.min(maxStrength, 31));
+
+        long baseNanos = measure(min);
+        int strength = chooseStrength(baseNanos, min, max, targetHashTime.toNanos());
+
+        log.info("Costo BCrypt calibrado: {} (costo {} = {} ms, objetivo {} ms)",
+                strength, min, baseNanos / 1_000_000, targetHashTime.toMillis());
+        return strength;
+    }
+
+    /**
+     * Mayor costo cuyo tiempo estimado, a partir del medido con el costo mínimo, no supera el objetivo
+     */
+    static int chooseStrength(long baseNanos, int minStrength, int maxStrength, long targetNanos) {
+        int strength = minStrength;
+        long estimated = baseNanos;
+        while (strength < maxStrength && estimated * 2 <= targetNanos) {
+            estimated *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * Mejor tiempo de varios hashes: descarta las pausas del GC y la compilación JIT
+     */
+    private static long measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        BCrypt.hashpw(SAMPLE_PASSWORD, salt); // calentamiento
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -2,6 +2,7 @@ package com.vildanden.auth_template.security;
 
 import com.vildanden.auth_template.entity.User;
 import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,16 +24,34 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final SingleFlight<String, UserPrincipal> userLoads = new SingleFlight<>();
 
     /**
      * Carga un usuario por username o email
+     * Usa la caché de usuarios; las escrituras sobre el usuario la invalidan
      * @param usernameOrEmail username o email del usuario
      * @return UserDetails para Spring Security
      * @throws UsernameNotFoundException si el usuario no existe
      */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
+        UserPrincipal cached = principalCache.get(usernameOrEmail);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Las peticiones concurrentes del mismo usuario esperan una única consulta
+        return userLoads.execute(PrincipalCache.keyOf(usernameOrEmail), () -> loadAndCache(usernameOrEmail));
+    }
+
+    private UserPrincipal loadAndCache(String usernameOrEmail) {
+        // Otro hilo pudo haber completado la carga justo antes de iniciar esta
+        UserPrincipal cached = principalCache.peek(usernameOrEmail);
+        if (cached != null) {
+            return cached;
+        }
+
         log.debug("Cargando usuario por username/email: {}", usernameOrEmail);
 
         User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
@@ -44,7 +63,11 @@ public class CustomUserDetailsService implements UserDetailsService {
                 });
 
         log.debug("Usuario encontrado: {} (ID: {})", user.getUsername(), user.getId());
-        return UserPrincipal.create(user);
+
+        // Los roles son EAGER: la consulta del repositorio alcanza sin abrir una transacción propia
+        UserPrincipal principal = UserPrincipal.create(user);
+        principalCache.put(principal);
+        return principal;
     }
 
     /**
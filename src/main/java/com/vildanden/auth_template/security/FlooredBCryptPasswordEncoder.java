@@ -0,0 +1,41 @@
+package com.vildanden.auth_template.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encoder BCrypt cuya actualización de hashes depende de un costo mínimo común al clúster
+ * El costo de los hashes nuevos se calibra en cada nodo, pero un hash sólo se regenera
+ * si su costo está por debajo del mínimo: comparar contra el costo local haría que el nodo
+ * más rápido subiera todos los hashes a su propio costo y los demás tardaran más en verificarlos
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class FlooredBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int upgradeBelow;
+
+    /**
+     * @param strength costo de los hashes nuevos
+     * @param upgradeBelow costo mínimo del clúster; los hashes de menor costo se regeneran
+     */
+    public FlooredBCryptPasswordEncoder(int strength, int upgradeBelow) {
+        super(strength);
+        this.upgradeBelow = upgradeBelow;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(2)) < upgradeBelow;
+    }
+}
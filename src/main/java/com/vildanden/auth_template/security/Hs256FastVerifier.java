@@ -0,0 +1,510 @@
+package com.vildanden.auth_template.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verificador especializado para los tokens HS256 compactos que emite {@link JwtService}
+ * Recorre el token por índices, calcula el HMAC con un {@link Mac} reutilizado por hilo
+ * y lee el payload con un parser JSON mínimo (objeto plano de strings, enteros,
+ * booleanos y listas de strings).
+ *
+ * Ante cualquier forma inesperada (otro header, claims anidados, firma inválida,
+ * token expirado, etc.) devuelve null para que jjwt procese el token y genere
+ * el error correspondiente.
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+final class Hs256FastVerifier {
+
+    private static final String HMAC_SHA_256 = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+
+    private static final int[] BASE64URL = new int[128];
+
+    static {
+        java.util.Arrays.fill(BASE64URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final HeaderKey[] headerKeys;
+
+    /**
+     * @param defaultKey clave para tokens sin kid (puede ser null)
+     * @param keysById claves del anillo indexadas por kid
+     */
+    Hs256FastVerifier(SecretKey defaultKey, Map<String, SecretKey> keysById) {
+        List<HeaderKey> keys = new ArrayList<>();
+        if (defaultKey != null) {
+            keys.add(new HeaderKey("{\"alg\":\"HS256\"}", defaultKey));
+        }
+        keysById.forEach((kid, key) -> {
+            if (isPlainJsonString(kid)) {
+                keys.add(new HeaderKey("{\"kid\":\"" + kid + "\",\"alg\":\"HS256\"}", key));
+            }
+        });
+        this.headerKeys = keys.toArray(new HeaderKey[0]);
+    }
+
+    /**
+     * Verifica el token por el camino rápido
+     * @return token verificado, o null si debe procesarse con jjwt
+     */
+    VerifiedToken verify(String token, long nowMillis) {
+        if (token == null) {
+            return null;
+        }
+
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0
+                || token.length() - secondDot - 1 != ENCODED_SIGNATURE_LENGTH) {
+            return null;
+        }
+
+        HeaderKey headerKey = findHeaderKey(token, firstDot);
+        if (headerKey == null) {
+            return null;
+        }
+
+        Scratch scratch = SCRATCH.get();
+
+        // Firma: HMAC sobre los bytes ASCII de header.payload
+        byte[] signingInput = scratch.signingInput(secondDot);
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7F) {
+                return null;
+            }
+            signingInput[i] = (byte) c;
+        }
+
+        try {
+            Mac mac = headerKey.mac();
+            mac.update(signingInput, 0, secondDot);
+            mac.doFinal(scratch.expectedSignature, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+
+        if (decodeBase64Url(token, secondDot + 1, token.length(), scratch.actualSignature, 0) != SIGNATURE_LENGTH
+                || !MessageDigest.isEqual(scratch.expectedSignature, scratch.actualSignature)) {
+            return null;
+        }
+
+        // Payload
+        byte[] payload = scratch.payload((secondDot - firstDot) * 3 / 4 + 3);
+        int payloadLength = decodeBase64Url(token, firstDot + 1, secondDot, payload, 0);
+        if (payloadLength < 0) {
+            return null;
+        }
+
+        Map<String, Object> claims = new ClaimsReader(payload, payloadLength).read();
+        if (claims == null) {
+            return null;
+        }
+
+        Object subject = claims.get("sub");
+        Object type = claims.get(VerifiedToken.CLAIM_TYPE);
+        Object issuedAt = claims.get("iat");
+        Object expiration = claims.get("exp");
+
+        if (!(expiration instanceof Long exp)
+                || (subject != null && !(subject instanceof String))
+                || (type != null && !(type instanceof String))
+                || (issuedAt != null && !(issuedAt instanceof Long))
+                || claims.containsKey("nbf")
+                || nowMillis > exp * 1000) {
+            // Expirados o con claims inesperados: jjwt decide y reporta el error
+            return null;
+        }
+
+        return new VerifiedToken(
+                (String) subject,
+                (String) type,
+                issuedAt != null ? Instant.ofEpochSecond((Long) issuedAt) : null,
+                Instant.ofEpochSecond(exp),
+                claims
+        );
+    }
+
+    private HeaderKey findHeaderKey(String token, int headerLength) {
+        for (HeaderKey headerKey : headerKeys) {
+            if (headerKey.encodedHeader.length() == headerLength
+                    && token.regionMatches(0, headerKey.encodedHeader, 0, headerLength)) {
+                return headerKey;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodifica Base64URL (sin padding) del rango indicado
+     * @return bytes escritos, o -1 si el contenido no es válido
+     */
+    static int decodeBase64Url(String source, int from, int to, byte[] target, int offset) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+
+        int decodedLength = length / 4 * 3 + Math.max(0, length % 4 - 1);
+        if (offset + decodedLength > target.length) {
+            return -1;
+        }
+
+        int out = offset;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[out++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out - offset;
+    }
+
+    private static boolean isPlainJsonString(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\' || c > 0x7E) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Header Base64URL esperado y su clave, con un Mac inicializado por hilo
+     */
+    private static final class HeaderKey {
+
+        private final String encodedHeader;
+        private final ThreadLocal<Mac> mac;
+
+        HeaderKey(String headerJson, SecretKey key) {
+            this.encodedHeader = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(headerJson.getBytes(StandardCharsets.UTF_8));
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance(HMAC_SHA_256);
+                    instance.init(key);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("No se pudo inicializar HmacSHA256", e);
+                }
+            });
+        }
+
+        Mac mac() {
+            return mac.get();
+        }
+    }
+
+    /**
+     * Buffers reutilizados por hilo para evitar asignaciones por token
+     */
+    private static final class Scratch {
+
+        private byte[] signingInput = new byte[512];
+        private byte[] payload = new byte[512];
+        private final byte[] expectedSignature = new byte[SIGNATURE_LENGTH];
+        private final byte[] actualSignature = new byte[SIGNATURE_LENGTH];
+
+        byte[] signingInput(int length) {
+            if (signingInput.length < length) {
+                signingInput = new byte[Math.max(length, signingInput.length * 2)];
+            }
+            return signingInput;
+        }
+
+        byte[] payload(int length) {
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Parser JSON mínimo para un objeto plano de claims
+     * Devuelve null ante cualquier construcción no soportada
+     */
+    private static final class ClaimsReader {
+
+        private final byte[] json;
+        private final int length;
+        private int position;
+
+        ClaimsReader(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        Map<String, Object> read() {
+            Map<String, Object> claims = new LinkedHashMap<>();
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return finish(claims);
+            }
+
+            while (true) {
+                skipWhitespace();
+                String name = readString();
+                if (name == null) {
+                    return null;
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return null;
+                }
+                skipWhitespace();
+
+                Object value = readValue(isDateClaim(name));
+                if (value == null || claims.put(name, value) != null) {
+                    return null;
+                }
+
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                if (consume('}')) {
+                    return finish(claims);
+                }
+                return null;
+            }
+        }
+
+        private Map<String, Object> finish(Map<String, Object> claims) {
+            skipWhitespace();
+            return position == length ? claims : null;
+        }
+
+        private Object readValue(boolean dateClaim) {
+            if (position >= length) {
+                return null;
+            }
+            byte b = json[position];
+            if (b == '"') {
+                return readString();
+            }
+            if (b == '-' || (b >= '0' && b <= '9')) {
+                return readInteger(dateClaim);
+            }
+            if (b == '[') {
+                return readStringArray();
+            }
+            if (matches("true")) {
+                return Boolean.TRUE;
+            }
+            if (matches("false")) {
+                return Boolean.FALSE;
+            }
+            // null, objetos anidados y otros tipos quedan para jjwt
+            return null;
+        }
+
+        private Object readInteger(boolean dateClaim) {
+            int start = position;
+            if (json[position] == '-') {
+                position++;
+            }
+            int digitsStart = position;
+            while (position < length && json[position] >= '0' && json[position] <= '9') {
+                position++;
+            }
+            int digits = position - digitsStart;
+            if (digits == 0 || digits > 18) {
+                return null;
+            }
+            if (position < length && (json[position] == '.' || json[position] == 'e' || json[position] == 'E')) {
+                return null;
+            }
+
+            long value = 0;
+            for (int i = digitsStart; i < position; i++) {
+                value = value * 10 + (json[i] - '0');
+            }
+            if (json[start] == '-') {
+                value = -value;
+            }
+
+            // Mismos tipos que entrega jjwt: fechas como Long, el resto Integer si entra
+            if (dateClaim || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                return value;
+            }
+            return (int) value;
+        }
+
+        private List<String> readStringArray() {
+            position++;
+            List<String> values = new ArrayList<>();
+            skipWhitespace();
+            if (consume(']')) {
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String value = readString();
+                if (value == null) {
+                    return null;
+                }
+                values.add(value);
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                return consume(']') ? values : null;
+            }
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            int start = position;
+            while (position < length) {
+                byte b = json[position];
+                if (b == '"') {
+                    String value = new String(json, start, position - start, StandardCharsets.UTF_8);
+                    position++;
+                    return value;
+                }
+                if (b == '\\') {
+                    return readEscapedString(start);
+                }
+                if (b >= 0 && b < 0x20) {
+                    return null;
+                }
+                position++;
+            }
+            return null;
+        }
+
+        private String readEscapedString(int start) {
+            StringBuilder builder = new StringBuilder(position - start + 16);
+            builder.append(new String(json, start, position - start, StandardCharsets.UTF_8));
+
+            while (position < length) {
+                byte b = json[position];
+                if (b == '"') {
+                    position++;
+                    return builder.toString();
+                }
+                if (b != '\\') {
+                    int chunkStart = position;
+                    while (position < length && json[position] != '"' && json[position] != '\\') {
+                        if (json[position] >= 0 && json[position] < 0x20) {
+                            return null;
+                        }
+                        position++;
+                    }
+                    builder.append(new String(json, chunkStart, position - chunkStart, StandardCharsets.UTF_8));
+                    continue;
+                }
+
+                position++;
+                if (position >= length) {
+                    return null;
+                }
+                byte escaped = json[position++];
+                switch (escaped) {
+                    case '"' -> builder.append('"');
+                    case '\\' -> builder.append('\\');
+                    case '/' -> builder.append('/');
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > length) {
+                            return null;
+                        }
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(json[position++], 16);
+                            if (digit < 0) {
+                                return null;
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        builder.append((char) code);
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean matches(String literal) {
+            int end = position + literal.length();
+            if (end > length) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (json[position + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            position = end;
+            return true;
+        }
+
+        private boolean consume(char expected) {
+            if (position < length && json[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < length) {
+                byte b = json[position];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+
+        private static boolean isDateClaim(String name) {
+            return "exp".equals(name) || "iat".equals(name) || "nbf".equals(name);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.vildanden.auth_template.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Emisor especializado de tokens HS256 compactos
+ * El header (constante por clave) se codifica una sola vez, el payload JSON se escribe
+ * directamente en un buffer reutilizado por hilo y se firma con un {@link Mac} por hilo.
+ *
+ * La salida es idéntica byte a byte a la de jjwt: claims en orden de inserción,
+ * luego jti, sub, iat y exp (en segundos), con el mismo escapado de strings.
+ * Si algún claim no tiene una representación soportada devuelve null
+ * y el token se emite con el builder de jjwt.
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+final class Hs256TokenMinter {
+
+    private static final String HMAC_SHA_256 = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // Claims registrados que jjwt ordena o convierte por su cuenta
+    private static final Set<String> REGISTERED_CLAIMS = Set.of("iss", "sub", "aud", "exp", "nbf", "iat", "jti");
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final byte[] encodedHeader;
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param key clave de firma vigente
+     * @param keyId kid del header (null sin anillo de claves)
+     */
+    Hs256TokenMinter(SecretKey key, String keyId) {
+        String header = keyId != null
+                ? "{\"kid\":" + jsonString(keyId) + ",\"alg\":\"HS256\"}"
+                : "{\"alg\":\"HS256\"}";
+        this.encodedHeader = Base64.getUrlEncoder().withoutPadding()
+                .encode(header.getBytes(StandardCharsets.UTF_8));
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_SHA_256);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("No se pudo inicializar HmacSHA256", e);
+            }
+        });
+    }
+
+    /**
+     * Emite el token
+     * @return token compacto, o null si debe emitirse con el builder de jjwt
+     */
+    String mint(Map<String, Object> claims, String tokenId, String subject, long issuedAtMillis, long expirationMillis) {
+        Buffers buffers = BUFFERS.get();
+        JsonWriter json = buffers.json;
+        json.reset();
+
+        json.write('{');
+        boolean first = true;
+        if (claims != null) {
+            for (Map.Entry<String, Object> entry : claims.entrySet()) {
+                Object value = entry.getValue();
+                if (value == null) {
+                    // jjwt descarta los claims nulos
+                    continue;
+                }
+                if (entry.getKey() == null || REGISTERED_CLAIMS.contains(entry.getKey())) {
+                    return null;
+                }
+                first = json.separator(first);
+                if (!json.string(entry.getKey())) {
+                    return null;
+                }
+                json.write(':');
+                if (!json.value(value)) {
+                    return null;
+                }
+            }
+        }
+        if (tokenId != null) {
+            first = json.separator(first);
+            json.ascii("\"jti\":");
+            if (!json.string(tokenId)) {
+                return null;
+            }
+        }
+        if (subject != null) {
+            first = json.separator(first);
+            json.ascii("\"sub\":");
+            if (!json.string(subject)) {
+                return null;
+            }
+        }
+        first = json.separator(first);
+        json.ascii("\"iat\":");
+        json.number(issuedAtMillis / 1000);
+        json.separator(first);
+        json.ascii("\"exp\":");
+        json.number(expirationMillis / 1000);
+        json.write('}');
+
+        // header.payload.signature en un único buffer ASCII
+        int payloadLength = (json.length * 4 + 2) / 3;
+        byte[] token = buffers.token(encodedHeader.length + payloadLength + 45);
+        System.arraycopy(encodedHeader, 0, token, 0, encodedHeader.length);
+        int position = encodedHeader.length;
+        token[position++] = '.';
+        position = encodeBase64Url(json.bytes, json.length, token, position);
+
+        byte[] signature = buffers.signature;
+        try {
+            Mac instance = mac.get();
+            instance.update(token, 0, position);
+            instance.doFinal(signature, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+
+        token[position++] = '.';
+        position = encodeBase64Url(signature, SIGNATURE_LENGTH, token, position);
+
+        return new String(token, 0, position, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int encodeBase64Url(byte[] source, int length, byte[] target, int position) {
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8 | (source[i + 2] & 0xFF);
+            target[position++] = BASE64URL[bits >>> 18];
+            target[position++] = BASE64URL[(bits >>> 12) & 0x3F];
+            target[position++] = BASE64URL[(bits >>> 6) & 0x3F];
+            target[position++] = BASE64URL[bits & 0x3F];
+        }
+        int remaining = length - i;
+        if (remaining == 1) {
+            int bits = (source[i] & 0xFF) << 16;
+            target[position++] = BASE64URL[bits >>> 18];
+            target[position++] = BASE64URL[(bits >>> 12) & 0x3F];
+        } else if (remaining == 2) {
+            int bits = (source[i] & 0xFF) << 16 | (source[i + 1] & 0xFF) << 8;
+            target[position++] = BASE64URL[bits >>> 18];
+            target[position++] = BASE64URL[(bits >>> 12) & 0x3F];
+            target[position++] = BASE64URL[(bits >>> 6) & 0x3F];
+        }
+        return position;
+    }
+
+    private static String jsonString(String value) {
+        JsonWriter writer = new JsonWriter();
+        writer.string(value);
+        return new String(writer.bytes, 0, writer.length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffers reutilizados por hilo
+     */
+    private static final class Buffers {
+
+        private final JsonWriter json = new JsonWriter();
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private byte[] token = new byte[1024];
+
+        byte[] token(int length) {
+            if (token.length < length) {
+                token = new byte[Math.max(length, token.length * 2)];
+            }
+            return token;
+        }
+    }
+
+    /**
+     * Escritor JSON en UTF-8 con el mismo escapado que el serializador de jjwt (Jackson)
+     */
+    private static final class JsonWriter {
+
+        private byte[] bytes = new byte[512];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        boolean separator(boolean first) {
+            if (!first) {
+                write(',');
+            }
+            return false;
+        }
+
+        boolean value(Object value) {
+            if (value instanceof String string) {
+                return string(string);
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                number(((Number) value).longValue());
+                return true;
+            }
+            if (value instanceof Boolean bool) {
+                ascii(bool ? "true" : "false");
+                return true;
+            }
+            if (value instanceof Collection<?> collection) {
+                write('[');
+                boolean first = true;
+                for (Object element : collection) {
+                    if (!(element instanceof String string)) {
+                        return false;
+                    }
+                    first = separator(first);
+                    if (!string(string)) {
+                        return false;
+                    }
+                }
+                write(']');
+                return true;
+            }
+            return false;
+        }
+
+        boolean string(String value) {
+            write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"' || c == '\\') {
+                        write('\\');
+                        write(c);
+                    } else if (c >= 0x20) {
+                        write(c);
+                    } else {
+                        escapeControl(c);
+                    }
+                } else if (c < 0x800) {
+                    write(0xC0 | (c >> 6));
+                    write(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // Jackson escapa los pares surrogate (caracteres fuera del BMP)
+                    escapeUnicode(c);
+                    escapeUnicode(value.charAt(++i));
+                } else if (Character.isSurrogate(c)) {
+                    // Surrogate suelto: se deja el caso a jjwt
+                    return false;
+                } else {
+                    write(0xE0 | (c >> 12));
+                    write(0x80 | ((c >> 6) & 0x3F));
+                    write(0x80 | (c & 0x3F));
+                }
+            }
+            write('"');
+            return true;
+        }
+
+        private void escapeControl(char c) {
+            write('\\');
+            switch (c) {
+                case '\b' -> write('b');
+                case '\t' -> write('t');
+                case '\n' -> write('n');
+                case '\f' -> write('f');
+                case '\r' -> write('r');
+                default -> {
+                    ascii("u00");
+                    write(HEX[c >> 4]);
+                    write(HEX[c & 0xF]);
+                }
+            }
+        }
+
+        private void escapeUnicode(char c) {
+            write('\\');
+            write('u');
+            write(HEX[c >> 12]);
+            write(HEX[(c >> 8) & 0xF]);
+            write(HEX[(c >> 4) & 0xF]);
+            write(HEX[c & 0xF]);
+        }
+
+        void number(long value) {
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) {
+                    ascii(Long.toString(value));
+                    return;
+                }
+                write('-');
+                value = -value;
+            }
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            ensureCapacity(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+        }
+
+        void ascii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                write(value.charAt(i));
+            }
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) b;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final RejectedTokenCache rejectedTokens;
 
     @Override
     protected void doFilterInternal(
@@ -44,20 +45,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getTokenFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtService.validateToken(jwt)) {
-                String username = jwtService.extractUsername(jwt);
-
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (StringUtils.hasText(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Una sola verificación de firma y parseo por petición
+                VerifiedToken token = jwtService.verify(jwt);
+                String username = token.subject();
+
+                // Verificar que sea un access token antes de consultar al usuario
+                // (entrada del cliente: se cuenta por motivo en lugar de registrarse en el log)
+                if (!token.isAccessToken()) {
+                    rejectedTokens.record(TokenRejectionReason.WRONG_TYPE);
+                    log.debug("Se intentó usar un refresh token como access token para usuario: {}", username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
 
-                    if (jwtService.validateToken(jwt, userDetails)) {
-                        // Verificar que sea un access token
-                        if (!jwtService.isAccessToken(jwt)) {
-                            log.warn("Se intentó usar un refresh token como access token para usuario: {}", username);
-                            filterChain.doFilter(request, response);
-                            return;
-                        }
+                if (username != null) {
+                    UserDetails userDetails = resolveUserDetails(token);
 
+                    if (userDetails != null && jwtService.isTokenValidFor(token, userDetails)) {
                         UsernamePasswordAuthenticationToken authToken =
                                 new UsernamePasswordAuthenticationToken(
                                         userDetails,
@@ -74,7 +79,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             }
         } catch (JwtException e) {
-            log.warn("Error procesando JWT: {}", e.getMessage());
+            // Los rechazos se cuentan por motivo en JwtService (GET /admin/security-stats)
+            log.debug("Error procesando JWT: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Error inesperado en filtro JWT: {}", e.getMessage(), e);
         }
@@ -82,6 +88,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Obtiene el usuario del token: desde los claims si es autocontenido
+     * (sin consultar la base de datos) o cargándolo por username
+     */
+    private UserDetails resolveUserDetails(VerifiedToken token) {
+        if (!jwtService.isSelfContained(token)) {
+            return userDetailsService.loadUserByUsername(token.subject());
+        }
+
+        UserPrincipal principal = UserPrincipal.fromToken(token);
+        if (!principal.isAccountAvailable()) {
+            rejectedTokens.record(TokenRejectionReason.ACCOUNT_UNAVAILABLE);
+            log.debug("Token autocontenido de una cuenta no disponible: {}", token.subject());
+            return null;
+        }
+        return principal;
+    }
+
     /**
      * Extrae el token JWT del header Authorization
      */
@@ -109,6 +133,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 path.equals("/auth/validate") ||
                 path.equals("/health") ||
                 path.equals("/info") ||
+                path.equals("/.well-known/jwks.json") ||
                 path.startsWith("/actuator/");
     }
 }
\ No newline at end of file
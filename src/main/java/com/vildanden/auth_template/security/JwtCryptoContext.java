@@ -0,0 +1,456 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Contexto criptográfico inmutable para firmar y verificar tokens JWT
+ * Se construye una sola vez a partir de la configuración y se comparte entre hilos:
+ * contiene el anillo de claves indexado por kid, el parser (thread-safe)
+ * y la plantilla del builder con la clave de firma vigente
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+final class JwtCryptoContext {
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private final Source source;
+    private final JwtProperties.Algorithm algorithm;
+    private final UnaryOperator<JwtBuilder> signer;
+    private final String keyId;
+    private final Map<String, Key> verificationKeys;
+    private final Key defaultVerificationKey;
+    private final Instant nextTransition;
+    private final Map<String, Object> publicJwk;
+    private final Hs256FastVerifier fastVerifier;
+    private final Hs256TokenMinter minter;
+    private final JwtParser parser;
+
+    private JwtCryptoContext(Source source,
+                             JwtProperties.Algorithm algorithm,
+                             UnaryOperator<JwtBuilder> signer,
+                             String keyId,
+                             Map<String, Key> verificationKeys,
+                             Key defaultVerificationKey,
+                             Instant nextTransition,
+                             Map<String, Object> publicJwk,
+                             SecretKey hmacSigningKey) {
+        this.source = source;
+        this.algorithm = algorithm;
+        this.signer = signer;
+        this.keyId = keyId;
+        this.verificationKeys = verificationKeys;
+        this.defaultVerificationKey = defaultVerificationKey;
+        this.nextTransition = nextTransition;
+        this.publicJwk = publicJwk;
+        this.fastVerifier = algorithm == JwtProperties.Algorithm.HS256
+                ? new Hs256FastVerifier((SecretKey) defaultVerificationKey, secretKeys(verificationKeys))
+                : null;
+        this.minter = hmacSigningKey != null ? new Hs256TokenMinter(hmacSigningKey, keyId) : null;
+        this.parser = Jwts.parser()
+                .keyLocator(new KeyRingLocator())
+                .build();
+    }
+
+    /**
+     * Construye el contexto a partir de la configuración JWT vigente en el instante indicado
+     */
+    static JwtCryptoContext create(JwtProperties jwtProperties, Instant now) {
+        Source source = Source.of(jwtProperties);
+        return source.algorithm().isAsymmetric()
+                ? createAsymmetric(source)
+                : createHmac(source, now);
+    }
+
+    private static JwtCryptoContext createHmac(Source source, Instant now) {
+        // Los tokens sin kid (emitidos antes del anillo de claves) se verifican con jwt.secret
+        // hasta jwt.secret-retire-at; sin clave activa en el anillo se sigue firmando con él
+        SecretKey legacyKey = hmacKey(source.secret());
+
+        if (source.keys().isEmpty()) {
+            return new JwtCryptoContext(
+                    source,
+                    JwtProperties.Algorithm.HS256,
+                    builder -> builder.signWith(legacyKey, Jwts.SIG.HS256),
+                    null,
+                    Map.of(),
+                    legacyKey,
+                    null,
+                    null,
+                    legacyKey
+            );
+        }
+
+        Map<String, Key> verificationKeys = new HashMap<>();
+        KeySpec signingSpec = null;
+        SecretKey signingKey = null;
+        Instant nextTransition = earliestAfter(now, null, source.secretRetireAt());
+
+        for (KeySpec spec : source.keys()) {
+            if (spec.isRetiredAt(now)) {
+                continue;
+            }
+
+            // Las claves futuras ya se aceptan para tolerar desfasajes de reloj entre instancias
+            SecretKey key = hmacKey(spec.secret());
+            verificationKeys.put(spec.id(), key);
+
+            if (spec.isActiveAt(now) && (signingSpec == null || spec.activatesAfter(signingSpec))) {
+                signingSpec = spec;
+                signingKey = key;
+            }
+
+            nextTransition = earliestAfter(now, nextTransition, spec.activeFrom());
+            nextTransition = earliestAfter(now, nextTransition, spec.retireAt());
+        }
+
+        if (signingKey == null) {
+            log.warn("Ninguna clave de jwt.keys está activa: se firma con jwt.secret sin kid");
+            SecretKey fallbackKey = legacyKey;
+            return new JwtCryptoContext(
+                    source,
+                    JwtProperties.Algorithm.HS256,
+                    builder -> builder.signWith(fallbackKey, Jwts.SIG.HS256),
+                    null,
+                    Map.copyOf(verificationKeys),
+                    legacyKey,
+                    nextTransition,
+                    null,
+                    fallbackKey
+            );
+        }
+
+        // Como las claves del anillo, jwt.secret deja de verificar tokens al retirarse
+        boolean legacyRetired = source.secretRetireAt() != null && !source.secretRetireAt().isAfter(now);
+        SecretKey activeKey = signingKey;
+        log.debug("Anillo de claves JWT: firma con kid {} - {} claves de verificación - próxima transición: {}",
+                signingSpec.id(), verificationKeys.size(), nextTransition);
+
+        return new JwtCryptoContext(
+                source,
+                JwtProperties.Algorithm.HS256,
+                builder -> builder.signWith(activeKey, Jwts.SIG.HS256),
+                signingSpec.id(),
+                Map.copyOf(verificationKeys),
+                legacyRetired ? null : legacyKey,
+                nextTransition,
+                null,
+                activeKey
+        );
+    }
+
+    private static JwtCryptoContext createAsymmetric(Source source) {
+        JwtProperties.Algorithm algorithm = source.algorithm();
+        KeyPair keyPair = loadOrGenerateKeyPair(source);
+        PrivateKey privateKey = keyPair.getPrivate();
+        PublicKey publicKey = keyPair.getPublic();
+
+        PublicJwk<?> jwk = Jwks.builder()
+                .key(publicKey)
+                .algorithm(algorithm.name())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+        String keyId = jwk.getId();
+
+        UnaryOperator<JwtBuilder> signer = algorithm == JwtProperties.Algorithm.ES256
+                ? builder -> builder.signWith(privateKey, Jwts.SIG.ES256)
+                : builder -> builder.signWith(privateKey, Jwts.SIG.EdDSA);
+
+        log.debug("Construyendo contexto JWT {} - kid: {}", algorithm, keyId);
+
+        return new JwtCryptoContext(
+                source,
+                algorithm,
+                signer,
+                keyId,
+                Map.of(keyId, publicKey),
+                publicKey,
+                null,
+                Collections.unmodifiableMap(new LinkedHashMap<>(jwk)),
+                null
+        );
+    }
+
+    /**
+     * Genera la clave HMAC a partir de un secreto configurado
+     */
+    private static SecretKey hmacKey(String secret) {
+        // Asegurar que la clave tenga al menos 256 bits (32 bytes)
+        String effectiveSecret = secret != null ? secret : "";
+        if (effectiveSecret.length() < MIN_SECRET_LENGTH) {
+            effectiveSecret = effectiveSecret + "0".repeat(MIN_SECRET_LENGTH - effectiveSecret.length());
+        }
+
+        // Usar siempre la clave configurada (nunca generar una aleatoria)
+        return Keys.hmacShaKeyFor(effectiveSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, SecretKey> secretKeys(Map<String, Key> keys) {
+        Map<String, SecretKey> secretKeys = new HashMap<>();
+        keys.forEach((kid, key) -> secretKeys.put(kid, (SecretKey) key));
+        return secretKeys;
+    }
+
+    private static Instant earliestAfter(Instant now, Instant current, Instant candidate) {
+        if (candidate == null || !candidate.isAfter(now)) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    /**
+     * Carga el par de claves configurado o genera uno efímero si no existe
+     */
+    private static KeyPair loadOrGenerateKeyPair(Source source) {
+        JwtProperties.Algorithm algorithm = source.algorithm();
+
+        if (source.privateKey() == null || source.privateKey().isBlank()
+                || source.publicKey() == null || source.publicKey().isBlank()) {
+            log.warn("No se configuraron jwt.private-key/jwt.public-key para {}: se genera un par de claves efímero. " +
+                    "Los tokens dejarán de ser válidos al reiniciar y no se comparten entre instancias", algorithm);
+            return algorithm == JwtProperties.Algorithm.ES256
+                    ? Jwts.SIG.ES256.keyPair().build()
+                    : Jwks.CRV.Ed25519.keyPair().build();
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(
+                    algorithm == JwtProperties.Algorithm.ES256 ? "EC" : "Ed25519");
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decodeKey(source.privateKey())));
+            PublicKey publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(decodeKey(source.publicKey())));
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Claves JWT inválidas para el algoritmo " + algorithm, e);
+        }
+    }
+
+    /**
+     * Decodifica una clave en Base64, aceptando también formato PEM
+     */
+    private static byte[] decodeKey(String value) {
+        String base64 = value
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    /**
+     * Indica si el contexto fue construido con la configuración actual
+     */
+    boolean isBuiltFrom(JwtProperties jwtProperties) {
+        return source.matches(jwtProperties);
+    }
+
+    /**
+     * Indica si en el instante indicado corresponde activar o retirar alguna clave
+     */
+    boolean isRotationDue(Instant now) {
+        return nextTransition != null && !now.isBefore(nextTransition);
+    }
+
+    /**
+     * Indica si este contexto sigue aceptando todas las claves de verificación del anterior
+     */
+    boolean retainsVerificationKeysOf(JwtCryptoContext previous) {
+        return Objects.equals(previous.defaultVerificationKey, defaultVerificationKey)
+                && verificationKeys.entrySet().containsAll(previous.verificationKeys.entrySet());
+    }
+
+    /**
+     * Nuevo builder ya configurado con la clave, el algoritmo y el kid
+     * (los builders de jjwt no son reutilizables entre hilos)
+     */
+    JwtBuilder newBuilder() {
+        JwtBuilder builder = Jwts.builder();
+        if (keyId != null) {
+            builder.header().keyId(keyId);
+        }
+        return signer.apply(builder);
+    }
+
+    /**
+     * Emite el token por el camino rápido de HS256
+     * @return token compacto, o null si debe emitirse con {@link #newBuilder()}
+     */
+    String mint(Map<String, Object> claims, String tokenId, String subject, long issuedAtMillis, long expirationMillis) {
+        return minter != null ? minter.mint(claims, tokenId, subject, issuedAtMillis, expirationMillis) : null;
+    }
+
+    JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Verifica el token por el camino rápido de HS256
+     * @return token verificado, o null si debe procesarse con el parser de jjwt
+     */
+    VerifiedToken fastVerify(String token, long nowMillis) {
+        return fastVerifier != null ? fastVerifier.verify(token, nowMillis) : null;
+    }
+
+    JwtProperties.Algorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * kid de la clave con la que se firman los tokens nuevos (null sin anillo de claves)
+     */
+    String keyId() {
+        return keyId;
+    }
+
+    /**
+     * Clave pública en formato JWK (null con HS256: el secreto nunca se publica)
+     */
+    Map<String, Object> publicJwk() {
+        return publicJwk;
+    }
+
+    /**
+     * Selecciona en O(1) la clave de verificación según el kid del header
+     */
+    private final class KeyRingLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (defaultVerificationKey == null) {
+                    throw new SignatureException("Tokens sin kid ya no se aceptan (jwt.secret retirado)");
+                }
+                return defaultVerificationKey;
+            }
+
+            Key key = verificationKeys.get(kid);
+            if (key == null) {
+                throw new SignatureException("Clave de firma desconocida o retirada (kid: " + kid + ")");
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Clave del anillo tal como estaba configurada al construir el contexto
+     */
+    private record KeySpec(String id, String secret, Instant activeFrom, Instant retireAt) {
+
+        static KeySpec of(JwtProperties.SigningKey key) {
+            return new KeySpec(key.getId(), key.getSecret(), key.getActiveFrom(), key.getRetireAt());
+        }
+
+        boolean isActiveAt(Instant now) {
+            return activeFrom == null || !activeFrom.isAfter(now);
+        }
+
+        boolean isRetiredAt(Instant now) {
+            return retireAt != null && !retireAt.isAfter(now);
+        }
+
+        boolean activatesAfter(KeySpec other) {
+            Instant mine = activeFrom != null ? activeFrom : Instant.MIN;
+            Instant theirs = other.activeFrom != null ? other.activeFrom : Instant.MIN;
+            return mine.isAfter(theirs);
+        }
+
+        boolean matches(JwtProperties.SigningKey key) {
+            return Objects.equals(id, key.getId())
+                    && Objects.equals(secret, key.getSecret())
+                    && Objects.equals(activeFrom, key.getActiveFrom())
+                    && Objects.equals(retireAt, key.getRetireAt());
+        }
+    }
+
+    /**
+     * Valores de configuración con los que se construyó el contexto
+     */
+    private record Source(JwtProperties.Algorithm algorithm,
+                          String secret,
+                          Instant secretRetireAt,
+                          String privateKey,
+                          String publicKey,
+                          List<KeySpec> keys) {
+
+        static Source of(JwtProperties jwtProperties) {
+            List<KeySpec> keys = new ArrayList<>();
+            if (jwtProperties.getKeys() != null) {
+                for (JwtProperties.SigningKey key : jwtProperties.getKeys()) {
+                    if (key.getId() == null || key.getId().isBlank()) {
+                        throw new IllegalStateException("Cada clave de jwt.keys debe tener un id (kid)");
+                    }
+                    keys.add(KeySpec.of(key));
+                }
+            }
+
+            return new Source(
+                    algorithmOf(jwtProperties),
+                    jwtProperties.getSecret(),
+                    jwtProperties.getSecretRetireAt(),
+                    jwtProperties.getPrivateKey(),
+                    jwtProperties.getPublicKey(),
+                    List.copyOf(keys)
+            );
+        }
+
+        boolean matches(JwtProperties jwtProperties) {
+            return algorithm == algorithmOf(jwtProperties)
+                    && Objects.equals(secret, jwtProperties.getSecret())
+                    && Objects.equals(secretRetireAt, jwtProperties.getSecretRetireAt())
+                    && Objects.equals(privateKey, jwtProperties.getPrivateKey())
+                    && Objects.equals(publicKey, jwtProperties.getPublicKey())
+                    && keysMatch(jwtProperties.getKeys());
+        }
+
+        private boolean keysMatch(List<JwtProperties.SigningKey> current) {
+            int size = current != null ? current.size() : 0;
+            if (size != keys.size()) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (!keys.get(i).matches(current.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static JwtProperties.Algorithm algorithmOf(JwtProperties jwtProperties) {
+            return jwtProperties.getAlgorithm() != null ? jwtProperties.getAlgorithm() : JwtProperties.Algorithm.HS256;
+        }
+    }
+}
@@ -2,16 +2,20 @@ package com.vildanden.auth_template.security;
 
 import com.vildanden.auth_template.config.JwtProperties;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 /**
@@ -27,33 +31,183 @@ import java.util.function.Function;
 public class JwtService {
 
     private final JwtProperties jwtProperties;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList revocationList;
+    private final TokenVersionRegistry tokenVersions;
+    private final ReferenceTokenStore referenceTokens;
+    private final RejectedTokenCache rejectedTokens;
 
     /**
-     * Genera la clave secreta para firmar los tokens
+     * Contexto criptográfico compartido; se reconstruye sólo si cambia la configuración de claves
      */
-    private SecretKey getSigningKey() {
-        String secret = jwtProperties.getSecret();
+    private volatile JwtCryptoContext cryptoContext;
 
-        // Log para debug
-        log.debug("JWT Secret length: {}", secret != null ? secret.length() : "null");
+    /**
+     * Construye el contexto criptográfico al iniciar la aplicación
+     */
+    @PostConstruct
+    void initCryptoContext() {
+        cryptoContext();
+    }
+
+    /**
+     * Obtiene el contexto criptográfico vigente
+     */
+    private JwtCryptoContext cryptoContext() {
+        JwtCryptoContext context = cryptoContext;
+
+        if (context == null || !context.isBuiltFrom(jwtProperties)) {
+            context = rebuildCryptoContext(false);
+        }
+
+        return context;
+    }
+
+    /**
+     * Activa o retira claves del anillo cuando se alcanza su fecha programada
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-rotation-check-interval:60000}")
+    public void rotateSigningKeys() {
+        JwtCryptoContext context = cryptoContext();
+        if (context.isRotationDue(Instant.now())) {
+            rebuildCryptoContext(true);
+        }
+    }
+
+    private synchronized JwtCryptoContext rebuildCryptoContext(boolean rotationDue) {
+        JwtCryptoContext previous = cryptoContext;
+        Instant now = Instant.now();
+
+        boolean stale = previous == null || !previous.isBuiltFrom(jwtProperties);
+        if (!stale && !(rotationDue && previous.isRotationDue(now))) {
+            // Otro hilo ya reconstruyó el contexto
+            return previous;
+        }
+
+        JwtCryptoContext context = JwtCryptoContext.create(jwtProperties, now);
+        cryptoContext = context;
+
+        // Los tokens en caché siguen siendo válidos mientras su clave continúe en el anillo
+        if (previous != null && !context.retainsVerificationKeysOf(previous)) {
+            verifiedTokenCache.invalidateAll();
+        }
+
+        // Con claves nuevas, un token antes rechazado por su firma puede ser válido
+        if (previous != null) {
+            rejectedTokens.invalidateAll();
+        }
+
+        if (previous == null || stale) {
+            log.info("Contexto criptográfico JWT inicializado ({}, kid: {})", context.algorithm(), context.keyId());
+        } else {
+            log.info("Rotación de claves JWT: los tokens nuevos se firman con kid {}", context.keyId());
+        }
+
+        return context;
+    }
+
+    /**
+     * Verifica firma y expiración del token una única vez
+     * y devuelve un objeto inmutable con los datos necesarios
+     * @throws JwtException si el token es inválido o expiró
+     */
+    public VerifiedToken verify(String token) {
+        boolean reference = ReferenceTokenStore.isReferenceToken(token);
+        TokenDigest digest = null;
+
+        if (!reference && token != null && !token.isBlank()
+                && (verifiedTokenCache.isEnabled() || rejectedTokens.isEnabled())) {
+            // Asegura que las cachés se invaliden si cambiaron las claves
+            cryptoContext();
+            digest = TokenDigest.of(token);
+
+            // Un token ya rechazado se descarta con una búsqueda, antes de cualquier operación criptográfica
+            TokenRejectionReason rejected = rejectedTokens.get(digest);
+            if (rejected != null) {
+                throw RejectedTokenException.of(rejected);
+            }
+        }
+
+        VerifiedToken verified = reference ? verifyReference(token) : verifyCached(token, digest);
+
+        // La revocación se consulta siempre, también para tokens servidos desde la caché
+        if (revocationList.isRevoked(verified.tokenId())) {
+            reject(digest, TokenRejectionReason.REVOKED);
+            throw new RevokedTokenException("Token revocado: " + verified.tokenId());
+        }
+
+        // Una versión anterior a la vigente invalida todos los tokens previos del usuario
+        if (!tokenVersions.isCurrent(verified)) {
+            reject(digest, TokenRejectionReason.STALE_VERSION);
+            throw new RevokedTokenException("Token invalidado por cambio de credenciales o estado de la cuenta");
+        }
+
+        return verified;
+    }
 
-        // Asegurar que la clave tenga al menos 256 bits (32 bytes)
-        if (secret == null || secret.length() < 32) {
-            // Expandir la clave si es muy corta
-            secret = (secret != null ? secret : "") + "0".repeat(Math.max(0, 32 - (secret != null ? secret.length() : 0)));
+    /**
+     * Resuelve un token de referencia en el almacén de sesiones (sin criptografía ni caché)
+     */
+    private VerifiedToken verifyReference(String token) {
+        VerifiedToken verified = referenceTokens.resolve(token, System.currentTimeMillis());
+        if (verified == null) {
+            rejectedTokens.record(TokenRejectionReason.UNKNOWN_REFERENCE);
+            throw RejectedTokenException.of(TokenRejectionReason.UNKNOWN_REFERENCE);
+        }
+        return verified;
+    }
+
+    /**
+     * Verifica firma y expiración usando la caché de tokens verificados
+     * Si el token es rechazado, se recuerda en la caché negativa
+     */
+    private VerifiedToken verifyCached(String token, TokenDigest digest) {
+        if (digest == null) {
+            return verifyUncached(token);
+        }
+
+        VerifiedToken cached = verifiedTokenCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = verifyUncached(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // El rechazo ya se contó al parsear; sólo se recuerda el token
+            rejectedTokens.put(digest, TokenRejectionReason.of(e));
+            throw e;
         }
 
-        byte[] keyBytes = secret.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        verifiedTokenCache.put(digest, verified);
+        return verified;
+    }
 
-        // Usar siempre la clave configurada (nunca generar una aleatoria)
-        return Keys.hmacShaKeyFor(keyBytes);
+    private void reject(TokenDigest digest, TokenRejectionReason reason) {
+        rejectedTokens.record(reason);
+        rejectedTokens.put(digest, reason);
+    }
+
+    /**
+     * Verifica el token sin caché: primero por el camino rápido de HS256
+     * y, si el token no encaja en ese formato, con el parser de jjwt
+     */
+    private VerifiedToken verifyUncached(String token) {
+        if (jwtProperties.isFastVerification()) {
+            VerifiedToken verified = cryptoContext().fastVerify(token, System.currentTimeMillis());
+            if (verified != null) {
+                return verified;
+            }
+        }
+        return VerifiedToken.from(extractAllClaims(token));
     }
 
     /**
      * Extrae el username del token JWT
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     /**
@@ -76,25 +230,14 @@ public class JwtService {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return cryptoContext().parser()
                     .parseSignedClaims(token)
                     .getPayload();
-        } catch (ExpiredJwtException e) {
-            log.warn("Token JWT expirado: {}", e.getMessage());
-            throw e;
-        } catch (UnsupportedJwtException e) {
-            log.warn("Token JWT no soportado: {}", e.getMessage());
-            throw e;
-        } catch (MalformedJwtException e) {
-            log.warn("Token JWT malformado: {}", e.getMessage());
-            throw e;
-        } catch (SecurityException e) {
-            log.warn("Token JWT con firma inválida: {}", e.getMessage());
-            throw e;
-        } catch (IllegalArgumentException e) {
-            log.warn("Token JWT vacío: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            // Un contador por motivo en lugar de una línea de log por cada token rechazado
+            TokenRejectionReason reason = TokenRejectionReason.of(e);
+            rejectedTokens.record(reason);
+            log.debug("{}: {}", reason.getMessage(), e.getMessage());
             throw e;
         }
     }
@@ -110,8 +253,31 @@ public class JwtService {
      * Genera un access token para el usuario
      */
     public String generateAccessToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "access");
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(VerifiedToken.CLAIM_TYPE, VerifiedToken.TYPE_ACCESS);
+        putTokenVersion(claims, userDetails);
+
+        // Formato de referencia: token opaco corto; si el almacén no lo admite se emite un JWT
+        if (referenceTokens.isEnabled()) {
+            long now = System.currentTimeMillis();
+            String token = referenceTokens.issue(VerifiedToken.TYPE_ACCESS, userDetails.getUsername(),
+                    (Long) claims.get(VerifiedToken.CLAIM_USER_ID), (Integer) claims.get(VerifiedToken.CLAIM_TOKEN_VERSION),
+                    now, now + jwtProperties.getExpiration());
+            if (token != null) {
+                return token;
+            }
+        }
+
+        // Perfil autocontenido: el filtro arma el UserPrincipal sin consultar la base de datos
+        if (jwtProperties.isSelfContained() && userDetails instanceof UserPrincipal principal) {
+            claims.put(VerifiedToken.CLAIM_USER_ID, principal.getId());
+            claims.put(VerifiedToken.CLAIM_EMAIL, principal.getEmail());
+            claims.put(VerifiedToken.CLAIM_FIRST_NAME, principal.getFirstName());
+            claims.put(VerifiedToken.CLAIM_LAST_NAME, principal.getLastName());
+            claims.put(VerifiedToken.CLAIM_ROLES, principal.getRoleNames());
+            claims.put(VerifiedToken.CLAIM_ACCOUNT_STATUS, principal.getAccountStatusFlags());
+        }
+
         return createToken(claims, userDetails.getUsername(), jwtProperties.getExpiration());
     }
 
@@ -119,11 +285,23 @@ public class JwtService {
      * Genera un refresh token para el usuario
      */
     public String generateRefreshToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "refresh");
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put(VerifiedToken.CLAIM_TYPE, VerifiedToken.TYPE_REFRESH);
+        putTokenVersion(claims, userDetails);
         return createToken(claims, userDetails.getUsername(), jwtProperties.getRefreshExpiration());
     }
 
+    /**
+     * Agrega el id del usuario y su versión de tokens vigente
+     */
+    private void putTokenVersion(Map<String, Object> claims, UserDetails userDetails) {
+        if (userDetails instanceof UserPrincipal principal
+                && principal.getId() != null && principal.getTokenVersion() != null) {
+            claims.put(VerifiedToken.CLAIM_USER_ID, principal.getId());
+            claims.put(VerifiedToken.CLAIM_TOKEN_VERSION, principal.getTokenVersion());
+        }
+    }
+
     /**
      * Genera un token con claims personalizados
      */
@@ -135,27 +313,72 @@ public class JwtService {
      * Crea un token JWT
      */
     private String createToken(Map<String, Object> claims, String subject, long expiration) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+        JwtCryptoContext context = cryptoContext();
+        long now = System.currentTimeMillis();
+
+        // Camino rápido de HS256 (mismos bytes que el builder de jjwt)
+        String tokenId = newTokenId();
+
+        if (jwtProperties.isFastMinting()) {
+            String token = context.mint(claims, tokenId, subject, now, now + expiration);
+            if (token != null) {
+                return token;
+            }
+        }
+
+        return context.newBuilder()
+                .claims(claims)
+                .id(tokenId)
+                .subject(subject)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
                 .compact();
     }
 
+    /**
+     * Genera el id único del token (claim jti): 128 bits aleatorios en Base64URL
+     * No necesita ser impredecible (el token va firmado), sólo único
+     */
+    private static String newTokenId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Revoca el token en este nodo hasta su expiración (logout)
+     * Un token sin jti no puede revocarse individualmente: el llamador decide cómo invalidarlo
+     * @return el token verificado, para compartir la revocación con el resto de los nodos
+     * @throws JwtException si el token es inválido, expiró o ya estaba revocado
+     */
+    public VerifiedToken revoke(String token) {
+        VerifiedToken verified = verify(token);
+
+        if (ReferenceTokenStore.isReferenceToken(token)) {
+            referenceTokens.remove(token);
+            log.info("Token de referencia eliminado para el usuario {}", verified.subject());
+            return verified;
+        }
+
+        if (verified.tokenId() == null) {
+            log.debug("Token sin jti para el usuario {}: no se revoca individualmente", verified.subject());
+            return verified;
+        }
+
+        revocationList.revoke(verified.tokenId(), verified.expiresAt());
+        log.info("Token revocado para el usuario {} (jti: {})", verified.subject(), verified.tokenId());
+        return verified;
+    }
+
     /**
      * Valida si el token es válido para el usuario
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return isTokenValidFor(verify(token), userDetails);
         } catch (JwtException | IllegalArgumentException e) {
-            log.warn("Error validando token para usuario {}: {}",
+            log.debug("Error validando token para usuario {}: {}",
                     userDetails.getUsername(), e.getMessage());
             return false;
         }
@@ -166,41 +389,65 @@ public class JwtService {
      */
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
+            return !verify(token).isExpiredAt(Instant.now());
         } catch (JwtException | IllegalArgumentException e) {
-            log.warn("Token inválido: {}", e.getMessage());
+            log.debug("Token inválido: {}", e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Valida un token ya verificado para el usuario indicado
+     */
+    public boolean isTokenValidFor(VerifiedToken token, UserDetails userDetails) {
+        return token.subject() != null
+                && token.subject().equals(userDetails.getUsername())
+                && !token.isExpiredAt(Instant.now());
+    }
+
+    /**
+     * Indica si el access token trae los datos del usuario y puede autenticarse sin base de datos
+     */
+    public boolean isSelfContained(VerifiedToken token) {
+        return jwtProperties.isSelfContained()
+                && token.isAccessToken()
+                && token.claims().containsKey(VerifiedToken.CLAIM_ACCOUNT_STATUS);
+    }
+
     /**
      * Obtiene el tipo de token (access/refresh)
      */
     public String getTokenType(String token) {
-        return extractClaim(token, claims -> claims.get("type", String.class));
+        return verify(token).type();
     }
 
     /**
      * Verifica si es un access token
      */
     public Boolean isAccessToken(String token) {
-        return "access".equals(getTokenType(token));
+        return verify(token).isAccessToken();
     }
 
     /**
      * Verifica si es un refresh token
      */
     public Boolean isRefreshToken(String token) {
-        return "refresh".equals(getTokenType(token));
+        return verify(token).isRefreshToken();
     }
 
     /**
      * Obtiene el tiempo restante del token en segundos
      */
     public Long getTimeToExpiration(String token) {
-        Date expiration = extractExpiration(token);
-        Date now = new Date();
-        return Math.max(0, (expiration.getTime() - now.getTime()) / 1000);
+        return verify(token).secondsToExpiration();
+    }
+
+    /**
+     * Obtiene el JWK Set con las claves públicas de verificación
+     * Con HS256 el conjunto es vacío: el secreto compartido nunca se publica
+     */
+    public Map<String, Object> getPublicJwks() {
+        Map<String, Object> jwk = cryptoContext().publicJwk();
+        return Map.of("keys", jwk != null ? List.of(jwk) : List.of());
     }
-}
\ No newline at end of file
+}
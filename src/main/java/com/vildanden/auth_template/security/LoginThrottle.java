@@ -0,0 +1,213 @@
+package com.vildanden.auth_template.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.dto.common.LoginThrottleStatsDTO;
+import com.vildanden.auth_template.exception.LoginThrottledException;
+import com.vildanden.auth_template.util.SlidingWindowCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de intentos de login fallidos por usuario y por dirección del cliente
+ * Cada clave tiene un contador de ventana deslizante sin bloqueos; los contadores viven
+ * en una caché acotada (Caffeine, segmentada internamente) que descarta las claves
+ * sin fallos recientes.
+ *
+ * Cada intento se reserva de forma atómica antes de verificar la contraseña (cuenta como
+ * fallo hasta demostrar lo contrario) y se devuelve si resulta exitoso o no llega a verificarse:
+ * los intentos concurrentes no pueden superar el límite. Una vez encontrado el usuario se
+ * cuenta también por su id, de modo que alternar entre username y email no duplica el límite.
+ * La dirección es la que resuelve el servidor (server.forward-headers-strategy)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String ACCOUNT_PREFIX = "i:";
+    private static final String ADDRESS_PREFIX = "a:";
+
+    private final AuthProperties.LoginThrottling config;
+    private final long windowMillis;
+    private final Cache<String, SlidingWindowCounter> counters;
+    private final LongAdder throttledByUsername = new LongAdder();
+    private final LongAdder throttledByAddress = new LongAdder();
+
+    public LoginThrottle(AuthProperties authProperties) {
+        this.config = authProperties.getLoginThrottling();
+        this.windowMillis = config.getWindow().toMillis();
+
+        if (config.isEnabled()) {
+            // Pasadas dos ventanas sin actividad, la estimación del contador ya es cero
+            this.counters = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxTrackedKeys())
+                    .expireAfterAccess(config.getWindow().multipliedBy(2))
+                    .build();
+        } else {
+            this.counters = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return counters != null;
+    }
+
+    /**
+     * Reserva un intento para el usuario indicado y la dirección
+     * @throws LoginThrottledException si alguno de los dos ya alcanzó el límite
+     */
+    public Attempt begin(String usernameOrEmail, String clientAddress) {
+        return begin(usernameOrEmail, clientAddress, System.currentTimeMillis());
+    }
+
+    Attempt begin(String usernameOrEmail, String clientAddress, long nowMillis) {
+        Attempt attempt = new Attempt();
+        if (counters == null) {
+            return attempt;
+        }
+
+        attempt.acquire(usernameKey(usernameOrEmail), config.getMaxFailuresPerUsername(), throttledByUsername, nowMillis);
+        attempt.acquire(addressKey(clientAddress), config.getMaxFailuresPerAddress(), throttledByAddress, nowMillis);
+        return attempt;
+    }
+
+    /**
+     * Estadísticas del límite de intentos
+     */
+    public LoginThrottleStatsDTO stats() {
+        if (counters == null) {
+            return LoginThrottleStatsDTO.disabled();
+        }
+
+        return new LoginThrottleStatsDTO(
+                true,
+                counters.estimatedSize(),
+                throttledByUsername.sum(),
+                throttledByAddress.sum()
+        );
+    }
+
+    private static String usernameKey(String usernameOrEmail) {
+        return usernameOrEmail != null ? USERNAME_PREFIX + usernameOrEmail.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String accountKey(Long userId) {
+        return userId != null ? ACCOUNT_PREFIX + userId : null;
+    }
+
+    private static String addressKey(String clientAddress) {
+        return clientAddress != null ? ADDRESS_PREFIX + clientAddress : null;
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    /**
+     * Intento de login en curso con sus reservas
+     * Sin llamar a {@link #succeeded()} ni a {@link #cancel()}, las reservas quedan como fallo
+     */
+    public final class Attempt {
+
+        private final List<String> userKeys = new ArrayList<>(2);
+        private String addressKey;
+
+        private Attempt() {
+        }
+
+        /**
+         * Reserva el intento también para la cuenta encontrada
+         * Si la cuenta ya alcanzó el límite, devuelve las reservas previas
+         * @throws LoginThrottledException si la cuenta alcanzó el límite
+         */
+        public void bindAccount(Long userId) {
+            bindAccount(userId, System.currentTimeMillis());
+        }
+
+        void bindAccount(Long userId, long nowMillis) {
+            if (counters != null) {
+                acquire(accountKey(userId), config.getMaxFailuresPerUsername(), throttledByUsername, nowMillis);
+            }
+        }
+
+        /**
+         * Login exitoso: limpia los fallos del usuario y devuelve la reserva de la dirección
+         * (sus fallos anteriores se conservan: puede ser compartida por un atacante con una cuenta propia)
+         */
+        public void succeeded() {
+            succeeded(System.currentTimeMillis());
+        }
+
+        void succeeded(long nowMillis) {
+            if (counters == null) {
+                return;
+            }
+            userKeys.forEach(counters::invalidate);
+            userKeys.clear();
+            releaseAddress(nowMillis);
+        }
+
+        /**
+         * El intento no llegó a verificar la contraseña: devuelve todas las reservas
+         */
+        public void cancel() {
+            cancel(System.currentTimeMillis());
+        }
+
+        void cancel(long nowMillis) {
+            if (counters == null) {
+                return;
+            }
+            for (String key : userKeys) {
+                release(key, nowMillis);
+            }
+            userKeys.clear();
+            releaseAddress(nowMillis);
+        }
+
+        private void acquire(String key, int maxFailures, LongAdder throttled, long nowMillis) {
+            if (key == null) {
+                return;
+            }
+
+            SlidingWindowCounter counter = counters.get(key, ignored -> new SlidingWindowCounter(windowMillis));
+            if (!counter.tryRecord(maxFailures, nowMillis)) {
+                long waitMillis = counter.millisUntilBelow(maxFailures, nowMillis);
+                cancel(nowMillis);
+                throttled.increment();
+                log.debug("Login bloqueado temporalmente - Clave: {}", key);
+                throw new LoginThrottledException(toSeconds(waitMillis));
+            }
+
+            if (key.startsWith(ADDRESS_PREFIX)) {
+                addressKey = key;
+            } else {
+                userKeys.add(key);
+            }
+        }
+
+        private void releaseAddress(long nowMillis) {
+            if (addressKey != null) {
+                release(addressKey, nowMillis);
+                addressKey = null;
+            }
+        }
+
+        private void release(String key, long nowMillis) {
+            SlidingWindowCounter counter = counters.getIfPresent(key);
+            if (counter != null) {
+                counter.release(nowMillis);
+            }
+        }
+    }
+}
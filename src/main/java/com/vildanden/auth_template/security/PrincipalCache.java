@@ -0,0 +1,128 @@
+package com.vildanden.auth_template.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.dto.common.CacheStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Caché acotada de usuarios autenticados (UserPrincipal)
+ * Cada usuario se indexa por username y por email, con límite de tamaño y TTL.
+ * Las operaciones que modifican un usuario invalidan sus entradas de forma explícita
+ * (también al confirmar la transacción, para no volver a cachear datos previos al commit)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserPrincipal> cache;
+
+    public PrincipalCache(AuthProperties authProperties) {
+        AuthProperties.PrincipalCache config = authProperties.getPrincipalCache();
+
+        if (config.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfterWrite(config.getTtl())
+                    .recordStats()
+                    .build();
+            log.info("Caché de usuarios habilitada (máximo {} entradas, TTL {})", config.getMaxSize(), config.getTtl());
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Obtiene el usuario en caché por username o email, o null si no existe
+     */
+    public UserPrincipal get(String usernameOrEmail) {
+        return cache != null && usernameOrEmail != null ? cache.getIfPresent(keyOf(usernameOrEmail)) : null;
+    }
+
+    /**
+     * Igual que {@link #get(String)} pero sin registrar el acceso en las estadísticas
+     */
+    UserPrincipal peek(String usernameOrEmail) {
+        return cache != null && usernameOrEmail != null ? cache.asMap().get(keyOf(usernameOrEmail)) : null;
+    }
+
+    /**
+     * Guarda el usuario bajo su username y su email
+     */
+    public void put(UserPrincipal principal) {
+        if (cache == null) {
+            return;
+        }
+        cache.put(keyOf(principal.getUsername()), principal);
+        if (principal.getEmail() != null) {
+            cache.put(keyOf(principal.getEmail()), principal);
+        }
+    }
+
+    /**
+     * Invalida las entradas de los usernames/emails indicados
+     */
+    public void invalidate(String... usernamesOrEmails) {
+        if (cache == null) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(usernamesOrEmails.length);
+        for (String key : usernamesOrEmails) {
+            if (key != null) {
+                keys.add(keyOf(key));
+            }
+        }
+        cache.invalidateAll(keys);
+
+        // Una carga concurrente durante la transacción podría volver a cachear el estado anterior
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(keys);
+                }
+            });
+        }
+
+        log.debug("Caché de usuarios invalidada para: {}", keys);
+    }
+
+    /**
+     * Elimina todas las entradas
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Estadísticas de aciertos y fallos de la caché
+     */
+    public CacheStatsDTO stats() {
+        return cache != null ? CacheStatsDTO.of(cache.estimatedSize(), cache.stats()) : CacheStatsDTO.disabled();
+    }
+
+    /**
+     * Username y email se comparan sin distinguir mayúsculas (igual que la collation de la base de datos)
+     */
+    static String keyOf(String usernameOrEmail) {
+        return usernameOrEmail.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,404 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.dto.common.ReferenceTokenStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Almacén de sesiones de los tokens de referencia (jwt.token-format: REFERENCE)
+ * El token es un valor aleatorio corto (rt_ + 256 bits en Base64URL) y la sesión
+ * (usuario, tipo, versión y expiración) se guarda fuera del heap, en huecos de tamaño fijo
+ * sobre ByteBuffers directos, indexados por la huella del token.
+ *
+ * Resolver un token es calcular su huella y leer normalmente un único hueco, sin objetos
+ * por sesión que el GC deba recorrer. Las sesiones son locales al nodo y no sobreviven
+ * un reinicio
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ReferenceTokenStore {
+
+    public static final String TOKEN_PREFIX = "rt_";
+    private static final int TOKEN_BYTES = 32;
+
+    // Estructura de cada hueco (128 bytes)
+    static final int SLOT_SIZE = 128;
+    private static final int OFFSET_DIGEST_HIGH = 0;
+    private static final int OFFSET_DIGEST_LOW = 8;
+    private static final int OFFSET_EXPIRES_AT = 16;
+    private static final int OFFSET_ISSUED_AT = 24;
+    private static final int OFFSET_USER_ID = 32;
+    private static final int OFFSET_TOKEN_VERSION = 40;
+    private static final int OFFSET_TYPE = 44;
+    private static final int OFFSET_SUBJECT_LENGTH = 45;
+    private static final int OFFSET_SUBJECT = 46;
+    static final int MAX_SUBJECT_BYTES = SLOT_SIZE - OFFSET_SUBJECT;
+
+    // Valores especiales de expiresAt
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+
+    private static final long NO_USER_ID = Long.MIN_VALUE;
+    private static final int NO_TOKEN_VERSION = Integer.MIN_VALUE;
+    private static final byte TYPE_CODE_ACCESS = 1;
+    private static final byte TYPE_CODE_REFRESH = 2;
+
+    /**
+     * 16384 huecos (2 MB) por segmento: cada segmento tiene su propio lock
+     */
+    private static final int MAX_SEGMENT_SLOTS = 1 << 14;
+
+    private final boolean enabled;
+    private final Segment[] segments;
+    private final int segmentSlots;
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder compactions = new LongAdder();
+
+    public ReferenceTokenStore(JwtProperties jwtProperties) {
+        this.enabled = jwtProperties.getTokenFormat() == JwtProperties.TokenFormat.REFERENCE;
+
+        int capacity = Integer.highestOneBit(Math.max(16, jwtProperties.getReferenceTokens().getCapacity()) - 1) << 1;
+        this.segmentSlots = Math.min(capacity, MAX_SEGMENT_SLOTS);
+
+        if (enabled) {
+            this.segments = new Segment[capacity / segmentSlots];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = new Segment(segmentSlots);
+            }
+            log.info("Almacén de tokens de referencia: {} huecos en {} segmentos ({} MB fuera del heap)",
+                    capacity, segments.length, (long) capacity * SLOT_SIZE / (1024 * 1024));
+        } else {
+            this.segments = new Segment[0];
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si el valor tiene el formato de un token de referencia
+     */
+    public static boolean isReferenceToken(String token) {
+        return token != null && token.startsWith(TOKEN_PREFIX);
+    }
+
+    /**
+     * Emite un token de referencia y guarda su sesión
+     * @return el token, o null si el almacén está deshabilitado, lleno o el subject no entra en el hueco
+     */
+    public String issue(String type, String subject, Long userId, Integer tokenVersion,
+                        long issuedAtMillis, long expiresAtMillis) {
+        if (!enabled || subject == null) {
+            return null;
+        }
+
+        byte[] subjectBytes = subject.getBytes(StandardCharsets.UTF_8);
+        if (subjectBytes.length > MAX_SUBJECT_BYTES) {
+            return null;
+        }
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        TokenDigest digest = TokenDigest.of(token);
+
+        Segment segment = segmentFor(digest);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (!segment.hasRoomFor(1)) {
+                compact(segment, issuedAtMillis);
+                if (!segment.hasRoomFor(1)) {
+                    log.warn("Almacén de tokens de referencia lleno: se emite un JWT");
+                    return null;
+                }
+            }
+
+            int slot = segment.insertionSlot(digest, issuedAtMillis);
+            ByteBuffer buffer = segment.buffer;
+            int base = slot * SLOT_SIZE;
+            if (buffer.getLong(base + OFFSET_EXPIRES_AT) == EMPTY) {
+                segment.occupied++;
+            }
+
+            buffer.putLong(base + OFFSET_DIGEST_HIGH, digest.high());
+            buffer.putLong(base + OFFSET_DIGEST_LOW, digest.low());
+            buffer.putLong(base + OFFSET_ISSUED_AT, issuedAtMillis);
+            buffer.putLong(base + OFFSET_USER_ID, userId != null ? userId : NO_USER_ID);
+            buffer.putInt(base + OFFSET_TOKEN_VERSION, tokenVersion != null ? tokenVersion : NO_TOKEN_VERSION);
+            buffer.put(base + OFFSET_TYPE, VerifiedToken.TYPE_REFRESH.equals(type) ? TYPE_CODE_REFRESH : TYPE_CODE_ACCESS);
+            buffer.put(base + OFFSET_SUBJECT_LENGTH, (byte) subjectBytes.length);
+            buffer.put(base + OFFSET_SUBJECT, subjectBytes);
+            // La expiración se escribe al final: un hueco con expiración válida siempre está completo
+            buffer.putLong(base + OFFSET_EXPIRES_AT, expiresAtMillis);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+
+        return token;
+    }
+
+    /**
+     * Resuelve el token a su sesión
+     * @return el token verificado, o null si no existe, fue eliminado o expiró
+     */
+    public VerifiedToken resolve(String token, long nowMillis) {
+        if (!enabled || !isReferenceToken(token)) {
+            return null;
+        }
+
+        TokenDigest digest = TokenDigest.of(token);
+        Segment segment = segmentFor(digest);
+
+        // Lectura optimista: sólo toma el lock si coincidió con una escritura en el segmento
+        long stamp = segment.lock.tryOptimisticRead();
+        VerifiedToken resolved = segment.read(digest, nowMillis);
+        if (segment.lock.validate(stamp)) {
+            return resolved;
+        }
+
+        stamp = segment.lock.readLock();
+        try {
+            return segment.read(digest, nowMillis);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Elimina la sesión del token (logout)
+     */
+    public boolean remove(String token) {
+        if (!enabled || !isReferenceToken(token)) {
+            return false;
+        }
+
+        TokenDigest digest = TokenDigest.of(token);
+        Segment segment = segmentFor(digest);
+        long stamp = segment.lock.writeLock();
+        try {
+            int slot = segment.find(digest);
+            if (slot < 0) {
+                return false;
+            }
+            segment.buffer.putLong(slot * SLOT_SIZE + OFFSET_EXPIRES_AT, DELETED);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Compacta los segmentos con muchas sesiones expiradas o eliminadas
+     */
+    @Scheduled(fixedDelayString = "${jwt.reference-tokens.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                if (segment.countDead(now) * 8 >= segmentSlots) {
+                    compact(segment, now);
+                }
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Reubica las sesiones vigentes del segmento y descarta las expiradas o eliminadas
+     * Debe llamarse con el lock de escritura del segmento tomado
+     */
+    private void compact(Segment segment, long nowMillis) {
+        ByteBuffer buffer = segment.buffer;
+        byte[][] live = new byte[segment.occupied][];
+        int count = 0;
+
+        for (int slot = 0; slot < segmentSlots; slot++) {
+            int base = slot * SLOT_SIZE;
+            long expiresAt = buffer.getLong(base + OFFSET_EXPIRES_AT);
+            if (expiresAt > nowMillis) {
+                byte[] copy = new byte[SLOT_SIZE];
+                buffer.get(base, copy);
+                live[count++] = copy;
+            }
+        }
+
+        for (int offset = 0; offset < segmentSlots * SLOT_SIZE; offset += Long.BYTES) {
+            buffer.putLong(offset, 0L);
+        }
+        segment.occupied = 0;
+
+        for (int i = 0; i < count; i++) {
+            ByteBuffer entry = ByteBuffer.wrap(live[i]);
+            TokenDigest digest = new TokenDigest(entry.getLong(OFFSET_DIGEST_HIGH), entry.getLong(OFFSET_DIGEST_LOW));
+            int slot = segment.insertionSlot(digest, nowMillis);
+            buffer.put(slot * SLOT_SIZE, live[i]);
+            segment.occupied++;
+        }
+
+        compactions.increment();
+        log.debug("Segmento de tokens de referencia compactado: {} sesiones vigentes", count);
+    }
+
+    private Segment segmentFor(TokenDigest digest) {
+        // Bits altos para el segmento y bajos para el hueco: son independientes entre sí
+        return segments[(int) (digest.high() >>> 32) & (segments.length - 1)];
+    }
+
+    /**
+     * Estadísticas del almacén
+     */
+    public ReferenceTokenStatsDTO stats() {
+        if (!enabled) {
+            return ReferenceTokenStatsDTO.disabled();
+        }
+
+        long occupied = 0;
+        for (Segment segment : segments) {
+            occupied += segment.occupied;
+        }
+        long capacity = (long) segments.length * segmentSlots;
+        return new ReferenceTokenStatsDTO(true, capacity, occupied, segments.length,
+                capacity * SLOT_SIZE, compactions.sum());
+    }
+
+    /**
+     * Tabla de direccionamiento abierto con sondeo lineal sobre un ByteBuffer directo
+     */
+    private static final class Segment {
+
+        final ByteBuffer buffer;
+        final StampedLock lock = new StampedLock();
+        final int slots;
+        final int mask;
+
+        /**
+         * Huecos no vacíos (vigentes, expirados o eliminados); sólo la compactación los libera
+         */
+        int occupied;
+
+        Segment(int slots) {
+            this.slots = slots;
+            this.mask = slots - 1;
+            this.buffer = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        }
+
+        /**
+         * Factor de carga máximo de 0.75: siempre quedan huecos vacíos que cortan el sondeo
+         */
+        boolean hasRoomFor(int entries) {
+            return (occupied + entries) * 4L <= slots * 3L;
+        }
+
+        int firstSlot(TokenDigest digest) {
+            return (int) digest.low() & mask;
+        }
+
+        /**
+         * Primer hueco reutilizable del sondeo: vacío, eliminado o expirado
+         */
+        int insertionSlot(TokenDigest digest, long nowMillis) {
+            int slot = firstSlot(digest);
+            while (true) {
+                long expiresAt = buffer.getLong(slot * SLOT_SIZE + OFFSET_EXPIRES_AT);
+                if (expiresAt == EMPTY || expiresAt == DELETED || expiresAt <= nowMillis) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Hueco del token vigente o eliminado más reciente, -1 si no existe
+         */
+        int find(TokenDigest digest) {
+            int slot = firstSlot(digest);
+            for (int probes = 0; probes < slots; probes++) {
+                int base = slot * SLOT_SIZE;
+                long expiresAt = buffer.getLong(base + OFFSET_EXPIRES_AT);
+                if (expiresAt == EMPTY) {
+                    return -1;
+                }
+                if (expiresAt != DELETED
+                        && buffer.getLong(base + OFFSET_DIGEST_HIGH) == digest.high()
+                        && buffer.getLong(base + OFFSET_DIGEST_LOW) == digest.low()) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Lee la sesión sin lock; el llamador valida que no hubo escrituras concurrentes
+         * (los datos leídos durante una escritura se descartan y se vuelven a leer con lock)
+         */
+        VerifiedToken read(TokenDigest digest, long nowMillis) {
+            int slot = find(digest);
+            if (slot < 0) {
+                return null;
+            }
+
+            int base = slot * SLOT_SIZE;
+            long expiresAt = buffer.getLong(base + OFFSET_EXPIRES_AT);
+            if (expiresAt <= nowMillis) {
+                return null;
+            }
+
+            long issuedAt = buffer.getLong(base + OFFSET_ISSUED_AT);
+            long userId = buffer.getLong(base + OFFSET_USER_ID);
+            int tokenVersion = buffer.getInt(base + OFFSET_TOKEN_VERSION);
+            String type = buffer.get(base + OFFSET_TYPE) == TYPE_CODE_REFRESH
+                    ? VerifiedToken.TYPE_REFRESH
+                    : VerifiedToken.TYPE_ACCESS;
+            int length = Math.min(buffer.get(base + OFFSET_SUBJECT_LENGTH) & 0xFF, MAX_SUBJECT_BYTES);
+            byte[] subject = new byte[length];
+            buffer.get(base + OFFSET_SUBJECT, subject);
+
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put(VerifiedToken.CLAIM_TYPE, type);
+            if (userId != NO_USER_ID) {
+                claims.put(VerifiedToken.CLAIM_USER_ID, userId);
+            }
+            if (tokenVersion != NO_TOKEN_VERSION) {
+                claims.put(VerifiedToken.CLAIM_TOKEN_VERSION, tokenVersion);
+            }
+
+            return new VerifiedToken(
+                    new String(subject, StandardCharsets.UTF_8),
+                    type,
+                    Instant.ofEpochMilli(issuedAt),
+                    Instant.ofEpochMilli(expiresAt),
+                    claims
+            );
+        }
+
+        int countDead(long nowMillis) {
+            int dead = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                long expiresAt = buffer.getLong(slot * SLOT_SIZE + OFFSET_EXPIRES_AT);
+                if (expiresAt != EMPTY && expiresAt <= nowMillis) {
+                    dead++;
+                }
+            }
+            return dead;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.vildanden.auth_template.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.dto.common.TokenRejectionStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché negativa de tokens rechazados y contadores de rechazo por motivo
+ * Un token expirado, malformado o con firma inválida que se repite se rechaza
+ * con una búsqueda por su huella, antes de cualquier operación criptográfica.
+ * Los contadores reemplazan a una línea de log por cada token rechazado
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class RejectedTokenCache {
+
+    private final Cache<TokenDigest, TokenRejectionReason> cache;
+    private final Map<TokenRejectionReason, LongAdder> rejections = new EnumMap<>(TokenRejectionReason.class);
+    private final LongAdder rejectedFromCache = new LongAdder();
+
+    public RejectedTokenCache(JwtProperties jwtProperties) {
+        JwtProperties.RejectedTokens config = jwtProperties.getRejectedTokens();
+
+        for (TokenRejectionReason reason : TokenRejectionReason.values()) {
+            rejections.put(reason, new LongAdder());
+        }
+
+        if (config.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfterWrite(Duration.ofMillis(config.getTtl()))
+                    .build();
+            log.info("Caché de tokens rechazados habilitada (máximo {} entradas)", config.getMaxSize());
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Obtiene el motivo por el que el token ya fue rechazado, o null si no está en la caché
+     */
+    public TokenRejectionReason get(TokenDigest digest) {
+        if (cache == null) {
+            return null;
+        }
+
+        TokenRejectionReason reason = cache.getIfPresent(digest);
+        if (reason != null) {
+            rejectedFromCache.increment();
+            rejections.get(reason).increment();
+        }
+        return reason;
+    }
+
+    /**
+     * Guarda el token rechazado en la caché
+     */
+    public void put(TokenDigest digest, TokenRejectionReason reason) {
+        if (cache != null && digest != null) {
+            cache.put(digest, reason);
+        }
+    }
+
+    /**
+     * Cuenta un rechazo
+     */
+    public void record(TokenRejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    /**
+     * Elimina todas las entradas (al cambiar las claves de verificación un token
+     * con firma antes desconocida puede pasar a ser válido)
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Estadísticas de rechazos por motivo y de la caché negativa
+     */
+    public TokenRejectionStatsDTO stats() {
+        Map<String, Long> byReason = new LinkedHashMap<>();
+        rejections.forEach((reason, count) -> byReason.put(reason.name(), count.sum()));
+
+        return new TokenRejectionStatsDTO(
+                cache != null,
+                cache != null ? cache.estimatedSize() : 0,
+                rejectedFromCache.sum(),
+                byReason
+        );
+    }
+}
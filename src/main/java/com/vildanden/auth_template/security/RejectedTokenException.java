@@ -0,0 +1,46 @@
+package com.vildanden.auth_template.security;
+
+import io.jsonwebtoken.JwtException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Excepción para tokens rechazados desde la caché negativa, sin volver a verificarlos
+ * No captura la pila: se lanza en cada repetición de un token ya rechazado
+ * y una única instancia por motivo basta
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class RejectedTokenException extends JwtException {
+
+    private static final Map<TokenRejectionReason, RejectedTokenException> INSTANCES =
+            new EnumMap<>(TokenRejectionReason.class);
+
+    static {
+        for (TokenRejectionReason reason : TokenRejectionReason.values()) {
+            INSTANCES.put(reason, new RejectedTokenException(reason));
+        }
+    }
+
+    private final TokenRejectionReason reason;
+
+    private RejectedTokenException(TokenRejectionReason reason) {
+        super(reason.getMessage());
+        this.reason = reason;
+    }
+
+    public static RejectedTokenException of(TokenRejectionReason reason) {
+        return INSTANCES.get(reason);
+    }
+
+    public TokenRejectionReason getReason() {
+        return reason;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,16 @@
+package com.vildanden.auth_template.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Excepción para tokens con firma válida que fueron revocados (por ejemplo, tras un logout)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class RevokedTokenException extends JwtException {
+
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.vildanden.auth_template.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Huella compacta (128 bits de SHA-256) de un token
+ * Se usa como clave de las cachés para no retener el token completo en memoria
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record TokenDigest(long high, long low) {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+    /**
+     * Calcula la huella del token
+     */
+    public static TokenDigest of(String token) {
+        MessageDigest digest = SHA_256.get();
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenDigest(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * Hash completo (SHA-256 en Base64URL, 43 caracteres) del token
+     * Se usa para persistir tokens sin guardar su valor
+     */
+    public static String hashOf(String token) {
+        MessageDigest digest = SHA_256.get();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -0,0 +1,62 @@
+package com.vildanden.auth_template.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
+
+/**
+ * Motivo por el que se rechazó un token
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public enum TokenRejectionReason {
+
+    EXPIRED("Token JWT expirado"),
+    MALFORMED("Token JWT malformado"),
+    UNSUPPORTED("Token JWT no soportado"),
+    BAD_SIGNATURE("Token JWT con firma inválida"),
+    EMPTY("Token JWT vacío"),
+    REVOKED("Token JWT revocado"),
+    STALE_VERSION("Token JWT con versión anterior a la vigente"),
+    UNKNOWN_REFERENCE("Token de referencia inválido o expirado"),
+    WRONG_TYPE("Refresh token usado como access token"),
+    ACCOUNT_UNAVAILABLE("Token autocontenido de una cuenta no disponible"),
+    INVALID("Token JWT inválido");
+
+    private final String message;
+
+    TokenRejectionReason(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Clasifica la excepción del parser
+     */
+    public static TokenRejectionReason of(Exception e) {
+        if (e instanceof RejectedTokenException rejected) {
+            return rejected.getReason();
+        }
+        if (e instanceof ExpiredJwtException) {
+            return EXPIRED;
+        }
+        if (e instanceof MalformedJwtException) {
+            return MALFORMED;
+        }
+        if (e instanceof UnsupportedJwtException) {
+            return UNSUPPORTED;
+        }
+        if (e instanceof SecurityException) {
+            return BAD_SIGNATURE;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return EMPTY;
+        }
+        return INVALID;
+    }
+}
@@ -0,0 +1,265 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.dto.common.RevocationStatsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lista de tokens revocados indexada por el claim jti
+ * Cada id revocado se guarda hasta la expiración de su token. Un filtro de Bloom
+ * descarta con unas pocas lecturas de bits los tokens no revocados (la gran mayoría),
+ * y sólo los positivos se confirman en el mapa exacto.
+ *
+ * La fuente de verdad es la tabla revoked_tokens (ver RevokedTokenService), que cada nodo
+ * relee periódicamente. El snapshot binario, escrito y leído mapeado en memoria, sólo sirve
+ * para que un nodo reiniciado arranque con la lista cargada hasta la primera lectura de la tabla
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final int SNAPSHOT_MAGIC = 0x4A52564C; // "JRVL"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 12;
+
+    private final JwtProperties.Revocation config;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final LongAdder bloomFilterRejections = new LongAdder();
+    private final LongAdder exactLookups = new LongAdder();
+
+    private volatile BloomFilter bloomFilter;
+    private volatile boolean dirty;
+
+    public TokenRevocationList(JwtProperties jwtProperties) {
+        this.config = jwtProperties.getRevocation();
+        this.bloomFilter = BloomFilter.create(config.getExpectedRevocations(), config.getFalsePositiveRate());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Revoca el id de token hasta su expiración
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (!isEnabled() || tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        // Primero el mapa y luego el filtro: una reconstrucción concurrente del filtro
+        // que ya no vea esta inserción la toma igualmente del mapa. Un id ya conocido
+        // (las lecturas periódicas de la tabla lo vuelven a traer) no cambia nada
+        if (revoked.putIfAbsent(tokenId, expiresAt.getEpochSecond()) != null) {
+            return;
+        }
+        bloomFilter.put(tokenId);
+        dirty = true;
+
+        log.debug("Token revocado: {} (hasta {})", tokenId, expiresAt);
+    }
+
+    /**
+     * Indica si el id de token fue revocado y el token aún no expiró
+     */
+    public boolean isRevoked(String tokenId) {
+        if (!isEnabled() || tokenId == null) {
+            return false;
+        }
+
+        if (!bloomFilter.mightContain(tokenId)) {
+            bloomFilterRejections.increment();
+            return false;
+        }
+
+        exactLookups.increment();
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > Instant.now().getEpochSecond();
+    }
+
+    /**
+     * Carga el snapshot al iniciar la aplicación
+     */
+    @PostConstruct
+    void loadSnapshot() {
+        Path snapshot = snapshotPath();
+        if (!isEnabled() || snapshot == null || !Files.isRegularFile(snapshot)) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        long now = Instant.now().getEpochSecond();
+        int loaded = 0;
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                log.warn("Snapshot de tokens revocados con formato desconocido, se ignora: {}", snapshot);
+                return;
+            }
+
+            int count = buffer.getInt();
+            byte[] id = new byte[256];
+            for (int i = 0; i < count; i++) {
+                long expiresAt = buffer.getLong();
+                int length = buffer.get() & 0xFF;
+                buffer.get(id, 0, length);
+                if (expiresAt > now) {
+                    String tokenId = new String(id, 0, length, StandardCharsets.UTF_8);
+                    revoked.put(tokenId, expiresAt);
+                    bloomFilter.put(tokenId);
+                    loaded++;
+                }
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            log.warn("No se pudo leer el snapshot de tokens revocados {}: {}", snapshot, e.getMessage());
+            return;
+        }
+
+        log.info("Snapshot de tokens revocados cargado: {} vigentes en {} ms",
+                loaded, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Purga los ids expirados, reconstruye el filtro de Bloom y escribe el snapshot si hubo cambios
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.maintenance-interval:60000}")
+    public void maintain() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long now = Instant.now().getEpochSecond();
+        int sizeBefore = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        int purged = sizeBefore - revoked.size();
+
+        // Los filtros de Bloom no admiten borrados: se reconstruyen con los ids vigentes
+        if (purged > 0 || revoked.size() > config.getExpectedRevocations()) {
+            rebuildBloomFilter();
+            dirty = true;
+        }
+
+        if (dirty) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (isEnabled() && dirty) {
+            writeSnapshot();
+        }
+    }
+
+    private void rebuildBloomFilter() {
+        long capacity = Math.max(config.getExpectedRevocations(), revoked.size() * 2L);
+        BloomFilter rebuilt = BloomFilter.create(capacity, config.getFalsePositiveRate());
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+
+        // Ids revocados mientras se llenaba el filtro nuevo
+        revoked.keySet().forEach(rebuilt::put);
+    }
+
+    /**
+     * Escribe el snapshot en un archivo temporal mapeado en memoria y lo reemplaza de forma atómica
+     */
+    synchronized void writeSnapshot() {
+        Path snapshot = snapshotPath();
+        if (snapshot == null) {
+            dirty = false;
+            return;
+        }
+
+        dirty = false;
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(revoked.size());
+        List<byte[]> ids = new ArrayList<>(revoked.size());
+        long size = SNAPSHOT_HEADER_SIZE;
+        for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+            byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (id.length > 255) {
+                continue;
+            }
+            entries.add(entry);
+            ids.add(id);
+            size += Long.BYTES + 1 + id.length;
+        }
+
+        try {
+            Path directory = snapshot.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(SNAPSHOT_MAGIC);
+                buffer.putInt(SNAPSHOT_VERSION);
+                buffer.putInt(entries.size());
+                for (int i = 0; i < entries.size(); i++) {
+                    buffer.putLong(entries.get(i).getValue());
+                    buffer.put((byte) ids.get(i).length);
+                    buffer.put(ids.get(i));
+                }
+                buffer.force();
+            }
+
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Snapshot de tokens revocados escrito: {} entradas", entries.size());
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("No se pudo escribir el snapshot de tokens revocados {}: {}", snapshot, e.getMessage());
+        }
+    }
+
+    /**
+     * Estadísticas de la lista y del filtro de Bloom
+     */
+    public RevocationStatsDTO stats() {
+        if (!isEnabled()) {
+            return RevocationStatsDTO.disabled();
+        }
+
+        BloomFilter filter = bloomFilter;
+        return new RevocationStatsDTO(
+                true,
+                revoked.size(),
+                filter.bitCount(),
+                filter.hashCount(),
+                filter.fillRatio(),
+                bloomFilterRejections.sum(),
+                exactLookups.sum()
+        );
+    }
+
+    private Path snapshotPath() {
+        String file = config.getSnapshotFile();
+        return file != null && !file.isBlank() ? Path.of(file) : null;
+    }
+}
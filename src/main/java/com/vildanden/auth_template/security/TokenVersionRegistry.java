@@ -0,0 +1,145 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.util.LongIntHashMap;
+import com.vildanden.auth_template.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Versión de tokens vigente por usuario
+ * Cada token lleva la versión del usuario al emitirse (claim tv); al incrementarla
+ * (cambio de contraseña, de estado o de roles de la cuenta) todos los tokens anteriores del usuario
+ * quedan invalidados sin registrarlos uno por uno. Un usuario eliminado queda marcado y
+ * ninguno de sus tokens vuelve a aceptarse.
+ *
+ * Las versiones se mantienen en un mapa primitivo id → versión: comprobar un token es una
+ * búsqueda en memoria, y sólo el primer token de cada usuario consulta la base de datos.
+ * Con varios nodos, un cambio hecho en otro nodo se ve al releer la versión: cada una se
+ * vuelve a consultar pasado jwt.token-version-refresh-interval desde su última lectura
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class TokenVersionRegistry {
+
+    private static final int UNKNOWN = -1;
+    // Marca de usuario eliminado: ninguna versión de token la alcanza (el mapa no admite borrados)
+    private static final int REMOVED = Integer.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final LongIntHashMap versions = new LongIntHashMap(1024);
+    // Segundo (desde baseMillis) de la última lectura de cada versión
+    private final LongIntHashMap loadedAt = new LongIntHashMap(1024);
+    private final SingleFlight<Long, Integer> versionLoads = new SingleFlight<>();
+    private final long baseMillis = System.currentTimeMillis();
+    private final int refreshSeconds;
+
+    public TokenVersionRegistry(UserRepository userRepository, JwtProperties jwtProperties) {
+        this.userRepository = userRepository;
+        long refreshMillis = jwtProperties.getTokenVersionRefreshInterval();
+        this.refreshSeconds = refreshMillis > 0 ? (int) Math.max(1, refreshMillis / 1000) : 0;
+    }
+
+    /**
+     * Verifica si el token conserva la versión vigente de su usuario
+     * Los tokens sin id de usuario o sin versión (emitidos antes de versionarlos) no se comprueban
+     */
+    public boolean isCurrent(VerifiedToken token) {
+        Long userId = token.longClaim(VerifiedToken.CLAIM_USER_ID);
+        Integer tokenVersion = token.tokenVersion();
+        if (userId == null || tokenVersion == null) {
+            return true;
+        }
+
+        int current = currentVersion(userId, System.currentTimeMillis());
+        return current != UNKNOWN && current != REMOVED && tokenVersion >= current;
+    }
+
+    /**
+     * Registra la nueva versión del usuario
+     * Dentro de una transacción se aplica al confirmarse: si se revierte, los tokens siguen vigentes
+     */
+    public void advance(Long userId, int version) {
+        if (userId == null) {
+            return;
+        }
+
+        afterCommit(() -> {
+            // Un cambio propio es tan reciente como una lectura
+            versions.merge(userId, version, Math::max);
+            loadedAt.put(userId, secondAt(System.currentTimeMillis()));
+        });
+        log.debug("Versión de tokens del usuario ID {} avanzada a {}", userId, version);
+    }
+
+    /**
+     * Marca al usuario como eliminado: sus tokens se rechazan aunque la versión estuviera en memoria
+     * Dentro de una transacción se aplica al confirmarse
+     */
+    public void remove(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        afterCommit(() -> versions.put(userId, REMOVED));
+        log.debug("Tokens del usuario ID {} invalidados por eliminación", userId);
+    }
+
+    /**
+     * Cantidad de usuarios con la versión en memoria
+     */
+    public int size() {
+        return versions.size();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    int currentVersion(long userId, long nowMillis) {
+        int current = versions.get(userId, UNKNOWN);
+        int second = secondAt(nowMillis);
+        if (current == REMOVED || (current != UNKNOWN && !isStale(userId, second))) {
+            return current;
+        }
+
+        // Varios tokens del mismo usuario llegando a la vez esperan una única consulta
+        Integer loaded = versionLoads.execute(userId, () ->
+                userRepository.findTokenVersionById(userId).orElse(null));
+        if (loaded == null) {
+            if (current == UNKNOWN) {
+                return UNKNOWN;
+            }
+            // Eliminado desde otro nodo
+            versions.put(userId, REMOVED);
+            return REMOVED;
+        }
+
+        // El máximo protege de una carga que leyó la versión anterior a un incremento concurrente
+        loadedAt.put(userId, second);
+        return versions.merge(userId, loaded, Math::max);
+    }
+
+    private int secondAt(long nowMillis) {
+        return (int) ((nowMillis - baseMillis) / 1000);
+    }
+
+    private boolean isStale(long userId, int second) {
+        return refreshSeconds > 0 && second - loadedAt.get(userId, Integer.MIN_VALUE / 2) >= refreshSeconds;
+    }
+}
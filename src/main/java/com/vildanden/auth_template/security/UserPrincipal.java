@@ -8,6 +8,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -24,6 +25,11 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class UserPrincipal implements UserDetails {
 
+    private static final int STATUS_ENABLED = 1;
+    private static final int STATUS_ACCOUNT_NON_EXPIRED = 1 << 1;
+    private static final int STATUS_ACCOUNT_NON_LOCKED = 1 << 2;
+    private static final int STATUS_CREDENTIALS_NON_EXPIRED = 1 << 3;
+
     private Long id;
     private String firstName;
     private String lastName;
@@ -40,6 +46,8 @@ public class UserPrincipal implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private Integer tokenVersion;
+
     /**
      * Factory method para crear UserPrincipal desde User entity
      */
@@ -59,10 +67,60 @@ public class UserPrincipal implements UserDetails {
                 user.getAccountNonExpired(),
                 user.getAccountNonLocked(),
                 user.getCredentialsNonExpired(),
-                authorities
+                authorities,
+                user.getTokenVersion()
+        );
+    }
+
+    /**
+     * Factory method para crear UserPrincipal desde un access token autocontenido
+     * No requiere consultar la base de datos; la contraseña no viaja en el token
+     */
+    public static UserPrincipal fromToken(VerifiedToken token) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        Object roles = token.claims().get(VerifiedToken.CLAIM_ROLES);
+        if (roles instanceof Collection<?> roleNames) {
+            for (Object roleName : roleNames) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + roleName));
+            }
+        }
+
+        Long status = token.longClaim(VerifiedToken.CLAIM_ACCOUNT_STATUS);
+        int flags = status != null ? status.intValue() : 0;
+
+        return new UserPrincipal(
+                token.longClaim(VerifiedToken.CLAIM_USER_ID),
+                token.claim(VerifiedToken.CLAIM_FIRST_NAME, String.class),
+                token.claim(VerifiedToken.CLAIM_LAST_NAME, String.class),
+                token.subject(),
+                token.claim(VerifiedToken.CLAIM_EMAIL, String.class),
+                null,
+                (flags & STATUS_ENABLED) != 0,
+                (flags & STATUS_ACCOUNT_NON_EXPIRED) != 0,
+                (flags & STATUS_ACCOUNT_NON_LOCKED) != 0,
+                (flags & STATUS_CREDENTIALS_NON_EXPIRED) != 0,
+                authorities,
+                token.tokenVersion()
         );
     }
 
+    /**
+     * Estado de la cuenta compactado en bits para incluirlo en el token
+     */
+    public int getAccountStatusFlags() {
+        return (isEnabled() ? STATUS_ENABLED : 0)
+                | (isAccountNonExpired() ? STATUS_ACCOUNT_NON_EXPIRED : 0)
+                | (isAccountNonLocked() ? STATUS_ACCOUNT_NON_LOCKED : 0)
+                | (isCredentialsNonExpired() ? STATUS_CREDENTIALS_NON_EXPIRED : 0);
+    }
+
+    /**
+     * Verifica si la cuenta está activa y disponible
+     */
+    public boolean isAccountAvailable() {
+        return isEnabled() && isAccountNonExpired() && isAccountNonLocked() && isCredentialsNonExpired();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
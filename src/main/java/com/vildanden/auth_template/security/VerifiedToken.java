@@ -0,0 +1,124 @@
+package com.vildanden.auth_template.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token JWT ya verificado (firma y expiración)
+ * Se obtiene una única vez por petición mediante {@link JwtService#verify(String)}
+ * y evita volver a parsear el token para cada dato que se necesita
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record VerifiedToken(
+        String subject,
+        String type,
+        Instant issuedAt,
+        Instant expiresAt,
+        Map<String, Object> claims
+) {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    public static final String CLAIM_TYPE = "type";
+    public static final String CLAIM_TOKEN_ID = "jti";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_FIRST_NAME = "given_name";
+    public static final String CLAIM_LAST_NAME = "family_name";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ACCOUNT_STATUS = "acct";
+
+    public VerifiedToken {
+        claims = claims != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(claims))
+                : Map.of();
+    }
+
+    /**
+     * Factory method para crear el token verificado desde los claims de jjwt
+     */
+    public static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(CLAIM_TYPE, String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims
+        );
+    }
+
+    /**
+     * Id único del token (claim jti), null en tokens emitidos antes de la revocación por logout
+     */
+    public String tokenId() {
+        return claim(CLAIM_TOKEN_ID, String.class);
+    }
+
+    /**
+     * Versión de tokens del usuario al emitirse (claim tv), null en tokens emitidos antes de versionarlos
+     */
+    public Integer tokenVersion() {
+        Long version = longClaim(CLAIM_TOKEN_VERSION);
+        return version != null ? version.intValue() : null;
+    }
+
+    /**
+     * Verifica si es un access token
+     */
+    public boolean isAccessToken() {
+        return TYPE_ACCESS.equals(type);
+    }
+
+    /**
+     * Verifica si es un refresh token
+     */
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    /**
+     * Verifica si el token ya expiró respecto del instante indicado
+     */
+    public boolean isExpiredAt(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    /**
+     * Obtiene el tiempo restante del token en segundos
+     */
+    public long secondsToExpiration() {
+        if (expiresAt == null) {
+            return 0;
+        }
+        return Math.max(0, (expiresAt.toEpochMilli() - System.currentTimeMillis()) / 1000);
+    }
+
+    /**
+     * Obtiene un claim específico con el tipo indicado
+     */
+    public <T> T claim(String name, Class<T> requiredType) {
+        Object value = claims.get(name);
+        return requiredType.isInstance(value) ? requiredType.cast(value) : null;
+    }
+
+    /**
+     * Obtiene un claim numérico como Long (el parser JSON puede devolver Integer o Long)
+     */
+    public Long longClaim(String name) {
+        Object value = claims.get(name);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.vildanden.auth_template.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.dto.common.CacheStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Caché acotada de tokens ya verificados
+ * Cada entrada expira junto con el token (claim exp), de modo que los
+ * pedidos repetidos con el mismo token evitan la verificación HMAC y el parseo JSON
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<TokenDigest, VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtProperties jwtProperties) {
+        JwtProperties.Cache config = jwtProperties.getCache();
+
+        if (config.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfter(new ExpireAtTokenExpiration())
+                    .recordStats()
+                    .build();
+            log.info("Caché de tokens verificados habilitada (máximo {} entradas)", config.getMaxSize());
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Obtiene el token verificado en caché o null si no existe
+     */
+    public VerifiedToken get(TokenDigest digest) {
+        return cache != null ? cache.getIfPresent(digest) : null;
+    }
+
+    /**
+     * Guarda un token verificado hasta su expiración
+     */
+    public void put(TokenDigest digest, VerifiedToken token) {
+        if (cache != null && token.expiresAt() != null) {
+            cache.put(digest, token);
+        }
+    }
+
+    /**
+     * Elimina todas las entradas (por ejemplo, al cambiar la clave de firma)
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Estadísticas de aciertos y fallos de la caché
+     */
+    public CacheStatsDTO stats() {
+        return cache != null ? CacheStatsDTO.of(cache.estimatedSize(), cache.stats()) : CacheStatsDTO.disabled();
+    }
+
+    /**
+     * Política de expiración alineada con el claim exp de cada token
+     */
+    private static final class ExpireAtTokenExpiration implements Expiry<TokenDigest, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            long millis = value.expiresAt().toEpochMilli() - Instant.now().toEpochMilli();
+            return Math.max(0, millis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
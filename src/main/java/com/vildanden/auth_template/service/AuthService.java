@@ -4,21 +4,29 @@ import com.vildanden.auth_template.dto.auth.*;
 import com.vildanden.auth_template.entity.Role;
 import com.vildanden.auth_template.entity.RoleName;
 import com.vildanden.auth_template.entity.User;
-import com.vildanden.auth_template.repository.RoleRepository;
+import com.vildanden.auth_template.exception.LoginThrottledException;
+import com.vildanden.auth_template.exception.PasswordHashingBusyException;
 import com.vildanden.auth_template.repository.UserRepository;
 import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.LoginThrottle;
+import com.vildanden.auth_template.security.PrincipalCache;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.UserPrincipal;
+import com.vildanden.auth_template.security.VerifiedToken;
 import com.vildanden.auth_template.util.mapper.MapperDTO;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.vildanden.auth_template.config.JwtProperties;
+import java.time.Instant;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servicio de autenticación y gestión de usuarios
@@ -33,40 +41,79 @@ import java.util.Set;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final AuthenticationManager authenticationManager;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashing;
+    private final PasswordHashingCompletionExecutor completionExecutor;
     private final JwtService jwtService;
     private final MapperDTO mapperDTO;
     private final JwtProperties jwtProperties;
+    private final PrincipalCache principalCache;
+    private final RoleResolver roleResolver;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenVersionRegistry tokenVersions;
+    private final LoginThrottle loginThrottle;
+    private final RevokedTokenService revokedTokenService;
 
     /**
      * Autentica un usuario y genera tokens JWT
+     * El usuario se carga una única vez: la verificación de la contraseña, el estado
+     * de la cuenta, los tokens y el resumen salen de esa misma instancia.
+     * La verificación corre en el pool de hash y el login se completa en el pool de
+     * continuaciones, para que el acceso a la base de datos no retenga un hilo de BCrypt
+     * @param clientAddress dirección del cliente, para limitar los fallos por origen
+     * @throws LoginThrottledException si el usuario o la dirección superan el límite de fallos
+     * @throws PasswordHashingBusyException si la cola de hash está llena
      */
-    @Transactional(readOnly = true)
-    public LoginResponseDTO login(LoginRequestDTO loginRequest) {
+    public CompletableFuture<LoginResponseDTO> login(LoginRequestDTO loginRequest, String clientAddress) {
         log.info("Intento de login para usuario: {}", loginRequest.usernameOrEmail());
 
-        // Autenticar al usuario
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.usernameOrEmail(),
-                        loginRequest.password()
-                )
-        );
+        String usernameOrEmail = loginRequest.usernameOrEmail();
+
+        // Los intentos bloqueados no llegan a la base de datos ni al hash de la contraseña.
+        // El intento queda reservado como fallo hasta que la contraseña resulte correcta
+        LoginThrottle.Attempt attempt = loginThrottle.begin(usernameOrEmail, clientAddress);
+
+        User user;
+        CompletableFuture<PasswordVerification> verification;
+        try {
+            user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail).orElse(null);
+            if (user != null) {
+                // Username y email de una misma cuenta comparten el límite
+                attempt.bindAccount(user.getId());
+            }
+
+            // Un usuario inexistente también paga una verificación de contraseña,
+            // para que el tiempo de respuesta no revele qué cuentas existen
+            verification = passwordHashing.verify(loginRequest.password(), user != null ? user.getPassword() : null);
+        } catch (RuntimeException e) {
+            attempt.cancel();
+            throw e;
+        }
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userRepository.findByUsernameOrEmail(userDetails.getUsername(), userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado después de autenticación"));
+        return verification.thenApplyAsync(result -> completeLogin(user, result, attempt), completionExecutor);
+    }
+
+    private LoginResponseDTO completeLogin(User user, PasswordVerification verification, LoginThrottle.Attempt attempt) {
+        if (user == null || !verification.matches()) {
+            // La reserva del intento queda registrada como fallo
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        attempt.succeeded();
 
         // Verificar que la cuenta esté disponible
         if (!user.isAccountAvailable()) {
             throw new RuntimeException("La cuenta de usuario no está disponible");
         }
 
+        // Hash con formato anterior o menor costo: se reemplaza ahora que se conoce la contraseña
+        if (verification.needsUpgrade()) {
+            upgradePasswordHash(user, verification.upgradedHash());
+        }
+
         // Generar tokens
+        UserPrincipal userDetails = UserPrincipal.create(user);
         String accessToken = jwtService.generateAccessToken(userDetails);
-        String refreshToken = jwtService.generateRefreshToken(userDetails);
+        String refreshToken = refreshTokenService.issue(user, userDetails);
+        principalCache.put(userDetails);
 
         log.info("Login exitoso para usuario: {} (ID: {})", user.getUsername(), user.getId());
 
@@ -79,31 +126,42 @@ public class AuthService {
         );
     }
 
+    private void upgradePasswordHash(User user, String upgradedHash) {
+        // Si la contraseña cambió entre la lectura y este punto, se conserva la nueva
+        if (userRepository.upgradePassword(user.getId(), user.getPassword(), upgradedHash) == 1) {
+            user.setPassword(upgradedHash);
+            log.info("Hash de contraseña actualizado al formato vigente para usuario: {}", user.getUsername());
+        }
+    }
+
     /**
      * Registra un nuevo usuario en el sistema
+     * Sin consultas previas: el usuario se inserta directamente (con el rol USER ya resuelto
+     * en memoria) y las claves únicas de la tabla deciden si el username o el email están en uso,
+     * también entre registros concurrentes. El hash de la contraseña corre en el pool de hash
+     * y la inserción en el pool de continuaciones
+     * @throws PasswordHashingBusyException si la cola de hash está llena
      */
-    @Transactional
-    public RegisterResponseDTO register(RegisterRequestDTO registerRequest) {
+    public CompletableFuture<RegisterResponseDTO> register(RegisterRequestDTO registerRequest) {
         log.info("Intento de registro para usuario: {}", registerRequest.username());
 
-        // Validar que no exista el usuario
-        if (userRepository.existsByUsername(registerRequest.username())) {
-            throw new RuntimeException("El username ya está en uso: " + registerRequest.username());
-        }
-
-        if (userRepository.existsByEmail(registerRequest.email())) {
-            throw new RuntimeException("El email ya está en uso: " + registerRequest.email());
-        }
-
         // Buscar rol USER por defecto
-        Role userRole = roleRepository.findByName(RoleName.USER.getName())
+        Role userRole = roleResolver.findByName(RoleName.USER.getName())
                 .orElseThrow(() -> new RuntimeException("Rol USER no encontrado en el sistema"));
 
+        return passwordHashing.encode(registerRequest.password())
+                .thenApplyAsync(encodedPassword -> saveRegisteredUser(registerRequest, encodedPassword, userRole),
+                        completionExecutor);
+    }
+
+    private RegisterResponseDTO saveRegisteredUser(RegisterRequestDTO registerRequest,
+                                                   String encodedPassword,
+                                                   Role userRole) {
         // Crear nuevo usuario
         User user = User.builder()
                 .username(registerRequest.username())
                 .email(registerRequest.email())
-                .password(passwordEncoder.encode(registerRequest.password()))
+                .password(encodedPassword)
                 .firstName(registerRequest.firstName())
                 .lastName(registerRequest.lastName())
                 .enabled(true)
@@ -113,7 +171,11 @@ public class AuthService {
                 .roles(Set.of(userRole))
                 .build();
 
-        user = userRepository.save(user);
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw UserUniqueConstraints.conflictOf(e, registerRequest.username(), registerRequest.email());
+        }
         log.info("Usuario registrado exitosamente: {} (ID: {})", user.getUsername(), user.getId());
 
         return new RegisterResponseDTO(
@@ -124,25 +186,34 @@ public class AuthService {
 
     /**
      * Renueva el access token usando un refresh token válido
+     * El refresh token presentado se consume y se entrega uno nuevo (rotación).
+     * Sin transacción propia: la revocación de la familia ante una reutilización
+     * se confirma aunque la renovación termine en error
      */
-    @Transactional(readOnly = true)
     public LoginResponseDTO refreshToken(RefreshTokenRequestDTO refreshRequest) {
         String refreshToken = refreshRequest.refreshToken();
 
         log.debug("Renovando access token");
 
+        // Una única verificación: tipo, vigencia y usuario salen del mismo token verificado
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Refresh token expirado o inválido");
+        }
+
         // Validar que sea un refresh token
-        if (!jwtService.isRefreshToken(refreshToken)) {
+        if (!verified.isRefreshToken()) {
             throw new RuntimeException("Token inválido para renovación");
         }
 
-        // Validar el refresh token
-        if (!jwtService.validateToken(refreshToken)) {
+        // Un token servido desde la caché de verificados puede haber expirado desde entonces
+        if (verified.isExpiredAt(Instant.now())) {
             throw new RuntimeException("Refresh token expirado o inválido");
         }
 
-        // Extraer usuario del token
-        String username = jwtService.extractUsername(refreshToken);
+        String username = verified.subject();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + username));
 
@@ -151,14 +222,13 @@ public class AuthService {
             throw new RuntimeException("La cuenta de usuario no está disponible");
         }
 
-        // Generar nuevo access token
-        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(user.getRoles().stream()
-                        .map(role -> "ROLE_" + role.getName())
-                        .toArray(String[]::new))
-                .build();
+        // Generar nuevos tokens (con los datos actuales del usuario)
+        UserDetails userDetails = UserPrincipal.create(user);
+
+        String newRefreshToken = refreshTokenService.rotate(refreshToken, verified.issuedAt(), user, userDetails);
+        if (newRefreshToken == null) {
+            throw new RuntimeException("Refresh token expirado o inválido");
+        }
 
         String newAccessToken = jwtService.generateAccessToken(userDetails);
 
@@ -166,7 +236,7 @@ public class AuthService {
 
         return new LoginResponseDTO(
                 newAccessToken,
-                refreshToken, // Mantener el mismo refresh token
+                newRefreshToken,
                 // jwtService.getExpirationInSeconds(),
                 jwtProperties.getExpirationInSeconds(),
                 mapperDTO.toUserSummaryDTO(user)
@@ -175,31 +245,77 @@ public class AuthService {
 
     /**
      * Cambia la contraseña del usuario autenticado
+     * Sin transacción mientras se espera a BCrypt: las dos verificaciones y el hash nuevo
+     * no retienen una conexión JDBC. El cambio y el incremento de la versión de tokens se
+     * aplican en una única sentencia, condicionada a que la contraseña no haya cambiado
+     * desde la verificación (como la actualización del hash en el login)
      */
-    @Transactional
     public void changePassword(String username, ChangePasswordRequestDTO changePasswordRequest) {
         log.info("Cambio de contraseña solicitado para usuario: {}", username);
 
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + username));
+        String currentHash = user.getPassword();
 
-        // Verificar contraseña actual
-        if (!passwordEncoder.matches(changePasswordRequest.currentPassword(), user.getPassword())) {
+        // Verificar contraseña actual (el hash corre en el pool; este hilo sólo espera el resultado)
+        if (!passwordHashing.matchesAndWait(changePasswordRequest.currentPassword(), currentHash)) {
             throw new RuntimeException("La contraseña actual es incorrecta");
         }
 
         // Verificar que la nueva contraseña sea diferente
-        if (passwordEncoder.matches(changePasswordRequest.newPassword(), user.getPassword())) {
+        if (passwordHashing.matchesAndWait(changePasswordRequest.newPassword(), currentHash)) {
             throw new RuntimeException("La nueva contraseña debe ser diferente a la actual");
         }
 
-        // Actualizar contraseña
-        user.setPassword(passwordEncoder.encode(changePasswordRequest.newPassword()));
-        userRepository.save(user);
+        String newHash = passwordHashing.encodeAndWait(changePasswordRequest.newPassword());
+
+        // Actualizar contraseña: si otra petición la cambió entretanto, la actual ya no fue verificada
+        if (userRepository.changePassword(user.getId(), currentHash, newHash) == 0) {
+            throw new RuntimeException("La contraseña cambió durante la operación, intente nuevamente");
+        }
+        principalCache.invalidate(user.getUsername(), user.getEmail());
+        userRepository.findTokenVersionById(user.getId())
+                .ifPresent(tokenVersion -> tokenVersions.advance(user.getId(), tokenVersion));
+
+        // Las sesiones abiertas con la contraseña anterior no pueden renovarse
+        refreshTokenService.revokeAllForUser(user.getId());
 
         log.info("Contraseña cambiada exitosamente para usuario: {}", username);
     }
 
+    /**
+     * Cierra la sesión revocando el access token hasta su expiración y sus refresh tokens
+     * La revocación se guarda en la base de datos para que la respeten todos los nodos.
+     * Con el refresh token de la sesión se revoca sólo esa familia; sin él (o si no es del usuario),
+     * todas las sesiones del usuario, para que ningún refresh token siga emitiendo access tokens
+     */
+    public void logout(String accessToken, Long userId, String refreshToken) {
+        VerifiedToken revoked = jwtService.revoke(accessToken);
+
+        if (revoked.tokenId() != null) {
+            revokedTokenService.record(revoked.tokenId(), revoked.expiresAt());
+        } else if (!ReferenceTokenStore.isReferenceToken(accessToken)) {
+            // Un token sin jti no puede revocarse solo: se invalidan todos los tokens del usuario
+            invalidateAllTokens(userId);
+        }
+
+        if (refreshToken == null || refreshToken.isBlank()
+                || !refreshTokenService.revokeFamilyOf(refreshToken, userId)) {
+            refreshTokenService.revokeAllForUser(userId);
+        }
+    }
+
+    private void invalidateAllTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + userId));
+
+        int tokenVersion = user.incrementTokenVersion();
+        userRepository.save(user);
+        principalCache.invalidate(user.getUsername(), user.getEmail());
+        tokenVersions.advance(user.getId(), tokenVersion);
+        log.info("Tokens del usuario ID {} invalidados por logout con un token sin jti", userId);
+    }
+
     /**
      * Valida si un token es válido
      */
@@ -223,4 +339,40 @@ public class AuthService {
 
         return mapperDTO.toUserSummaryDTO(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Introspección de un token (RFC 7662): estado, sujeto, roles, tipo y expiración
+     * en una sola respuesta. Un token inválido, expirado o de una cuenta no disponible
+     * se informa como inactivo
+     */
+    @Transactional(readOnly = true)
+    public TokenIntrospectionDTO introspectToken(String token) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Introspección de token inválido: {}", e.getMessage());
+            return TokenIntrospectionDTO.inactive();
+        }
+
+        if (verified.isExpiredAt(Instant.now()) || verified.subject() == null) {
+            return TokenIntrospectionDTO.inactive();
+        }
+
+        User user = userRepository.findByUsername(verified.subject()).orElse(null);
+        if (user == null || !user.isAccountAvailable()) {
+            return TokenIntrospectionDTO.inactive();
+        }
+
+        UserSummaryDTO userSummary = mapperDTO.toUserSummaryDTO(user);
+        return new TokenIntrospectionDTO(
+                true,
+                verified.subject(),
+                userSummary.username(),
+                userSummary.roles(),
+                verified.type(),
+                verified.expiresAt() != null ? verified.expiresAt().getEpochSecond() : null,
+                verified.issuedAt() != null ? verified.issuedAt().getEpochSecond() : null
+        );
+    }
+}
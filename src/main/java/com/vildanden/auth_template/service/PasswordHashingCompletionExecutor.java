@@ -0,0 +1,46 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool que completa el login y el registro después del hash de la contraseña
+ * El trabajo de base de datos (refresh token, actualización del hash, inserción del usuario)
+ * no ocupa los hilos de BCrypt: éstos quedan libres para el siguiente hash mientras
+ * la continuación espera su conexión JDBC
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Component
+public class PasswordHashingCompletionExecutor implements Executor {
+
+    private final ExecutorService executor;
+
+    public PasswordHashingCompletionExecutor(AuthProperties authProperties) {
+        int poolSize = Math.max(1, authProperties.getPasswordHashing().getCompletionPoolSize());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "auth-completion-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,171 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.dto.common.PasswordHashingStatsDTO;
+import com.vildanden.auth_template.exception.PasswordHashingBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Servicio que ejecuta el hash y la verificación de contraseñas en un pool propio
+ * El pool tiene un hilo por núcleo y una cola acotada: BCrypt no ocupa los hilos de Tomcat
+ * y, cuando la cola se llena, la solicitud se rechaza de inmediato en lugar de encolarse
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile String unknownUserHash;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, AuthProperties authProperties) {
+        AuthProperties.PasswordHashing config = authProperties.getPasswordHashing();
+        this.passwordEncoder = passwordEncoder;
+        this.queueCapacity = Math.max(1, config.getQueueCapacity());
+        this.retryAfterSeconds = Math.max(1, config.getRetryAfter().toSeconds());
+
+        int poolSize = config.getPoolSize() > 0
+                ? config.getPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Genera el hash de una contraseña en el pool
+     * @throws PasswordHashingBusyException si la cola está llena
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifica una contraseña contra su hash en el pool
+     * @throws PasswordHashingBusyException si la cola está llena
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Verifica la contraseña de un login en el pool
+     * Sin hash (usuario inexistente) se verifica contra uno aleatorio y se rechaza,
+     * para que el tiempo de respuesta no revele qué cuentas existen.
+     * Si es correcta y el hash guardado está desactualizado, genera en la misma tarea
+     * el hash con el formato y costo vigentes
+     * @throws PasswordHashingBusyException si la cola está llena
+     */
+    public CompletableFuture<PasswordVerification> verify(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, unknownUserHash());
+                return PasswordVerification.rejected();
+            }
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return PasswordVerification.rejected();
+            }
+            if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+                return PasswordVerification.accepted();
+            }
+            return new PasswordVerification(true, passwordEncoder.encode(rawPassword));
+        });
+    }
+
+    /**
+     * Variante bloqueante de {@link #encode(String)} para operaciones síncronas
+     */
+    public String encodeAndWait(String rawPassword) {
+        return await(encode(rawPassword));
+    }
+
+    /**
+     * Variante bloqueante de {@link #matches(String, String)} para operaciones síncronas
+     */
+    public boolean matchesAndWait(String rawPassword, String encodedPassword) {
+        return await(matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Estadísticas del pool
+     */
+    public PasswordHashingStatsDTO stats() {
+        return new PasswordHashingStatsDTO(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                executor.getCompletedTaskCount(),
+                rejected.sum()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.debug("Cola de hash de contraseñas llena ({} en espera)", executor.getQueue().size());
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Hash de una contraseña aleatoria, generado con el encoder vigente para que
+     * verificarlo cueste lo mismo que verificar el de un usuario real
+     */
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
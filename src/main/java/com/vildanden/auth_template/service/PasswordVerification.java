@@ -0,0 +1,29 @@
+package com.vildanden.auth_template.service;
+
+/**
+ * Resultado de verificar una contraseña en el pool de hash
+ * Si la contraseña es correcta pero el hash guardado quedó desactualizado (formato anterior
+ * o menor costo), incluye el hash nuevo para reemplazarlo
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public record PasswordVerification(
+        boolean matches,
+        String upgradedHash
+) {
+    private static final PasswordVerification REJECTED = new PasswordVerification(false, null);
+    private static final PasswordVerification ACCEPTED = new PasswordVerification(true, null);
+
+    public static PasswordVerification rejected() {
+        return REJECTED;
+    }
+
+    public static PasswordVerification accepted() {
+        return ACCEPTED;
+    }
+
+    public boolean needsUpgrade() {
+        return upgradedHash != null;
+    }
+}
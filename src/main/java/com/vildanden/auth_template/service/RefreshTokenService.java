@@ -0,0 +1,186 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.entity.RefreshToken;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.RefreshTokenRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Servicio para la emisión y rotación de refresh tokens
+ * Cada renovación consume el token presentado y entrega uno nuevo de la misma familia.
+ * Presentar un token ya consumido indica que fue robado (o filtrado): se revoca la familia
+ * completa y tanto el atacante como el usuario legítimo deben volver a iniciar sesión
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final JwtProperties jwtProperties;
+    private final AuthProperties authProperties;
+
+    /**
+     * Emite el refresh token de una sesión nueva (login)
+     */
+    @Transactional
+    public String issue(User user, UserDetails userDetails) {
+        return store(newFamilyId(), user, userDetails);
+    }
+
+    /**
+     * Canjea el refresh token presentado por uno nuevo de la misma familia
+     * La firma, el tipo y la expiración del token ya deben estar verificados
+     * @param issuedAt emisión del token presentado, para adoptar los anteriores al registro
+     * @return el nuevo refresh token, o null si el token no es canjeable
+     */
+    @Transactional
+    public String rotate(String presentedToken, Instant issuedAt, User user, UserDetails userDetails) {
+        String tokenHash = TokenDigest.hashOf(presentedToken);
+        RefreshToken current = refreshTokenRepository.findForUpdate(tokenHash).orElse(null);
+
+        if (current == null && isAdoptable(issuedAt)) {
+            return adopt(tokenHash, issuedAt, user, userDetails);
+        }
+
+        if (current == null || !current.getUserId().equals(user.getId())) {
+            log.warn("Refresh token no registrado para usuario: {}", user.getUsername());
+            return null;
+        }
+
+        if (current.getUsed() && !current.getRevoked()) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId());
+            log.warn("Reutilización de refresh token detectada para usuario: {} - familia {} revocada ({} tokens)",
+                    user.getUsername(), current.getFamilyId(), revoked);
+            return null;
+        }
+
+        if (!current.isRedeemableAt(LocalDateTime.now())) {
+            log.debug("Refresh token revocado o expirado para usuario: {}", user.getUsername());
+            return null;
+        }
+
+        current.setUsed(true);
+        return store(current.getFamilyId(), user, userDetails);
+    }
+
+    /**
+     * Token sin fila emitido antes de que existiera el registro (auth.refresh-tokens.adopt-issued-before)
+     */
+    private boolean isAdoptable(Instant issuedAt) {
+        Instant cutoff = authProperties.getRefreshTokens().getAdoptIssuedBefore();
+        return cutoff != null && issuedAt != null && issuedAt.isBefore(cutoff);
+    }
+
+    /**
+     * Adopta un token anterior al registro en una familia nueva y lo rota
+     * Queda registrado como usado: presentarlo otra vez es una reutilización y revoca la familia
+     */
+    private String adopt(String tokenHash, Instant issuedAt, User user, UserDetails userDetails) {
+        String familyId = newFamilyId();
+        Instant expiresAt = issuedAt.plusMillis(jwtProperties.getRefreshExpiration());
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(tokenHash)
+                .familyId(familyId)
+                .userId(user.getId())
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .used(true)
+                .build());
+        log.info("Refresh token anterior al registro adoptado para usuario: {}", user.getUsername());
+
+        return store(familyId, user, userDetails);
+    }
+
+    /**
+     * Revoca la sesión (familia) del refresh token presentado, si pertenece al usuario
+     * @return true si el token correspondía a una sesión del usuario
+     */
+    @Transactional
+    public boolean revokeFamilyOf(String presentedToken, Long userId) {
+        RefreshToken current = refreshTokenRepository.findForUpdate(TokenDigest.hashOf(presentedToken))
+                .orElse(null);
+
+        if (current == null || !current.getUserId().equals(userId)) {
+            log.debug("Refresh token no registrado para usuario ID {}", userId);
+            return false;
+        }
+
+        int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId());
+        log.debug("Sesión {} cerrada para usuario ID {} ({} tokens)", current.getFamilyId(), userId, revoked);
+        return true;
+    }
+
+    /**
+     * Revoca todas las sesiones del usuario (cambio de contraseña o logout sin refresh token)
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllByUserId(userId);
+        log.info("Refresh tokens revocados para usuario ID {}: {}", userId, revoked);
+    }
+
+    /**
+     * Elimina los tokens expirados en lotes acotados
+     * Cada lote es una transacción corta, de modo que la purga no bloquea las renovaciones
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-tokens.purge-interval:3600000}")
+    public void purgeExpired() {
+        int batchSize = authProperties.getRefreshTokens().getPurgeBatchSize();
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        int deleted;
+
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.info("Refresh tokens expirados eliminados: {}", total);
+        }
+    }
+
+    private String store(String familyId, User user, UserDetails userDetails) {
+        String token = jwtService.generateRefreshToken(userDetails);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(TokenDigest.hashOf(token))
+                .familyId(familyId)
+                .userId(user.getId())
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(jwtProperties.getRefreshExpiration())))
+                .build();
+        refreshTokenRepository.save(refreshToken);
+
+        return token;
+    }
+
+    /**
+     * Id de familia: 128 bits aleatorios en Base64URL (no es secreto, sólo único)
+     */
+    private static String newFamilyId() {
+        byte[] bytes = new byte[16];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,111 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.entity.RevokedToken;
+import com.vildanden.auth_template.repository.RevokedTokenRepository;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Servicio que comparte las revocaciones de access tokens entre los nodos
+ * El logout guarda el jti en la tabla revoked_tokens antes de responder; cada nodo lee
+ * periódicamente las filas nuevas y las agrega a su TokenRevocationList, igual que
+ * TokenVersionRegistry relee las versiones de tokens. Un token revocado en un nodo queda
+ * rechazado en todos tras un intervalo de sincronización, y un reinicio no lo olvida
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RevokedTokenService {
+
+    /**
+     * Margen con el que se vuelve a leer desde la última sincronización: cubre la diferencia
+     * de reloj entre nodos y las filas confirmadas después de la hora que registran
+     */
+    static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenRevocationList revocationList;
+
+    private volatile LocalDateTime lastSync;
+
+    /**
+     * Registra la revocación para el resto de los nodos
+     * Un error de la base de datos se propaga: el logout no se informa como exitoso
+     * si la revocación no quedó guardada
+     */
+    public void record(String tokenId, Instant expiresAt) {
+        if (!revocationList.isEnabled() || tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        revocationList.revoke(tokenId, expiresAt);
+        try {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenId(tokenId)
+                    .expiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo ya la registró (logout concurrente con el mismo token)
+            log.debug("Revocación ya registrada: {}", tokenId);
+        }
+    }
+
+    /**
+     * Incorpora las revocaciones registradas por los demás nodos
+     * La primera lectura trae todas las vigentes; las siguientes, sólo las nuevas
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:5000}")
+    public void synchronize() {
+        if (!revocationList.isEnabled()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> revoked = lastSync == null
+                ? revokedTokenRepository.findByExpiresAtAfter(now)
+                : revokedTokenRepository.findRevokedSince(lastSync.minus(SYNC_OVERLAP), now);
+
+        for (RevokedToken token : revoked) {
+            revocationList.revoke(token.getTokenId(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+        }
+
+        if (lastSync == null) {
+            log.info("Revocaciones vigentes cargadas desde la base de datos: {}", revoked.size());
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Elimina en lotes las revocaciones de tokens ya expirados
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.maintenance-interval:60000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        int deleted;
+
+        do {
+            deleted = revokedTokenRepository.deleteExpiredBatch(now, PURGE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+
+        if (total > 0) {
+            log.debug("Revocaciones expiradas eliminadas: {}", total);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.repository.RoleRepository;
+import com.vildanden.auth_template.util.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resuelve roles por nombre agrupando las consultas concurrentes del mismo rol
+ * (por ejemplo, el rol USER durante un pico de registros) en una sola consulta.
+ * Los roles encontrados quedan en memoria hasta que se modifican o eliminan: User.roles propaga
+ * el merge, y una copia desactualizada sobrescribiría la fila al guardar un usuario
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleResolver {
+
+    private final RoleRepository roleRepository;
+    private final SingleFlight<String, Optional<Role>> roleLoads = new SingleFlight<>();
+    private final Map<String, Role> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Busca un rol por nombre
+     * Un rol inexistente no se recuerda: se vuelve a consultar en la próxima búsqueda
+     */
+    public Optional<Role> findByName(String name) {
+        Role role = resolved.get(name);
+        if (role != null) {
+            return Optional.of(role);
+        }
+
+        Optional<Role> loaded = roleLoads.execute(name, () -> {
+            log.debug("Consultando rol: {}", name);
+            return roleRepository.findByName(name);
+        });
+        loaded.ifPresent(found -> resolved.put(name, found));
+        return loaded;
+    }
+
+    /**
+     * Olvida el rol (al modificarlo o eliminarlo)
+     * Dentro de una transacción se olvida también al confirmarse, por si una búsqueda
+     * concurrente volvió a guardar la fila anterior al cambio
+     */
+    public void evict(String name) {
+        resolved.remove(name);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resolved.remove(name);
+                }
+            });
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class RoleService {
 
     private final RoleRepository roleRepository;
     private final MapperDTO mapperDTO;
+    private final RoleResolver roleResolver;
 
     /**
      * Obtiene todos los roles del sistema
@@ -102,6 +103,7 @@ public class RoleService {
         role.setDescription(updateRequest.description());
 
         role = roleRepository.save(role);
+        roleResolver.evict(role.getName());
         log.info("Rol actualizado exitosamente: {} (ID: {})", role.getName(), role.getId());
 
         return mapperDTO.toRoleResponseDTO(role);
@@ -129,6 +131,7 @@ public class RoleService {
         }
 
         roleRepository.deleteById(id);
+        roleResolver.evict(role.getName());
         log.info("Rol eliminado exitosamente: {} (ID: {})", role.getName(), id);
     }
 
@@ -0,0 +1,290 @@
+package com.vildanden.auth_template.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.dto.auth.TokenBatchStatusDTO;
+import com.vildanden.auth_template.dto.auth.TokenValidationResultDTO;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.RejectedTokenException;
+import com.vildanden.auth_template.security.TokenRejectionReason;
+import com.vildanden.auth_template.security.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio para validar lotes de tokens en una sola petición
+ * Lee los tokens en streaming (array JSON o NDJSON), los verifica en paralelo por bloques
+ * y escribe un resultado NDJSON por token, en el mismo orden de entrada.
+ * La última línea indica si el lote se completó o se cortó: la respuesta ya comenzó
+ * con 200 y el estado HTTP no puede informarlo
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class TokenBatchValidationService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final JwtService jwtService;
+    private final JwtProperties jwtProperties;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final ObjectWriter statusWriter;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public TokenBatchValidationService(JwtService jwtService,
+                                       JwtProperties jwtProperties,
+                                       ObjectMapper objectMapper) {
+        this.jwtService = jwtService;
+        this.jwtProperties = jwtProperties;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(TokenValidationResultDTO.class);
+        this.statusWriter = objectMapper.writerFor(TokenBatchStatusDTO.class);
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "token-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Valida los tokens leídos de la entrada y escribe los resultados en la salida
+     * Acepta un array JSON de strings u objetos {"token": "..."}, o bien uno de esos valores por línea (NDJSON)
+     * @return cantidad de tokens procesados
+     * @throws IllegalArgumentException si la entrada es inválida o supera el máximo, después de
+     *         escribir los resultados ya verificados y la línea de estado aborted
+     */
+    public int validate(InputStream input, OutputStream output) throws IOException {
+        int maxTokens = jwtProperties.getBatchValidation().getMaxTokens();
+        int chunkSize = Math.max(1, jwtProperties.getBatchValidation().getChunkSize());
+
+        // Bloques en vuelo acotados: la memoria no depende del tamaño del lote
+        Deque<CompletableFuture<List<TokenValidationResultDTO>>> inFlight = new ArrayDeque<>();
+        int count = 0;
+        List<String> chunk = new ArrayList<>(chunkSize);
+        int chunkStart = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            JsonToken first = parser.nextToken();
+            boolean array = first == JsonToken.START_ARRAY;
+            JsonToken current = array ? parser.nextToken() : first;
+
+            while (current != null && current != JsonToken.END_ARRAY) {
+                if (count >= maxTokens) {
+                    throw new IllegalArgumentException(
+                            "El lote supera el máximo de " + maxTokens + " tokens por petición");
+                }
+
+                chunk.add(readToken(parser, current));
+                count++;
+
+                if (chunk.size() == chunkSize) {
+                    submit(inFlight, chunk, chunkStart, output);
+                    chunkStart = count;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                current = parser.nextToken();
+            }
+
+            if (!chunk.isEmpty()) {
+                submit(inFlight, chunk, chunkStart, output);
+                chunk = List.of();
+            }
+        } catch (OutputWriteException e) {
+            // El cliente cortó la conexión: no tiene sentido seguir escribiendo
+            cancelAll(inFlight);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            // Escribir lo ya leído aun si la entrada es inválida o supera el límite
+            try {
+                if (!chunk.isEmpty()) {
+                    submit(inFlight, chunk, chunkStart, output);
+                }
+                drain(inFlight, output);
+                writeStatus(TokenBatchStatusDTO.aborted(count, abortReason(e)), output);
+            } catch (OutputWriteException writeFailure) {
+                cancelAll(inFlight);
+                e.addSuppressed(writeFailure.getCause());
+            }
+            throw e;
+        }
+
+        try {
+            drain(inFlight, output);
+            writeStatus(TokenBatchStatusDTO.completed(count), output);
+        } catch (OutputWriteException e) {
+            throw e.getCause();
+        }
+
+        log.debug("Lote de {} tokens validado", count);
+        return count;
+    }
+
+    private void submit(Deque<CompletableFuture<List<TokenValidationResultDTO>>> inFlight,
+                        List<String> chunk, int chunkStart, OutputStream output) throws OutputWriteException {
+        inFlight.add(CompletableFuture.supplyAsync(() -> validateChunk(chunk, chunkStart), executor));
+
+        // Escribir en orden a medida que se completan los bloques más antiguos
+        while (inFlight.size() > parallelism * 2 || (!inFlight.isEmpty() && inFlight.peek().isDone())) {
+            writeResults(inFlight.poll(), output);
+        }
+    }
+
+    private void drain(Deque<CompletableFuture<List<TokenValidationResultDTO>>> inFlight,
+                       OutputStream output) throws OutputWriteException {
+        try {
+            while (!inFlight.isEmpty()) {
+                writeResults(inFlight.poll(), output);
+            }
+        } catch (OutputWriteException e) {
+            cancelAll(inFlight);
+            throw e;
+        }
+    }
+
+    private static void cancelAll(Deque<CompletableFuture<List<TokenValidationResultDTO>>> inFlight) {
+        inFlight.forEach(future -> future.cancel(false));
+        inFlight.clear();
+    }
+
+    private void writeResults(CompletableFuture<List<TokenValidationResultDTO>> future,
+                              OutputStream output) throws OutputWriteException {
+        List<TokenValidationResultDTO> results;
+        try {
+            results = future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Error validando el lote de tokens", e.getCause());
+        }
+
+        try {
+            for (TokenValidationResultDTO result : results) {
+                output.write(resultWriter.writeValueAsBytes(result));
+                output.write(NEWLINE);
+            }
+            output.flush();
+        } catch (IOException e) {
+            throw new OutputWriteException(e);
+        }
+    }
+
+    private void writeStatus(TokenBatchStatusDTO status, OutputStream output) throws OutputWriteException {
+        try {
+            output.write(statusWriter.writeValueAsBytes(status));
+            output.write(NEWLINE);
+            output.flush();
+        } catch (IOException e) {
+            throw new OutputWriteException(e);
+        }
+    }
+
+    /**
+     * Motivo del corte informado al cliente: los errores del parser no se exponen tal cual
+     */
+    private static String abortReason(Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            return e.getMessage();
+        }
+        return e instanceof IOException ? "Formato de lote inválido" : "Error validando el lote de tokens";
+    }
+
+    private List<TokenValidationResultDTO> validateChunk(List<String> tokens, int firstIndex) {
+        List<TokenValidationResultDTO> results = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            results.add(validateOne(firstIndex + i, tokens.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * Valida un token individual (mismo criterio que POST /auth/validate)
+     */
+    private TokenValidationResultDTO validateOne(int index, String token) {
+        if (token == null || token.isBlank()) {
+            return TokenValidationResultDTO.invalid(index, "Token vacío");
+        }
+
+        try {
+            VerifiedToken verified = jwtService.verify(token);
+            return TokenValidationResultDTO.valid(
+                    index, verified.subject(), verified.type(), verified.secondsToExpiration());
+        } catch (ExpiredJwtException e) {
+            return TokenValidationResultDTO.invalid(index, "Token expirado");
+        } catch (RejectedTokenException e) {
+            return TokenValidationResultDTO.invalid(index,
+                    e.getReason() == TokenRejectionReason.EXPIRED ? "Token expirado" : "Token inválido");
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenValidationResultDTO.invalid(index, "Token inválido");
+        } catch (RuntimeException e) {
+            // Un error inesperado (p. ej. al consultar la versión del usuario) no corta el lote
+            log.warn("Error validando token {} del lote: {}", index, e.getMessage());
+            return TokenValidationResultDTO.invalid(index, "Error validando token");
+        }
+    }
+
+    private String readToken(JsonParser parser, JsonToken current) throws IOException {
+        if (current == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+
+        if (current == JsonToken.START_OBJECT) {
+            String token = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("token".equals(field) && value == JsonToken.VALUE_STRING) {
+                    token = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return token;
+        }
+
+        throw new IllegalArgumentException("Formato de lote inválido: se esperaba un token o {\"token\": \"...\"}");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Fallo al escribir en la salida (cliente desconectado), distinto de un error de la entrada
+     */
+    private static final class OutputWriteException extends IOException {
+
+        OutputWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.vildanden.auth_template.service;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco para la paginación por clave (keyset) del listado de usuarios
+ * Guarda el orden (campo y dirección) y los valores del último usuario devuelto:
+ * el campo de orden y el id como desempate. La página siguiente se obtiene con una
+ * búsqueda por rango sobre el índice del campo, sin OFFSET ni COUNT
+ *
+ * Formato (Base64URL): campo|dirección|id|valor
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+final class UserCursor {
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    // Campos con índice (las claves únicas y created_at); el valor se reconstruye con su tipo
+    private static final Map<String, Function<String, Object>> SORT_KEYS = Map.of(
+            ID, value -> null,
+            "username", value -> value,
+            "email", value -> value,
+            "createdAt", LocalDateTime::parse
+    );
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final Object lastValue;
+
+    private UserCursor(String sortBy, Sort.Direction direction, Long lastId, Object lastValue) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Cursor de la primera página
+     * @throws IllegalArgumentException si el campo no admite paginación por cursor
+     */
+    static UserCursor first(String sortBy, Sort.Direction direction) {
+        if (!SORT_KEYS.containsKey(sortBy)) {
+            throw new IllegalArgumentException("Orden no soportado para paginación por cursor: " + sortBy
+                    + " (campos válidos: " + String.join(", ", SORT_KEYS.keySet()) + ")");
+        }
+        return new UserCursor(sortBy, direction, null, null);
+    }
+
+    /**
+     * Cursor que continúa después de la posición indicada, con el mismo orden
+     */
+    UserCursor after(ScrollPosition position) {
+        Map<String, ?> keys = ((KeysetScrollPosition) position).getKeys();
+        return new UserCursor(sortBy, direction, ((Number) keys.get(ID)).longValue(),
+                ID.equals(sortBy) ? null : keys.get(sortBy));
+    }
+
+    /**
+     * Orden de la consulta: el campo y el id como desempate, en la misma dirección
+     * (el índice secundario de InnoDB ya incluye la clave primaria)
+     */
+    Sort sort() {
+        Sort sort = Sort.by(direction, sortBy);
+        return ID.equals(sortBy) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    ScrollPosition toScrollPosition() {
+        if (lastId == null) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (!ID.equals(sortBy)) {
+            keys.put(sortBy, lastValue);
+        }
+        keys.put(ID, lastId);
+        return ScrollPosition.forward(keys);
+    }
+
+    String encode() {
+        String raw = sortBy + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR
+                + (lastValue != null ? lastValue.toString() : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no fue generado por este servicio
+     */
+    static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // El valor va al final: puede contener el separador
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !SORT_KEYS.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new UserCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.parseLong(parts[2]),
+                    SORT_KEYS.get(parts[0]).apply(parts[3]));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
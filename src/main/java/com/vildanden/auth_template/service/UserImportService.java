@@ -0,0 +1,461 @@
+package com.vildanden.auth_template.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.dto.user.UserCreateRequestDTO;
+import com.vildanden.auth_template.dto.user.UserImportEventDTO;
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.RoleRepository;
+import com.vildanden.auth_template.repository.UserBatchInsertRepository;
+import com.vildanden.auth_template.util.CsvLineParser;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de importación masiva de usuarios
+ * Lee las filas en streaming (CSV con encabezado o NDJSON), valida cada una con las mismas
+ * reglas que la creación de usuarios, resuelve los roles contra un mapa cargado una sola vez
+ * y calcula los hashes en paralelo en un pool propio y acotado. Las filas se escriben por bloques,
+ * cada uno con un INSERT por lotes en una transacción; mientras un bloque se escribe, el siguiente
+ * ya se está hasheando. Por cada bloque se emite el detalle de las filas rechazadas y una línea
+ * de progreso (NDJSON)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final byte NEWLINE = '\n';
+    private static final String DEFAULT_ROLE = "USER";
+    private static final String CSV_ROLE_SEPARATOR = "\\|";
+    private static final List<String> CSV_REQUIRED_COLUMNS =
+            List.of("username", "email", "password", "firstName", "lastName");
+
+    private final UserBatchInsertRepository userBatchInsertRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter eventWriter;
+    private final AuthProperties.UserImport config;
+    private final ExecutorService hashExecutor;
+
+    public UserImportService(UserBatchInsertRepository userBatchInsertRepository,
+                             RoleRepository roleRepository,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             AuthProperties authProperties) {
+        this.userBatchInsertRepository = userBatchInsertRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventWriter = objectMapper.writerFor(UserImportEventDTO.class);
+        this.config = authProperties.getUserImport();
+
+        // Por defecto la mitad de los núcleos: una importación no deja sin CPU a los logins
+        int parallelism = config.getHashParallelism() > 0
+                ? config.getHashParallelism()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Importa usuarios desde un CSV con encabezado
+     * Columnas: username, email, password, firstName, lastName y opcionalmente roles (separados por |)
+     * @return evento final (completed o aborted), también escrito en la salida
+     */
+    public UserImportEventDTO importCsv(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return importRows(new CsvRowSource(reader), output);
+    }
+
+    /**
+     * Importa usuarios desde NDJSON: un objeto por línea con los campos de UserCreateRequestDTO
+     * @return evento final (completed o aborted), también escrito en la salida
+     */
+    public UserImportEventDTO importNdjson(InputStream input, OutputStream output) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            return importRows(new NdjsonRowSource(parser), output);
+        }
+    }
+
+    private UserImportEventDTO importRows(RowSource rows, OutputStream output) throws IOException {
+        Map<String, Role> roles = roleRepository.findAll().stream()
+                .collect(Collectors.toMap(Role::getName, Function.identity()));
+        int chunkSize = Math.max(1, config.getChunkSize());
+        int maxRows = config.getMaxRows();
+
+        ImportProgress progress = new ImportProgress();
+        Deque<ImportChunk> inFlight = new ArrayDeque<>();
+        ImportChunk chunk = new ImportChunk();
+        int rowNumber = 0;
+        String abortReason = null;
+
+        try {
+            try {
+                UserCreateRequestDTO row;
+                while ((row = rows.next()) != null) {
+                    if (rowNumber >= maxRows) {
+                        throw new IllegalArgumentException(
+                                "El archivo supera el máximo de " + maxRows + " filas por importación");
+                    }
+                    prepare(chunk, ++rowNumber, row, roles);
+
+                    if (chunk.rows() == chunkSize) {
+                        submit(inFlight, chunk, progress, output);
+                        chunk = new ImportChunk();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Las filas leídas antes del error se importan igual
+                abortReason = e.getMessage();
+            }
+
+            if (chunk.rows() > 0) {
+                submit(inFlight, chunk, progress, output);
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll(), progress, output);
+            }
+        } catch (DataAccessException e) {
+            log.error("Error escribiendo usuarios importados: {}", e.getMessage());
+            abortReason = "Error escribiendo en la base de datos";
+        } finally {
+            // Tras un error de escritura los hashes pendientes ya no se usan
+            inFlight.forEach(ImportChunk::cancel);
+            chunk.cancel();
+        }
+
+        UserImportEventDTO result = abortReason == null
+                ? UserImportEventDTO.completed(progress.processed, progress.imported, progress.failed)
+                : UserImportEventDTO.aborted(progress.processed, progress.imported, progress.failed, abortReason);
+        writeEvent(result, output);
+        output.flush();
+
+        log.info("Importación de usuarios {} - Filas: {}, importadas: {}, con error: {}",
+                result.type(), progress.processed, progress.imported, progress.failed);
+        return result;
+    }
+
+    /**
+     * Valida la fila y resuelve sus roles; si es válida, encola el hash de la contraseña
+     */
+    private void prepare(ImportChunk chunk, int rowNumber, UserCreateRequestDTO row, Map<String, Role> roles) {
+        String error = validate(row);
+
+        Set<Role> userRoles = new HashSet<>();
+        if (error == null) {
+            Set<String> roleNames = row.roles() == null || row.roles().isEmpty() ? Set.of(DEFAULT_ROLE) : row.roles();
+            for (String roleName : roleNames) {
+                Role role = roles.get(roleName);
+                if (role == null) {
+                    error = "Rol no encontrado: " + roleName;
+                    break;
+                }
+                userRoles.add(role);
+            }
+        }
+
+        if (error != null) {
+            chunk.rejected.add(UserImportEventDTO.error(rowNumber, row.username(), error));
+            return;
+        }
+
+        CompletableFuture<String> hash =
+                CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.password()), hashExecutor);
+        chunk.accepted.add(new PendingUser(rowNumber, row, userRoles, hash));
+    }
+
+    private String validate(UserCreateRequestDTO row) {
+        Set<ConstraintViolation<UserCreateRequestDTO>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void submit(Deque<ImportChunk> inFlight, ImportChunk chunk,
+                        ImportProgress progress, OutputStream output) throws IOException {
+        inFlight.add(chunk);
+
+        // Un bloque se hashea mientras el anterior se escribe: nunca hay más de dos bloques en memoria
+        while (inFlight.size() > 1 || (!inFlight.isEmpty() && inFlight.peek().isDone())) {
+            write(inFlight.poll(), progress, output);
+        }
+    }
+
+    /**
+     * Espera los hashes del bloque, lo inserta y emite sus errores y el progreso
+     */
+    private void write(ImportChunk chunk, ImportProgress progress, OutputStream output) throws IOException {
+        List<UserImportEventDTO> errors = new ArrayList<>(chunk.rejected);
+        List<PendingUser> hashed = new ArrayList<>(chunk.accepted.size());
+        List<User> users = new ArrayList<>(chunk.accepted.size());
+
+        for (PendingUser pending : chunk.accepted) {
+            try {
+                users.add(toUser(pending, pending.hash().join()));
+                hashed.add(pending);
+            } catch (CompletionException | CancellationException e) {
+                log.warn("Error generando el hash de la fila {}: {}", pending.row(), e.getMessage());
+                errors.add(UserImportEventDTO.error(pending.row(), pending.request().username(),
+                        "Error generando el hash de la contraseña"));
+            }
+        }
+
+        int before = errors.size();
+        errors.addAll(insert(hashed, users));
+        errors.sort(Comparator.comparing(UserImportEventDTO::row));
+
+        progress.processed += chunk.rows();
+        progress.failed += errors.size();
+        progress.imported += users.size() - (errors.size() - before);
+
+        for (UserImportEventDTO error : errors) {
+            writeEvent(error, output);
+        }
+        writeEvent(UserImportEventDTO.progress(progress.processed, progress.imported, progress.failed), output);
+        output.flush();
+    }
+
+    /**
+     * Inserta el bloque con un solo INSERT por lotes; si alguna fila choca con una clave única,
+     * el lote se revierte y se reintenta fila por fila para identificar las rechazadas
+     */
+    private List<UserImportEventDTO> insert(List<PendingUser> pending, List<User> users) {
+        try {
+            userBatchInsertRepository.insertAll(users);
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Conflicto en el lote de {} usuarios, reintentando fila por fila", users.size());
+        }
+
+        List<UserImportEventDTO> errors = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            try {
+                userBatchInsertRepository.insertAll(List.of(user));
+            } catch (DataIntegrityViolationException e) {
+                RuntimeException conflict = UserUniqueConstraints.conflictOf(e, user.getUsername(), user.getEmail());
+                errors.add(UserImportEventDTO.error(pending.get(i).row(), user.getUsername(), conflict.getMessage()));
+            }
+        }
+        return errors;
+    }
+
+    private static User toUser(PendingUser pending, String encodedPassword) {
+        UserCreateRequestDTO request = pending.request();
+        return User.builder()
+                .username(request.username())
+                .email(request.email())
+                .password(encodedPassword)
+                .firstName(request.firstName())
+                .lastName(request.lastName())
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .roles(pending.roles())
+                .build();
+    }
+
+    private void writeEvent(UserImportEventDTO event, OutputStream output) throws IOException {
+        output.write(eventWriter.writeValueAsBytes(event));
+        output.write(NEWLINE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Fuente de filas; devuelve null al terminar
+     * @throws IllegalArgumentException si la entrada tiene un formato inválido
+     */
+    private interface RowSource {
+        UserCreateRequestDTO next() throws IOException;
+    }
+
+    private record PendingUser(int row, UserCreateRequestDTO request, Set<Role> roles, CompletableFuture<String> hash) {}
+
+    private static final class ImportProgress {
+        private int processed;
+        private int imported;
+        private int failed;
+    }
+
+    private static final class ImportChunk {
+        private final List<PendingUser> accepted = new ArrayList<>();
+        private final List<UserImportEventDTO> rejected = new ArrayList<>();
+
+        int rows() {
+            return accepted.size() + rejected.size();
+        }
+
+        boolean isDone() {
+            return accepted.stream().allMatch(pending -> pending.hash().isDone());
+        }
+
+        void cancel() {
+            accepted.forEach(pending -> pending.hash().cancel(false));
+        }
+    }
+
+    private final class NdjsonRowSource implements RowSource {
+
+        private final JsonParser parser;
+        private int line;
+
+        NdjsonRowSource(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public UserCreateRequestDTO next() throws IOException {
+            line++;
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    return null;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("NDJSON inválido en la fila " + line + ": se esperaba un objeto");
+                }
+                return objectMapper.readValue(parser, UserCreateRequestDTO.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("NDJSON inválido en la fila " + line + ": " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvRowSource implements RowSource {
+
+        private final BufferedReader reader;
+        private Map<String, Integer> columns;
+
+        CsvRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public UserCreateRequestDTO next() throws IOException {
+            if (columns == null) {
+                columns = readHeader();
+            }
+
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            List<String> values = CsvLineParser.parse(line);
+            return new UserCreateRequestDTO(
+                    value(values, "username"),
+                    value(values, "email"),
+                    value(values, "password"),
+                    value(values, "firstName"),
+                    value(values, "lastName"),
+                    roles(value(values, "roles"))
+            );
+        }
+
+        private Map<String, Integer> readHeader() throws IOException {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("El CSV está vacío: se esperaba el encabezado");
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+
+            Map<String, Integer> indexes = new HashMap<>();
+            List<String> names = CsvLineParser.parse(header);
+            for (int i = 0; i < names.size(); i++) {
+                indexes.putIfAbsent(normalize(names.get(i)), i);
+            }
+
+            for (String column : CSV_REQUIRED_COLUMNS) {
+                if (!indexes.containsKey(normalize(column))) {
+                    throw new IllegalArgumentException("Encabezado CSV inválido: falta la columna " + column);
+                }
+            }
+            return indexes;
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(normalize(column));
+            return index != null && index < values.size() ? values.get(index) : null;
+        }
+
+        private static Set<String> roles(String value) {
+            Set<String> roles = new LinkedHashSet<>();
+            if (value != null) {
+                for (String role : value.split(CSV_ROLE_SEPARATOR)) {
+                    if (!role.isBlank()) {
+                        roles.add(role.trim());
+                    }
+                }
+            }
+            return roles;
+        }
+
+        // firstName, first_name y FIRSTNAME identifican la misma columna
+        private static String normalize(String column) {
+            return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+        }
+    }
+}
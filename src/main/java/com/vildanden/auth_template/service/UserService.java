@@ -1,23 +1,29 @@
 package com.vildanden.auth_template.service;
 
+import com.vildanden.auth_template.dto.common.CursorPageResponseDTO;
 import com.vildanden.auth_template.dto.common.PageResponseDTO;
 import com.vildanden.auth_template.dto.user.*;
 import com.vildanden.auth_template.entity.Role;
 import com.vildanden.auth_template.entity.User;
-import com.vildanden.auth_template.repository.RoleRepository;
 import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.PrincipalCache;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
 import com.vildanden.auth_template.util.mapper.MapperDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,10 +39,14 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final MapperDTO mapperDTO;
+    private final PrincipalCache principalCache;
+    private final RoleResolver roleResolver;
+    private final TokenVersionRegistry tokenVersions;
 
     /**
      * Obtiene todos los usuarios con paginación
@@ -66,6 +76,44 @@ public class UserService {
         );
     }
 
+    /**
+     * Obtiene usuarios paginados por cursor (keyset)
+     * Cada página es una búsqueda por rango desde el último usuario de la anterior:
+     * el costo no crece con la profundidad y no se ejecuta COUNT salvo que se pida el total
+     * @param cursor cursor de la página anterior (null o vacío para la primera; define el orden)
+     * @param includeTotal si se cuenta el total de usuarios (una consulta COUNT adicional)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<UserResponseDTO> getUsersByCursor(String cursor, int size, String sortBy,
+                                                                   String sortDir, boolean includeTotal) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        UserCursor position = cursor == null || cursor.isBlank()
+                ? UserCursor.first(sortBy, Sort.Direction.fromString(sortDir))
+                : UserCursor.decode(cursor);
+        log.debug("Obteniendo usuarios por cursor - tamaño: {}, orden: {}", size, position.sort());
+
+        Window<User> window = userRepository.findAllBy(position.toScrollPosition(), position.sort(), Limit.of(size));
+
+        List<UserResponseDTO> users = window.getContent().stream()
+                .map(mapperDTO::toUserResponseDTO)
+                .collect(Collectors.toList());
+
+        String nextCursor = window.hasNext()
+                ? position.after(window.positionAt(window.size() - 1)).encode()
+                : null;
+
+        return new CursorPageResponseDTO<>(
+                users,
+                users.size(),
+                nextCursor,
+                window.hasNext(),
+                includeTotal ? userRepository.count() : null
+        );
+    }
+
     /**
      * Busca un usuario por ID
      */
@@ -99,16 +147,7 @@ public class UserService {
     public UserResponseDTO createUser(UserCreateRequestDTO createRequest) {
         log.info("Creando nuevo usuario: {}", createRequest.username());
 
-        // Validar que no exista el usuario
-        if (userRepository.existsByUsername(createRequest.username())) {
-            throw new RuntimeException("El username ya está en uso: " + createRequest.username());
-        }
-
-        if (userRepository.existsByEmail(createRequest.email())) {
-            throw new RuntimeException("El email ya está en uso: " + createRequest.email());
-        }
-
-        // Obtener roles
+        // Obtener roles (resueltos en memoria; username y email los validan las claves únicas al insertar)
         Set<Role> roles = getRolesByNames(createRequest.roles());
 
         // Crear usuario
@@ -125,14 +164,20 @@ public class UserService {
                 .roles(roles)
                 .build();
 
-        user = userRepository.save(user);
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw UserUniqueConstraints.conflictOf(e, createRequest.username(), createRequest.email());
+        }
         log.info("Usuario creado exitosamente: {} (ID: {})", user.getUsername(), user.getId());
 
         return mapperDTO.toUserResponseDTO(user);
     }
 
     /**
-     * Actualiza un usuario existente
+     * Actualiza un usuario existente (también el perfil propio)
+     * Email y nombre viajan en los tokens autocontenidos: si cambian, los tokens ya emitidos
+     * dejan de ser válidos al confirmarse el cambio, igual que con el estado o los roles
      */
     @Transactional
     public UserResponseDTO updateUser(Long id, UserUpdateRequestDTO updateRequest) {
@@ -147,12 +192,23 @@ public class UserService {
             throw new RuntimeException("El email ya está en uso: " + updateRequest.email());
         }
 
+        // El usuario deja de estar cacheado también bajo el email anterior
+        principalCache.invalidate(user.getUsername(), user.getEmail(), updateRequest.email());
+
+        boolean changed = !Objects.equals(user.getEmail(), updateRequest.email())
+                || !Objects.equals(user.getFirstName(), updateRequest.firstName())
+                || !Objects.equals(user.getLastName(), updateRequest.lastName());
+
         // Actualizar campos
         user.setEmail(updateRequest.email());
         user.setFirstName(updateRequest.firstName());
         user.setLastName(updateRequest.lastName());
+        int tokenVersion = changed ? user.incrementTokenVersion() : user.getTokenVersion();
 
         user = userRepository.save(user);
+        if (changed) {
+            tokenVersions.advance(user.getId(), tokenVersion);
+        }
         log.info("Usuario actualizado exitosamente: {} (ID: {})", user.getUsername(), user.getId());
 
         return mapperDTO.toUserResponseDTO(user);
@@ -168,12 +224,19 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
 
+        // Una cuenta deshabilitada o bloqueada se rechaza desde la próxima petición
+        principalCache.invalidate(user.getUsername(), user.getEmail());
+
         user.setEnabled(statusRequest.enabled());
         user.setAccountNonExpired(statusRequest.accountNonExpired());
         user.setAccountNonLocked(statusRequest.accountNonLocked());
         user.setCredentialsNonExpired(statusRequest.credentialsNonExpired());
 
+        // Los tokens ya emitidos dejan de ser válidos al confirmarse el cambio
+        int tokenVersion = user.incrementTokenVersion();
+
         user = userRepository.save(user);
+        tokenVersions.advance(user.getId(), tokenVersion);
         log.info("Estado del usuario actualizado: {} (ID: {})", user.getUsername(), user.getId());
 
         return mapperDTO.toUserResponseDTO(user);
@@ -191,8 +254,13 @@ public class UserService {
 
         Set<Role> roles = getRolesByNames(rolesRequest.roles());
         user.setRoles(roles);
+        principalCache.invalidate(user.getUsername(), user.getEmail());
+
+        // Los tokens ya emitidos llevan los roles anteriores: dejan de ser válidos al confirmarse el cambio
+        int tokenVersion = user.incrementTokenVersion();
 
         user = userRepository.save(user);
+        tokenVersions.advance(user.getId(), tokenVersion);
         log.info("Roles del usuario actualizados: {} (ID: {}) - Roles: {}",
                 user.getUsername(), user.getId(), rolesRequest.roles());
 
@@ -206,11 +274,14 @@ public class UserService {
     public void deleteUser(Long id) {
         log.info("Eliminando usuario ID: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("Usuario no encontrado con ID: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
 
+        principalCache.invalidate(user.getUsername(), user.getEmail());
         userRepository.deleteById(id);
+
+        // Sin usuario no hay versión que comparar: los tokens emitidos se rechazan al confirmarse el borrado
+        tokenVersions.remove(id);
         log.info("Usuario eliminado exitosamente ID: {}", id);
     }
 
@@ -259,13 +330,13 @@ public class UserService {
     private Set<Role> getRolesByNames(Set<String> roleNames) {
         if (roleNames == null || roleNames.isEmpty()) {
             // Rol por defecto
-            Role defaultRole = roleRepository.findByName("USER")
+            Role defaultRole = roleResolver.findByName("USER")
                     .orElseThrow(() -> new RuntimeException("Rol USER no encontrado"));
             return Set.of(defaultRole);
         }
 
         Set<Role> roles = roleNames.stream()
-                .map(roleName -> roleRepository.findByName(roleName)
+                .map(roleName -> roleResolver.findByName(roleName)
                         .orElseThrow(() -> new RuntimeException("Rol no encontrado: " + roleName)))
                 .collect(Collectors.toSet());
 
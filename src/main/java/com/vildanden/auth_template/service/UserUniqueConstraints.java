@@ -0,0 +1,58 @@
+package com.vildanden.auth_template.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Traduce las violaciones de las claves únicas de usuarios a los errores de negocio
+ * Permite insertar sin consultar antes si el username o el email existen: la base de datos
+ * resuelve la carrera entre registros concurrentes y aquí se identifica el campo en conflicto
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+final class UserUniqueConstraints {
+
+    // MySQL: Duplicate entry 'valor' for key 'users.uk_users_email'
+    private static final Pattern DUPLICATE_KEY = Pattern.compile("for key '([^']+)'");
+
+    private UserUniqueConstraints() {}
+
+    /**
+     * Excepción a lanzar para la violación: "ya está en uso" si es una clave única
+     * de usuarios, o la violación original en cualquier otro caso
+     */
+    static RuntimeException conflictOf(DataIntegrityViolationException e, String username, String email) {
+        String key = violatedKey(e);
+        if (key == null) {
+            return e;
+        }
+        // uk_users_username / uk_users_email (o los nombres implícitos username / email)
+        if (key.endsWith("username")) {
+            return new RuntimeException("El username ya está en uso: " + username);
+        }
+        if (key.endsWith("email")) {
+            return new RuntimeException("El email ya está en uso: " + email);
+        }
+        return e;
+    }
+
+    private static String violatedKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+
+        String message = e.getMostSpecificCause().getMessage();
+        if (message == null) {
+            return null;
+        }
+        Matcher matcher = DUPLICATE_KEY.matcher(message);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.vildanden.auth_template.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separa líneas CSV (RFC 4180: campos entre comillas dobles y "" como comilla escapada)
+ * Los campos no admiten saltos de línea: cada línea del archivo es un registro
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public final class CsvLineParser {
+
+    private CsvLineParser() {}
+
+    /**
+     * Valores de la línea, en orden
+     * @throws IllegalArgumentException si quedan comillas sin cerrar
+     */
+    public static List<String> parse(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Línea CSV inválida: comillas sin cerrar");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Campo listo para escribir: entre comillas si contiene comas, comillas o espacios en los extremos
+     */
+    public static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.strip().equals(value)) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
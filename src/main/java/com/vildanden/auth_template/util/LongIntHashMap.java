@@ -0,0 +1,162 @@
+package com.vildanden.auth_template.util;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Mapa concurrente de claves long a valores int sin boxing
+ * Direccionamiento abierto con sondeo lineal sobre dos arrays primitivos
+ * (13 bytes por hueco, frente a más de 80 bytes por entrada de un
+ * ConcurrentHashMap<Long, Integer> con sus objetos Long, Integer y Node).
+ *
+ * Las lecturas son optimistas y no toman el lock salvo que coincidan con una escritura;
+ * las escrituras se serializan. No admite borrados: está pensado para conjuntos
+ * que sólo crecen o se actualizan
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public final class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Arrays de una misma generación: se reemplazan juntos al crecer,
+     * de modo que una lectura optimista nunca mezcla tamaños distintos
+     */
+    private static final class Table {
+        final long[] keys;
+        final int[] values;
+        final boolean[] used;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table;
+    private volatile int size;
+
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Obtiene el valor de la clave o el valor por defecto si no existe
+     */
+    public int get(long key, int defaultValue) {
+        long stamp = lock.tryOptimisticRead();
+        int value = find(table, key, defaultValue);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return find(table, key, defaultValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Asocia el valor a la clave
+     */
+    public void put(long key, int value) {
+        merge(key, value, (previous, given) -> given);
+    }
+
+    /**
+     * Asocia a la clave el resultado de combinar el valor actual con el indicado
+     * (o el indicado si la clave no existía)
+     * @return el valor resultante
+     */
+    public int merge(long key, int value, IntBinaryOperator function) {
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = slotOf(current, key);
+            if (current.used[slot]) {
+                int merged = function.applyAsInt(current.values[slot], value);
+                current.values[slot] = merged;
+                return merged;
+            }
+
+            // Factor de carga máximo de 0.5: siempre queda un hueco que corta el sondeo
+            if ((size + 1) * 2 > current.keys.length) {
+                current = resize(current);
+                slot = slotOf(current, key);
+            }
+
+            current.keys[slot] = key;
+            current.values[slot] = value;
+            current.used[slot] = true;
+            size++;
+            return value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int find(Table table, long key, int defaultValue) {
+        int mask = table.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (table.used[slot]) {
+            if (table.keys[slot] == key) {
+                return table.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    private static int slotOf(Table table, long key) {
+        int mask = table.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (table.used[slot] && table.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private Table resize(Table current) {
+        Table resized = new Table(current.keys.length * 2);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.used[i]) {
+                int slot = slotOf(resized, current.keys[i]);
+                resized.keys[slot] = current.keys[i];
+                resized.values[slot] = current.values[i];
+                resized.used[slot] = true;
+            }
+        }
+        table = resized;
+        return resized;
+    }
+
+    /**
+     * Mezcla los bits de la clave: los ids secuenciales caerían en huecos contiguos
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -1,10 +1,27 @@
 package com.vildanden.auth_template.util;
 
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.security.BCryptStrengthCalibrator;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.io.IOException;
+
+/**
+ * Herramienta de línea de comandos para hashes de contraseñas
+ * Sin argumentos imprime un hash de ejemplo para el usuario admin; con argumentos
+ * ejecuta el rehash masivo de un export de usuarios (ver PasswordRehashJob.Options.USAGE)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
 public class PasswordHashGenerator {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            rehash(args);
+            return;
+        }
+
         BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
         String password = "admin123";
 
@@ -26,4 +43,27 @@ public class PasswordHashGenerator {
         System.out.println("\n=== SQL PARA ACTUALIZAR ===");
         System.out.println("UPDATE users SET password = '" + newHash + "' WHERE username = 'admin';");
     }
-}
\ No newline at end of file
+
+    private static void rehash(String[] args) throws IOException {
+        PasswordRehashJob.Options options;
+        try {
+            options = PasswordRehashJob.Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(PasswordRehashJob.Options.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        // Mismo criterio que la aplicación: costo fijo o calibrado en esta máquina
+        int strength = options.strength();
+        if (strength <= 0) {
+            AuthProperties.PasswordHashing defaults = new AuthProperties().getPasswordHashing();
+            strength = BCryptStrengthCalibrator.calibrate(
+                    defaults.getTargetHashTime(), defaults.getMinStrength(), defaults.getMaxStrength());
+        }
+        System.out.println("Costo BCrypt: " + strength + " - Hilos: " + options.threads());
+
+        new PasswordRehashJob(options, PasswordRehashJob.bcryptEncoder(strength), System.out).run();
+    }
+}
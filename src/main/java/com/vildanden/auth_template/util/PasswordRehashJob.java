@@ -0,0 +1,438 @@
+package com.vildanden.auth_template.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rehash masivo de contraseñas fuera de línea (migración de usuarios)
+ * Lee un export CSV con columnas username y password (texto plano), calcula los hashes
+ * {bcrypt} en un ForkJoinPool (work-stealing, un hilo por núcleo por defecto) y escribe
+ * un script SQL con un UPDATE por usuario y una transacción por bloque, o un CSV username,password.
+ * Las contraseñas que ya son hashes BCrypt se conservan con el prefijo {bcrypt}. Los valores con
+ * otro prefijo {id} o con forma de digest (MD5/SHA en hexadecimal o Base64, formatos crypt $id$)
+ * se omiten y se informan: hashearlos como texto plano dejaría cuentas sin contraseña válida.
+ * El resto sólo se hashea con --plaintext; {noop} declara texto plano y se hashea siempre.
+ *
+ * Tras escribir cada bloque se guarda un checkpoint (filas leídas y bytes escritos):
+ * si el proceso se interrumpe, la siguiente ejecución con los mismos archivos recorta
+ * la salida al último bloque completo y continúa desde la fila siguiente
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class PasswordRehashJob {
+
+    public enum OutputFormat { SQL, CSV }
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final String BCRYPT_PREFIX = "{" + BCRYPT_ID + "}";
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+    private static final String NOOP_PREFIX = "{noop}";
+    private static final Pattern ENCODER_ID = Pattern.compile("\\A\\{([^{}]*)}");
+    // MD5, SHA-1, SHA-256 y SHA-512 en hexadecimal o Base64, y formatos crypt ($1$, $6$, $argon2id$...)
+    private static final Pattern DIGEST = Pattern.compile(
+            "[0-9a-fA-F]{32}|[0-9a-fA-F]{40}|[0-9a-fA-F]{64}|[0-9a-fA-F]{128}"
+                    + "|[A-Za-z0-9+/]{22}==|[A-Za-z0-9+/]{27}=|[A-Za-z0-9+/]{43}=|[A-Za-z0-9+/]{86}=="
+                    + "|\\$[0-9A-Za-z-]+\\$.+");
+
+    private static final String CHECKPOINT_ROWS = "rows";
+    private static final String CHECKPOINT_OUTPUT_BYTES = "outputBytes";
+    private static final String CHECKPOINT_FORMAT = "format";
+
+    private final Options options;
+    private final PasswordEncoder encoder;
+    private final PrintStream progress;
+
+    public PasswordRehashJob(Options options, PasswordEncoder encoder, PrintStream progress) {
+        this.options = options;
+        this.encoder = encoder;
+        this.progress = progress;
+    }
+
+    /**
+     * Encoder equivalente al de la aplicación: hashes {bcrypt} con el costo indicado
+     */
+    public static PasswordEncoder bcryptEncoder(int strength) {
+        return new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+    }
+
+    /**
+     * Procesa el export completo (o el resto, si hay un checkpoint)
+     */
+    public Result run() throws IOException {
+        Properties checkpoint = loadCheckpoint();
+        long skipRows = checkpoint != null ? Long.parseLong(checkpoint.getProperty(CHECKPOINT_ROWS)) : 0;
+
+        ForkJoinPool pool = new ForkJoinPool(options.threads());
+        long start = System.nanoTime();
+        Counters counters = new Counters();
+        counters.rows = skipRows;
+
+        try (BufferedReader reader = Files.newBufferedReader(options.input(), StandardCharsets.UTF_8);
+             FileChannel channel = openOutput(checkpoint);
+             Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+
+            int[] columns = readHeader(reader);
+            if (checkpoint == null) {
+                writeHeader(writer);
+            } else {
+                progress.println("Reanudando desde el checkpoint: " + skipRows + " filas ya procesadas");
+                skip(reader, skipRows);
+            }
+
+            // Un bloque se hashea mientras se escribe el anterior
+            long lastRow = skipRows;
+            PendingChunk previous = null;
+            Chunk chunk;
+            do {
+                chunk = readChunk(reader, columns, lastRow, counters);
+                lastRow = chunk.lastRow();
+                List<ExportRow> rows = chunk.rows();
+                // El stream paralelo corre dentro del pool: sus tareas se reparten por work-stealing
+                PendingChunk current = new PendingChunk(
+                        pool.submit(() -> rows.parallelStream().map(this::rehash).toList()), lastRow);
+                if (previous != null) {
+                    writeChunk(previous, writer, channel, counters, start);
+                }
+                previous = current;
+            } while (!chunk.endOfInput());
+            writeChunk(previous, writer, channel, counters, start);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Files.deleteIfExists(options.checkpoint());
+        Result result = new Result(counters.rows, counters.hashed, counters.kept, counters.skipped,
+                Duration.ofNanos(System.nanoTime() - start));
+        progress.printf(Locale.ROOT, "Completado - Filas: %d, hasheadas: %d, conservadas: %d, omitidas: %d (%.1f s)%n",
+                result.rows(), result.hashed(), result.kept(), result.skipped(), result.elapsed().toMillis() / 1000.0);
+        return result;
+    }
+
+    private RehashedRow rehash(ExportRow row) {
+        String password = row.password();
+        String bare = bcryptHash(password);
+        if (bare != null) {
+            // Ya es un hash: sin la contraseña original no se puede recalcular
+            return new RehashedRow(row.username(), BCRYPT_PREFIX + bare, false);
+        }
+        String raw = password.startsWith(NOOP_PREFIX) ? password.substring(NOOP_PREFIX.length()) : password;
+        return new RehashedRow(row.username(), encoder.encode(raw), true);
+    }
+
+    /**
+     * Hash BCrypt sin prefijo, o null si el valor no es un hash BCrypt
+     */
+    private static String bcryptHash(String password) {
+        String bare = password.startsWith(BCRYPT_PREFIX) ? password.substring(BCRYPT_PREFIX.length()) : password;
+        return BCRYPT_HASH.matcher(bare).matches() ? bare : null;
+    }
+
+    /**
+     * Motivo por el que la contraseña no se puede procesar, o null si se conserva o se hashea
+     */
+    private String unsupportedReason(String password) {
+        if (bcryptHash(password) != null || password.startsWith(NOOP_PREFIX)) {
+            return null;
+        }
+
+        Matcher encoderId = ENCODER_ID.matcher(password);
+        if (encoderId.find()) {
+            return "hash con formato {" + encoderId.group(1) + "} no soportado";
+        }
+        if (DIGEST.matcher(password).matches()) {
+            return "parece un digest de otro algoritmo, no una contraseña en texto plano";
+        }
+        if (!options.plaintext()) {
+            return "no es un hash BCrypt (use --plaintext si el export tiene contraseñas en texto plano)";
+        }
+        return null;
+    }
+
+    /**
+     * Lee hasta chunkSize filas válidas; las omitidas cuentan como leídas para el checkpoint
+     */
+    private Chunk readChunk(BufferedReader reader, int[] columns, long lastRow, Counters counters) throws IOException {
+        List<ExportRow> rows = new ArrayList<>(options.chunkSize());
+        while (rows.size() < options.chunkSize()) {
+            String line = readDataLine(reader);
+            if (line == null) {
+                return new Chunk(rows, lastRow, true);
+            }
+            lastRow++;
+
+            List<String> values = CsvLineParser.parse(line);
+            String username = columns[0] < values.size() ? values.get(columns[0]) : "";
+            String password = columns[1] < values.size() ? values.get(columns[1]) : "";
+            if (username.isBlank() || password.isEmpty()) {
+                counters.skipped++;
+                progress.println("Fila " + lastRow + " omitida: username o password vacío");
+                continue;
+            }
+            String reason = unsupportedReason(password);
+            if (reason != null) {
+                counters.skipped++;
+                progress.println("Fila " + lastRow + " omitida (" + username + "): " + reason);
+                continue;
+            }
+            rows.add(new ExportRow(username, password));
+        }
+        return new Chunk(rows, lastRow, false);
+    }
+
+    /**
+     * Escribe el bloque, lo persiste en disco y recién entonces avanza el checkpoint
+     */
+    private void writeChunk(PendingChunk chunk, Writer writer, FileChannel channel,
+                            Counters counters, long start) throws IOException {
+        List<RehashedRow> rows = chunk.task().join();
+        if (chunk.lastRow() == counters.rows) {
+            return;
+        }
+
+        // Un bloque con sólo filas omitidas no escribe nada, pero el checkpoint avanza igual
+        if (!rows.isEmpty()) {
+            writeRows(rows, writer);
+        }
+        writer.flush();
+        channel.force(false);
+
+        for (RehashedRow row : rows) {
+            if (row.hashed()) {
+                counters.hashed++;
+            } else {
+                counters.kept++;
+            }
+        }
+        counters.rows = chunk.lastRow();
+        saveCheckpoint(counters.rows, channel.size());
+
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        progress.printf(Locale.ROOT, "Filas: %d - %.0f hashes/s%n", counters.rows, counters.hashed / seconds);
+    }
+
+    private void writeRows(List<RehashedRow> rows, Writer writer) throws IOException {
+        if (options.format() == OutputFormat.SQL) {
+            writer.write("START TRANSACTION;\n");
+            for (RehashedRow row : rows) {
+                writer.write("UPDATE users SET password = '" + row.hash()
+                        + "' WHERE username = '" + sqlEscape(row.username()) + "';\n");
+            }
+            writer.write("COMMIT;\n");
+        } else {
+            for (RehashedRow row : rows) {
+                writer.write(CsvLineParser.quote(row.username()) + "," + row.hash() + "\n");
+            }
+        }
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
+        if (options.format() == OutputFormat.SQL) {
+            writer.write("-- Rehash de contraseñas generado por PasswordHashGenerator\n");
+        } else {
+            writer.write("username,password\n");
+        }
+    }
+
+    /**
+     * Índices de las columnas username y password
+     */
+    private int[] readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("El export está vacío: se esperaba el encabezado");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+
+        List<String> names = CsvLineParser.parse(header).stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int username = names.indexOf("username");
+        int password = names.indexOf("password");
+        if (username < 0 || password < 0) {
+            throw new IllegalArgumentException("Encabezado inválido: se esperaban las columnas username y password");
+        }
+        return new int[]{username, password};
+    }
+
+    private static void skip(BufferedReader reader, long rows) throws IOException {
+        for (long i = 0; i < rows; i++) {
+            if (readDataLine(reader) == null) {
+                throw new IllegalStateException("El checkpoint indica más filas que las del export");
+            }
+        }
+    }
+
+    private static String readDataLine(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    private FileChannel openOutput(Properties checkpoint) throws IOException {
+        if (checkpoint == null) {
+            return FileChannel.open(options.output(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        long outputBytes = Long.parseLong(checkpoint.getProperty(CHECKPOINT_OUTPUT_BYTES));
+        FileChannel channel = FileChannel.open(options.output(), StandardOpenOption.WRITE);
+        if (channel.size() < outputBytes) {
+            channel.close();
+            throw new IllegalStateException("La salida es más corta que lo registrado en el checkpoint: " + options.output());
+        }
+        // Descartar lo escrito después del último bloque completo
+        channel.truncate(outputBytes);
+        channel.position(outputBytes);
+        return channel;
+    }
+
+    private Properties loadCheckpoint() throws IOException {
+        if (!Files.exists(options.checkpoint())) {
+            return null;
+        }
+
+        Properties checkpoint = new Properties();
+        try (InputStream input = Files.newInputStream(options.checkpoint())) {
+            checkpoint.load(input);
+        }
+        if (!options.format().name().equals(checkpoint.getProperty(CHECKPOINT_FORMAT))) {
+            throw new IllegalStateException("El checkpoint corresponde a otro formato de salida: "
+                    + checkpoint.getProperty(CHECKPOINT_FORMAT));
+        }
+        return checkpoint;
+    }
+
+    private void saveCheckpoint(long rows, long outputBytes) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(CHECKPOINT_ROWS, Long.toString(rows));
+        checkpoint.setProperty(CHECKPOINT_OUTPUT_BYTES, Long.toString(outputBytes));
+        checkpoint.setProperty(CHECKPOINT_FORMAT, options.format().name());
+
+        // Escritura atómica: un corte a mitad de camino deja el checkpoint anterior
+        Path temp = options.checkpoint().resolveSibling(options.checkpoint().getFileName() + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            checkpoint.store(output, "PasswordRehashJob");
+        }
+        Files.move(temp, options.checkpoint(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // MySQL: comillas simples duplicadas y barras invertidas escapadas
+    private static String sqlEscape(String value) {
+        return value.replace("\\", "\\\\").replace("'", "''");
+    }
+
+    /**
+     * Opciones de la línea de comandos (--clave=valor)
+     */
+    public record Options(Path input, Path output, OutputFormat format, Path checkpoint,
+                          int strength, int threads, int chunkSize, boolean plaintext) {
+
+        public static final String USAGE = """
+                Uso: PasswordHashGenerator --input=export.csv --output=rehash.sql [opciones]
+                  --format=sql|csv     formato de salida (por defecto sql)
+                  --checkpoint=ruta    checkpoint para reanudar (por defecto <output>.checkpoint)
+                  --strength=N         costo BCrypt (por defecto se calibra en esta máquina)
+                  --threads=N          hilos del pool (por defecto uno por núcleo)
+                  --chunk-size=N       filas por bloque / transacción (por defecto 1000)
+                  --plaintext          hashear los valores que no son BCrypt como texto plano
+                                       (sin esta opción se omiten; los digests se omiten siempre)
+                Sin argumentos imprime un hash de ejemplo""";
+
+        public static Options parse(String[] args) {
+            Path input = null;
+            Path output = null;
+            OutputFormat format = OutputFormat.SQL;
+            Path checkpoint = null;
+            int strength = 0;
+            int threads = Runtime.getRuntime().availableProcessors();
+            int chunkSize = 1000;
+            boolean plaintext = false;
+
+            for (String arg : args) {
+                if (arg.equals("--plaintext")) {
+                    plaintext = true;
+                    continue;
+                }
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Argumento inválido: " + arg);
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(2, separator)) {
+                    case "input" -> input = Path.of(value);
+                    case "output" -> output = Path.of(value);
+                    case "format" -> format = OutputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "checkpoint" -> checkpoint = Path.of(value);
+                    case "strength" -> strength = Integer.parseInt(value);
+                    case "threads" -> threads = Integer.parseInt(value);
+                    case "chunk-size" -> chunkSize = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Opción desconocida: " + arg);
+                }
+            }
+
+            if (input == null || output == null) {
+                throw new IllegalArgumentException("--input y --output son obligatorios");
+            }
+            if (threads < 1 || chunkSize < 1) {
+                throw new IllegalArgumentException("--threads y --chunk-size deben ser positivos");
+            }
+            if (checkpoint == null) {
+                checkpoint = output.resolveSibling(output.getFileName() + ".checkpoint");
+            }
+            return new Options(input, output, format, checkpoint, strength, threads, chunkSize, plaintext);
+        }
+    }
+
+    /**
+     * Resultado de la ejecución (las filas incluyen las de ejecuciones anteriores reanudadas)
+     */
+    public record Result(long rows, long hashed, long kept, long skipped, Duration elapsed) {}
+
+    private record ExportRow(String username, String password) {}
+
+    private record RehashedRow(String username, String hash, boolean hashed) {}
+
+    /**
+     * Filas válidas de un bloque y número de la última fila leída del export
+     */
+    private record Chunk(List<ExportRow> rows, long lastRow, boolean endOfInput) {}
+
+    private record PendingChunk(ForkJoinTask<List<RehashedRow>> task, long lastRow) {}
+
+    private static final class Counters {
+        private long rows;
+        private long hashed;
+        private long kept;
+        private long skipped;
+    }
+}
@@ -0,0 +1,58 @@
+package com.vildanden.auth_template.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa cargas concurrentes de la misma clave en una sola ejecución
+ * El primer hilo ejecuta la carga; los que llegan mientras está en curso esperan
+ * y reciben el mismo resultado (o la misma excepción). No guarda resultados:
+ * al terminar la carga, la siguiente llamada vuelve a ejecutarla
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta la carga para la clave, o espera la que ya está en curso
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            // Propagar la misma excepción que recibió el hilo que ejecutó la carga
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.vildanden.auth_template.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de eventos en una ventana deslizante, sin bloqueos
+ * Aproxima la ventana con dos ventanas fijas consecutivas: la cuenta de la anterior
+ * se pondera por la fracción de ella que todavía cae dentro de la ventana deslizante.
+ * Todo el estado vive en un único AtomicLong que se actualiza con CAS:
+ * índice de ventana (32 bits), cuenta anterior (16 bits) y cuenta actual (16 bits)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+public class SlidingWindowCounter {
+
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final long windowMillis;
+    private final AtomicLong state = new AtomicLong();
+
+    public SlidingWindowCounter(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("La ventana debe ser positiva: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Registra un evento en el instante indicado
+     */
+    public void record(long nowMillis) {
+        tryRecord(Integer.MAX_VALUE, nowMillis);
+    }
+
+    /**
+     * Registra un evento sólo si la estimación previa está por debajo del límite
+     * La comprobación y el registro son una única operación atómica: dos hilos
+     * no pueden ocupar a la vez el último lugar disponible
+     * @return true si el evento se registró
+     */
+    public boolean tryRecord(int limit, long nowMillis) {
+        int window = windowAt(nowMillis);
+        double remaining = 1.0 - (double) Math.floorMod(nowMillis, windowMillis) / windowMillis;
+        long current;
+        long updated;
+        do {
+            current = state.get();
+            int stateWindow = windowOf(current);
+            int previous;
+            int count;
+            if (stateWindow == window) {
+                previous = previousOf(current);
+                count = countOf(current);
+            } else if (stateWindow == window - 1) {
+                previous = countOf(current);
+                count = 0;
+            } else {
+                previous = 0;
+                count = 0;
+            }
+
+            if (previous * remaining + count >= limit) {
+                return false;
+            }
+            updated = pack(window, previous, Math.min(count + 1, MAX_COUNT));
+        } while (!state.compareAndSet(current, updated));
+        return true;
+    }
+
+    /**
+     * Descuenta un evento registrado antes (en la ventana actual o, si ya avanzó, en la anterior)
+     */
+    public void release(long nowMillis) {
+        int window = windowAt(nowMillis);
+        long current;
+        long updated;
+        do {
+            current = state.get();
+            int stateWindow = windowOf(current);
+            int previous = previousOf(current);
+            int count = countOf(current);
+            if (stateWindow < window - 1) {
+                return;
+            }
+            if (count > 0) {
+                updated = pack(stateWindow, previous, count - 1);
+            } else if (stateWindow == window && previous > 0) {
+                updated = pack(stateWindow, previous - 1, count);
+            } else {
+                return;
+            }
+        } while (!state.compareAndSet(current, updated));
+    }
+
+    /**
+     * Cantidad estimada de eventos en la ventana deslizante que termina en el instante indicado
+     */
+    public double estimate(long nowMillis) {
+        long current = state.get();
+        int window = windowAt(nowMillis);
+        int stateWindow = windowOf(current);
+        double remaining = 1.0 - (double) Math.floorMod(nowMillis, windowMillis) / windowMillis;
+
+        if (stateWindow == window) {
+            return previousOf(current) * remaining + countOf(current);
+        }
+        if (stateWindow == window - 1) {
+            return countOf(current) * remaining;
+        }
+        return 0;
+    }
+
+    /**
+     * Milisegundos hasta que la estimación quede por debajo del límite (0 si ya lo está)
+     */
+    public long millisUntilBelow(int limit, long nowMillis) {
+        if (estimate(nowMillis) < limit) {
+            return 0;
+        }
+
+        long current = state.get();
+        long elapsed = Math.floorMod(nowMillis, windowMillis);
+        int previous = previousOf(current);
+        int count = countOf(current);
+
+        if (windowOf(current) != windowAt(nowMillis)) {
+            // La cuenta del estado ya es la de la ventana anterior
+            previous = count;
+            count = 0;
+        }
+
+        if (count < limit) {
+            // Basta con que la ventana anterior pese menos: previous * (1 - f) < limit - count
+            long target = (long) Math.ceil(windowMillis * (1.0 - (double) (limit - count) / previous));
+            return Math.max(1, target - elapsed + 1);
+        }
+
+        // Hay que esperar a la próxima ventana y a que la actual, ya como anterior, pese menos
+        long target = (long) Math.ceil(windowMillis * (1.0 - (double) limit / count));
+        return windowMillis - elapsed + target + 1;
+    }
+
+    /**
+     * Vuelve la cuenta a cero
+     */
+    public void reset() {
+        state.set(0);
+    }
+
+    private int windowAt(long nowMillis) {
+        return (int) Math.floorDiv(nowMillis, windowMillis);
+    }
+
+    private static int windowOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int previousOf(long packed) {
+        return (int) ((packed >>> 16) & MAX_COUNT);
+    }
+
+    private static int countOf(long packed) {
+        return (int) (packed & MAX_COUNT);
+    }
+
+    private static long pack(int window, int previous, int count) {
+        return ((long) window << 32) | ((long) previous << 16) | count;
+    }
+}
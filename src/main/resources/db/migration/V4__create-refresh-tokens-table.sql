@@ -0,0 +1,23 @@
+-- Almacén de refresh tokens con rotación y detección de reutilización
+-- Auth Template v1.0.0
+
+-- Sólo se guarda el hash del token (SHA-256 en Base64URL): la búsqueda es una
+-- única lectura por clave primaria y un volcado de la tabla no expone tokens válidos
+CREATE TABLE refresh_tokens (
+    token_hash VARCHAR(64) NOT NULL,
+    family_id VARCHAR(32) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    used BOOLEAN NOT NULL DEFAULT FALSE,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (token_hash),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Revocación de una familia completa (reutilización detectada)
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens(family_id);
+-- Revocación de todas las sesiones de un usuario (cambio de contraseña)
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens(user_id);
+-- Purga por lotes de los tokens expirados
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
@@ -0,0 +1,6 @@
+-- Versión de tokens por usuario
+-- Auth Template v1.0.0
+
+-- Los tokens llevan la versión vigente al emitirse (claim tv); incrementarla
+-- invalida de una vez todos los tokens del usuario (cambio de contraseña o de estado)
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Nombres explícitos para las claves únicas de usuarios
+-- Auth Template v1.0.0
+
+-- El registro inserta directamente y traduce la violación de clave única a
+-- "username/email ya en uso": el nombre de la clave identifica el campo en conflicto
+ALTER TABLE users RENAME INDEX username TO uk_users_username;
+ALTER TABLE users RENAME INDEX email TO uk_users_email;
+
+-- Las claves únicas ya indexan estas columnas: los índices duplicados sólo encarecían cada inserción
+DROP INDEX idx_users_username ON users;
+DROP INDEX idx_users_email ON users;
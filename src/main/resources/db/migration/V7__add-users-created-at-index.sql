@@ -0,0 +1,6 @@
+-- Índice para la paginación por cursor ordenada por fecha de alta
+-- Auth Template v1.0.0
+
+-- El índice secundario de InnoDB incluye la clave primaria: (created_at, id) queda
+-- ordenado y cada página es una búsqueda por rango desde el último usuario devuelto
+CREATE INDEX idx_users_created_at ON users(created_at);
@@ -0,0 +1,16 @@
+-- Tokens revocados (logout) compartidos entre nodos
+-- Auth Template v1.0.0
+
+-- Cada nodo guarda aquí el jti del token que revoca y los demás lo leen periódicamente;
+-- la fila sólo hace falta hasta la expiración del token
+CREATE TABLE revoked_tokens (
+    token_id VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (token_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Lectura incremental de las revocaciones de otros nodos
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
+-- Carga inicial de las vigentes y purga por lotes de las expiradas
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
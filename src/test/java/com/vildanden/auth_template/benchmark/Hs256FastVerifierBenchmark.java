@@ -0,0 +1,78 @@
+package com.vildanden.auth_template.benchmark;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.RejectedTokenCache;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.UserPrincipal;
+import com.vildanden.auth_template.security.VerifiedToken;
+import com.vildanden.auth_template.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark de la verificación HS256: camino rápido contra el parser de jjwt
+ * La caché de tokens verificados se desactiva para medir cada verificación
+ *
+ * Ejecutar el método main con el classpath de test (mvn test-compile previo)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Hs256FastVerifierBenchmark {
+
+    @Param({"true", "false"})
+    private boolean fastVerification;
+
+    @Param({"false", "true"})
+    private boolean selfContained;
+
+    private JwtService jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setFastVerification(fastVerification);
+        jwtProperties.setSelfContained(selfContained);
+        jwtProperties.getCache().setEnabled(false);
+
+        TokenVersionRegistry tokenVersions = new TokenVersionRegistry(mock(UserRepository.class), jwtProperties);
+        tokenVersions.advance(1L, 0);
+        jwtService = new JwtService(jwtProperties, new VerifiedTokenCache(jwtProperties),
+                new TokenRevocationList(jwtProperties), tokenVersions,
+                new ReferenceTokenStore(jwtProperties), new RejectedTokenCache(jwtProperties));
+        UserPrincipal principal = new UserPrincipal(
+                1L, "Benchmark", "User", "benchmark-user", "benchmark@example.com", "password",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        accessToken = jwtService.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(accessToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(Hs256FastVerifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
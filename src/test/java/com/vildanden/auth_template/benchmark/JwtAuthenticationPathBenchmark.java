@@ -0,0 +1,88 @@
+package com.vildanden.auth_template.benchmark;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.RejectedTokenCache;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.VerifiedToken;
+import com.vildanden.auth_template.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark del camino de autenticación JWT por petición
+ * Compara las llamadas que hacía el filtro antes (una verificación por dato)
+ * contra una única llamada a {@link JwtService#verify(String)}
+ *
+ * Ejecutar el método main con el classpath de test (mvn test-compile previo)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationPathBenchmark {
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getCache().setEnabled(cacheEnabled);
+        jwtService = new JwtService(jwtProperties, new VerifiedTokenCache(jwtProperties),
+                new TokenRevocationList(jwtProperties),
+                new TokenVersionRegistry(mock(UserRepository.class), jwtProperties),
+                new ReferenceTokenStore(jwtProperties), new RejectedTokenCache(jwtProperties));
+        userDetails = new User("benchmark-user", "password", List.of());
+        accessToken = jwtService.generateAccessToken(userDetails);
+    }
+
+    /**
+     * Secuencia de llamadas que realizaba el filtro por cada petición
+     */
+    @Benchmark
+    public void legacyFilterPath(Blackhole blackhole) {
+        blackhole.consume(jwtService.validateToken(accessToken));
+        blackhole.consume(jwtService.extractUsername(accessToken));
+        blackhole.consume(jwtService.validateToken(accessToken, userDetails));
+        blackhole.consume(jwtService.isAccessToken(accessToken));
+    }
+
+    /**
+     * Verificación única usada actualmente por el filtro
+     */
+    @Benchmark
+    public void verifiedTokenPath(Blackhole blackhole) {
+        VerifiedToken token = jwtService.verify(accessToken);
+        blackhole.consume(token.isAccessToken());
+        blackhole.consume(jwtService.isTokenValidFor(token, userDetails));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.vildanden.auth_template.benchmark;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.RejectedTokenCache;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.VerifiedToken;
+import com.vildanden.auth_template.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark del costo de firma y verificación por algoritmo (HS256, ES256, EdDSA)
+ * La caché de tokens verificados se desactiva para medir la verificación real
+ *
+ * Ejecutar el método main con el classpath de test (mvn test-compile previo)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSigningAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private JwtProperties.Algorithm algorithm;
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAlgorithm(algorithm);
+        jwtProperties.getCache().setEnabled(false);
+
+        jwtService = new JwtService(jwtProperties, new VerifiedTokenCache(jwtProperties),
+                new TokenRevocationList(jwtProperties),
+                new TokenVersionRegistry(mock(UserRepository.class), jwtProperties),
+                new ReferenceTokenStore(jwtProperties), new RejectedTokenCache(jwtProperties));
+        userDetails = new User("benchmark-user", "password", List.of());
+        accessToken = jwtService.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(accessToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningAlgorithmBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
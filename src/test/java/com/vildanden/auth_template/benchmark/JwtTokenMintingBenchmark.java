@@ -0,0 +1,79 @@
+package com.vildanden.auth_template.benchmark;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.RejectedTokenCache;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.UserPrincipal;
+import com.vildanden.auth_template.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Benchmark de la emisión de tokens HS256: camino rápido contra el builder de jjwt
+ * (access token mínimo y autocontenido, más el refresh token de cada login)
+ *
+ * Ejecutar el método main con el classpath de test (mvn test-compile previo)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenMintingBenchmark {
+
+    @Param({"true", "false"})
+    private boolean fastMinting;
+
+    @Param({"false", "true"})
+    private boolean selfContained;
+
+    private JwtService jwtService;
+    private UserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setFastMinting(fastMinting);
+        jwtProperties.setSelfContained(selfContained);
+
+        jwtService = new JwtService(jwtProperties, new VerifiedTokenCache(jwtProperties),
+                new TokenRevocationList(jwtProperties),
+                new TokenVersionRegistry(mock(UserRepository.class), jwtProperties),
+                new ReferenceTokenStore(jwtProperties), new RejectedTokenCache(jwtProperties));
+        principal = new UserPrincipal(
+                1L, "Benchmark", "User", "benchmark-user", "benchmark@example.com", "password",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+    }
+
+    @Benchmark
+    public String accessToken() {
+        return jwtService.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public String refreshToken() {
+        return jwtService.generateRefreshToken(principal);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtTokenMintingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
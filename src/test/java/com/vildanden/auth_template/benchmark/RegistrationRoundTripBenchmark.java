@@ -0,0 +1,200 @@
+package com.vildanden.auth_template.benchmark;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.dto.auth.RegisterRequestDTO;
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.RoleRepository;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.service.AuthService;
+import com.vildanden.auth_template.service.PasswordHashingCompletionExecutor;
+import com.vildanden.auth_template.service.PasswordHashingService;
+import com.vildanden.auth_template.service.RoleResolver;
+import com.vildanden.auth_template.util.mapper.MapperDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmark de idas y vueltas del registro: inserción directa resuelta por las claves únicas
+ * contra el flujo anterior de consultas previas (existsByUsername, existsByEmail, rol, save)
+ *
+ * Es una simulación de la cantidad de idas y vueltas, no de la contención en la base de datos:
+ * la tabla users se reemplaza por dos mapas concurrentes con la semántica de sus claves únicas,
+ * y cada operación paga una espera fija (roundTripMicros). No participan los bloqueos del índice
+ * único de InnoDB, el pool de conexiones ni los rollbacks de las inserciones duplicadas, así que
+ * el resultado mide sólo cuánto se ahorra al pasar de cuatro idas y vueltas a una.
+ * Un porcentaje de los registros usa un username ya existente para recorrer también el camino
+ * del conflicto. La contención real sobre el índice único sólo puede medirse contra MySQL.
+ *
+ * Ejecutar el método main con el classpath de test (mvn test-compile previo)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RegistrationRoundTripBenchmark {
+
+    private static final int EXISTING_USERS = 1000;
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    @Param({"0", "20"})
+    private int duplicatePercent;
+
+    private final Map<String, Long> usernames = new ConcurrentHashMap<>();
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private UserRepository userRepository;
+    private RoleRepository roleRepository;
+    private PasswordHashingService passwordHashing;
+    private AuthService authService;
+    private Role userRole;
+
+    @Setup
+    public void setUp() {
+        userRole = Role.builder().name("USER").build();
+        userRole.setId(1L);
+
+        userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.existsByUsername(anyString())).thenAnswer(invocation -> {
+            roundTrip();
+            return usernames.containsKey(invocation.<String>getArgument(0));
+        });
+        when(userRepository.existsByEmail(anyString())).thenAnswer(invocation -> {
+            roundTrip();
+            return emails.containsKey(invocation.<String>getArgument(0));
+        });
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            roundTrip();
+            return insert(invocation.getArgument(0));
+        });
+
+        roleRepository = mock(RoleRepository.class, withSettings().stubOnly());
+        when(roleRepository.findByName(anyString())).thenAnswer(invocation -> {
+            roundTrip();
+            return Optional.of(userRole);
+        });
+
+        // Hash trivial y un hilo de hash por hilo del benchmark: sólo se miden las idas y vueltas
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class, withSettings().stubOnly());
+        when(passwordEncoder.encode(any())).thenReturn("{bcrypt}hash");
+        AuthProperties authProperties = new AuthProperties();
+        authProperties.getPasswordHashing().setPoolSize(8);
+        authProperties.getPasswordHashing().setCompletionPoolSize(8);
+        passwordHashing = new PasswordHashingService(passwordEncoder, authProperties);
+
+        authService = new AuthService(userRepository, passwordHashing,
+                new PasswordHashingCompletionExecutor(authProperties), null, new MapperDTO(), null,
+                null, new RoleResolver(roleRepository), null, null, null, null);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTable() {
+        usernames.clear();
+        emails.clear();
+        for (int i = 0; i < EXISTING_USERS; i++) {
+            usernames.put("existing-" + i, (long) i);
+            emails.put("existing-" + i + "@example.com", (long) i);
+        }
+    }
+
+    @Benchmark
+    public Object insertDirect() {
+        try {
+            return authService.register(nextRequest()).join();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Flujo anterior: dos consultas de existencia y la del rol antes de insertar.
+     * Entre las consultas y la inserción, otro registro puede tomar el mismo username:
+     * la clave única sigue siendo la que decide
+     */
+    @Benchmark
+    public Object checkThenInsert() {
+        RegisterRequestDTO request = nextRequest();
+        if (userRepository.existsByUsername(request.username())) {
+            return "El username ya está en uso: " + request.username();
+        }
+        if (userRepository.existsByEmail(request.email())) {
+            return "El email ya está en uso: " + request.email();
+        }
+        Role role = roleRepository.findByName("USER").orElseThrow();
+        try {
+            return passwordHashing.encode(request.password())
+                    .thenApply(encoded -> userRepository.saveAndFlush(User.builder()
+                            .username(request.username())
+                            .email(request.email())
+                            .password(encoded)
+                            .roles(Set.of(role))
+                            .build()))
+                    .join();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private RegisterRequestDTO nextRequest() {
+        long n = sequence.incrementAndGet();
+        String username = n % 100 < duplicatePercent
+                ? "existing-" + (n % EXISTING_USERS)
+                : "user-" + n;
+        return new RegisterRequestDTO(username, "user-" + n + "@example.com", "password123", "Bench", "User");
+    }
+
+    private User insert(User user) {
+        Long id = sequence.incrementAndGet();
+        if (usernames.putIfAbsent(user.getUsername(), id) != null) {
+            throw duplicate(user.getUsername(), "uk_users_username");
+        }
+        if (emails.putIfAbsent(user.getEmail(), id) != null) {
+            usernames.remove(user.getUsername(), id);
+            throw duplicate(user.getEmail(), "uk_users_email");
+        }
+        user.setId(id);
+        return user;
+    }
+
+    private static DataIntegrityViolationException duplicate(String value, String key) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry '" + value + "' for key 'users." + key + "'"));
+    }
+
+    private void roundTrip() {
+        LockSupport.parkNanos(roundTripMicros * 1000);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RegistrationRoundTripBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
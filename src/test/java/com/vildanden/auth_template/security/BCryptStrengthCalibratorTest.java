@@ -0,0 +1,38 @@
+package com.vildanden.auth_template.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para BCryptStrengthCalibrator
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    void chooseStrength_DoublesPerCostUntilTarget() {
+        // costo 10 = 60 ms: 11 = 120 ms, 12 = 240 ms, 13 = 480 ms
+        assertEquals(12, BCryptStrengthCalibrator.chooseStrength(60_000_000L, 10, 16, 250_000_000L));
+        assertEquals(10, BCryptStrengthCalibrator.chooseStrength(60_000_000L, 10, 16, 100_000_000L));
+    }
+
+    @Test
+    void chooseStrength_RespectsBounds() {
+        // Hardware lento: nunca por debajo del mínimo
+        assertEquals(10, BCryptStrengthCalibrator.chooseStrength(900_000_000L, 10, 16, 250_000_000L));
+        // Hardware muy rápido: nunca por encima del máximo
+        assertEquals(16, BCryptStrengthCalibrator.chooseStrength(100_000L, 10, 16, 250_000_000L));
+    }
+
+    @Test
+    void calibrate_MeasuresOnThisHost() {
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofMillis(5), 4, 8);
+
+        assertTrue(strength >= 4 && strength <= 8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para CustomUserDetailsService con caché de usuarios
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+    private CustomUserDetailsService userDetailsService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(new AuthProperties());
+        userDetailsService = new CustomUserDetailsService(userRepository, principalCache);
+
+        Role userRole = Role.builder().name("USER").description("Usuario estándar").build();
+        testUser = User.builder()
+                .username("testuser")
+                .email("test@example.com")
+                .password("encodedPassword")
+                .firstName("Test")
+                .lastName("User")
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .roles(Set.of(userRole))
+                .build();
+        testUser.setId(1L);
+    }
+
+    @Test
+    void loadUserByUsername_RepeatedLookups_QueryDatabaseOnce() {
+        // Given
+        when(userRepository.findByUsernameOrEmail("testuser", "testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails byEmail = userDetailsService.loadUserByUsername("TEST@example.com");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // Then
+        assertSame(first, byEmail);
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUsernameOrEmail(anyString(), anyString());
+        assertEquals(2, principalCache.stats().hits());
+    }
+
+    @Test
+    void loadUserByUsername_AfterInvalidation_ReloadsDisabledAccount() {
+        // Given
+        when(userRepository.findByUsernameOrEmail("testuser", "testuser")).thenReturn(Optional.of(testUser));
+        assertTrue(userDetailsService.loadUserByUsername("testuser").isEnabled());
+
+        // When
+        testUser.setEnabled(false);
+        principalCache.invalidate(testUser.getUsername(), testUser.getEmail());
+
+        // Then
+        assertFalse(userDetailsService.loadUserByUsername("testuser").isEnabled());
+        verify(userRepository, times(2)).findByUsernameOrEmail("testuser", "testuser");
+    }
+
+    @Test
+    void loadUserByUsername_UnknownUser_ThrowsAndIsNotCached() {
+        // Given
+        when(userRepository.findByUsernameOrEmail("ghost", "ghost")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertEquals(0, principalCache.stats().size());
+    }
+
+    @Test
+    void loadUserByUsername_ConcurrentLookups_RunOneQueryPerKey() throws InterruptedException {
+        // Given - sin caché, para que sólo el agrupamiento evite las consultas repetidas
+        AuthProperties authProperties = new AuthProperties();
+        authProperties.getPrincipalCache().setEnabled(false);
+        CustomUserDetailsService service = new CustomUserDetailsService(userRepository, new PrincipalCache(authProperties));
+
+        User otherUser = User.builder().username("other").email("other@example.com").password("encoded")
+                .enabled(true).accountNonExpired(true).accountNonLocked(true).credentialsNonExpired(true)
+                .roles(Set.of()).build();
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUsernameOrEmail(anyString(), anyString())).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of("other".equals(invocation.getArgument(0)) ? otherUser : testUser);
+        });
+
+        // When
+        Queue<UserDetails> results = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            String username = i % 2 == 0 ? "testuser" : "other";
+            threads.add(new Thread(() -> results.add(service.loadUserByUsername(username))));
+        }
+        threads.forEach(Thread::start);
+        awaitAllWaiting(threads);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(32, results.size());
+        verify(userRepository, times(1)).findByUsernameOrEmail("testuser", "testuser");
+        verify(userRepository, times(1)).findByUsernameOrEmail("other", "other");
+    }
+
+    /**
+     * Espera a que todos los hilos estén bloqueados: uno en la consulta y el resto en la carga en curso
+     */
+    private void awaitAllWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Los hilos no llegaron a esperar la carga");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.vildanden.auth_template.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para Hs256FastVerifier (paridad con el parser de jjwt)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class Hs256FastVerifierTest {
+
+    private SecretKey legacyKey;
+    private SecretKey ringKey;
+    private Hs256FastVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        legacyKey = Keys.hmacShaKeyFor("LegacySecretWithAtLeastThirtyTwoCharacters".getBytes(StandardCharsets.UTF_8));
+        ringKey = Keys.hmacShaKeyFor("RingSecretForK1WithAtLeastThirtyTwoCharacters".getBytes(StandardCharsets.UTF_8));
+        verifier = new Hs256FastVerifier(legacyKey, Map.of("k1", ringKey));
+    }
+
+    @Test
+    void verify_SelfContainedClaims_MatchJjwtParser() {
+        // Given
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("type", "access");
+        claims.put("uid", 42L);
+        claims.put("email", "josé@example.com");
+        claims.put("given_name", "Line\nBreak \"quoted\" \\ tab\t");
+        claims.put("roles", List.of("ROLE_USER", "ROLE_ADMIN"));
+        claims.put("acct", 15);
+        claims.put("big", 9_000_000_000L);
+        claims.put("flag", false);
+        String token = sign(legacyKey, null, claims, 60_000);
+
+        // When
+        VerifiedToken fast = verifier.verify(token, System.currentTimeMillis());
+        VerifiedToken reference = VerifiedToken.from(parse(legacyKey, token));
+
+        // Then
+        assertNotNull(fast);
+        assertEquals(reference, fast);
+        assertEquals(Integer.class, fast.claims().get("uid").getClass());
+        assertEquals(Long.class, fast.claims().get("big").getClass());
+    }
+
+    @Test
+    void verify_RingKid_UsesMatchingKey() {
+        // Given
+        String token = sign(ringKey, "k1", Map.of("type", "refresh"), 60_000);
+
+        // When
+        VerifiedToken verified = verifier.verify(token, System.currentTimeMillis());
+
+        // Then
+        assertNotNull(verified);
+        assertTrue(verified.isRefreshToken());
+        assertNull(verifier.verify(sign(ringKey, "k2", Map.of("type", "refresh"), 60_000), System.currentTimeMillis()));
+    }
+
+    @Test
+    void verify_InvalidTokens_FallBackToJjwt() {
+        // Given
+        String token = sign(legacyKey, null, Map.of("type", "access"), 60_000);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String wrongKey = sign(ringKey, null, Map.of("type", "access"), 60_000);
+        String expired = sign(legacyKey, null, Map.of("type", "access"), -60_000);
+        String nested = sign(legacyKey, null, Map.of("type", "access", "meta", Map.of("a", 1)), 60_000);
+
+        // When & Then
+        long now = System.currentTimeMillis();
+        assertNull(verifier.verify(tampered, now));
+        assertNull(verifier.verify(wrongKey, now));
+        assertNull(verifier.verify(expired, now));
+        assertNull(verifier.verify(nested, now));
+        assertNull(verifier.verify("not.a.token", now));
+        assertNull(verifier.verify(null, now));
+    }
+
+    private String sign(SecretKey key, String kid, Map<String, Object> claims, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        var builder = Jwts.builder();
+        if (kid != null) {
+            builder.header().keyId(kid);
+        }
+        return builder
+                .claims(claims)
+                .subject("testuser")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttlMillis))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    private Claims parse(SecretKey key, String token) {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
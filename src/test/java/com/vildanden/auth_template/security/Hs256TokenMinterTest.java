@@ -0,0 +1,84 @@
+package com.vildanden.auth_template.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para Hs256TokenMinter (compatibilidad byte a byte con jjwt)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class Hs256TokenMinterTest {
+
+    private static final long ISSUED_AT = 1_760_000_000_123L;
+    private static final long EXPIRATION = ISSUED_AT + 86_400_000L;
+
+    private final SecretKey key = Keys.hmacShaKeyFor(
+            "MinterSecretWithAtLeastThirtyTwoCharactersOfEntropy".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void mint_RefreshClaims_MatchesJjwtBytes() {
+        // Given
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("type", "refresh");
+
+        // When & Then
+        assertEquals(jjwt(claims, "Xy3-_tokenId", "testuser", null), new Hs256TokenMinter(key, null)
+                .mint(claims, "Xy3-_tokenId", "testuser", ISSUED_AT, EXPIRATION));
+    }
+
+    @Test
+    void mint_SelfContainedClaimsWithKid_MatchesJjwtBytes() {
+        // Given
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("type", "access");
+        claims.put("uid", 42L);
+        claims.put("email", "josé.müller@example.com");
+        claims.put("given_name", "Quote \" backslash \\ newline \n tab \t bell \u0007 emoji 😀");
+        claims.put("family_name", null);
+        claims.put("roles", List.of("ROLE_USER", "ROLE_ADMIN"));
+        claims.put("acct", 15);
+        claims.put("negative", -9_000_000_000L);
+        claims.put("flag", true);
+
+        // When & Then
+        assertEquals(jjwt(claims, null, "usuário", "k1"), new Hs256TokenMinter(key, "k1")
+                .mint(claims, null, "usuário", ISSUED_AT, EXPIRATION));
+    }
+
+    @Test
+    void mint_UnsupportedClaims_FallsBackToJjwt() {
+        Hs256TokenMinter minter = new Hs256TokenMinter(key, null);
+
+        assertNull(minter.mint(Map.of("amount", BigDecimal.ONE), null, "testuser", ISSUED_AT, EXPIRATION));
+        assertNull(minter.mint(Map.of("meta", Map.of("a", 1)), null, "testuser", ISSUED_AT, EXPIRATION));
+        assertNull(minter.mint(Map.of("jti", "id"), null, "testuser", ISSUED_AT, EXPIRATION));
+    }
+
+    private String jjwt(Map<String, Object> claims, String tokenId, String subject, String kid) {
+        var builder = Jwts.builder();
+        if (kid != null) {
+            builder.header().keyId(kid);
+        }
+        return builder
+                .claims(claims)
+                .id(tokenId)
+                .subject(subject)
+                .issuedAt(new Date(ISSUED_AT))
+                .expiration(new Date(EXPIRATION))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+}
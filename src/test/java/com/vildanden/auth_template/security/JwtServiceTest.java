@@ -0,0 +1,353 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para JwtService
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class JwtServiceTest {
+
+    private JwtProperties jwtProperties;
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenRevocationList revocationList;
+    private UserRepository userRepository;
+    private TokenVersionRegistry tokenVersions;
+    private RejectedTokenCache rejectedTokens;
+    private JwtService jwtService;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        verifiedTokenCache = new VerifiedTokenCache(jwtProperties);
+        revocationList = new TokenRevocationList(jwtProperties);
+        userRepository = mock(UserRepository.class);
+        tokenVersions = new TokenVersionRegistry(userRepository, jwtProperties);
+        rejectedTokens = new RejectedTokenCache(jwtProperties);
+        jwtService = new JwtService(jwtProperties, verifiedTokenCache, revocationList, tokenVersions,
+                new ReferenceTokenStore(jwtProperties), rejectedTokens);
+        userDetails = new User("testuser", "password", List.of());
+    }
+
+    @Test
+    void verify_AccessToken_ReturnsVerifiedToken() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+
+        // When
+        VerifiedToken verified = jwtService.verify(token);
+
+        // Then
+        assertEquals("testuser", verified.subject());
+        assertTrue(verified.isAccessToken());
+        assertNotNull(verified.issuedAt());
+        assertNotNull(verified.expiresAt());
+        assertTrue(jwtService.isTokenValidFor(verified, userDetails));
+    }
+
+    @Test
+    void verify_RepeatedToken_IsServedFromCache() {
+        // Given
+        String token = jwtService.generateRefreshToken(userDetails);
+
+        // When
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        // Then
+        assertSame(first, second);
+        assertTrue(second.isRefreshToken());
+        assertEquals(1, verifiedTokenCache.stats().hits());
+        assertEquals(1, verifiedTokenCache.stats().misses());
+    }
+
+    @Test
+    void verify_TamperedToken_ThrowsJwtException() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When & Then
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertFalse(jwtService.validateToken(tampered));
+    }
+
+    @Test
+    void verify_SecretChanged_RejectsTokensSignedWithPreviousSecret() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+        jwtService.verify(token);
+
+        // When
+        jwtProperties.setSecret("AnotherVerySecureJWTSecretKeyUsedAfterRotation2025WithEnoughLength");
+
+        // Then
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = JwtProperties.Algorithm.class, names = {"ES256", "EdDSA"})
+    void verify_AsymmetricAlgorithm_TokenCarriesKidPublishedInJwks(JwtProperties.Algorithm algorithm) {
+        // Given
+        jwtProperties.setAlgorithm(algorithm);
+        String token = jwtService.generateAccessToken(userDetails);
+
+        // When
+        VerifiedToken verified = jwtService.verify(token);
+        Map<String, Object> jwks = jwtService.getPublicJwks();
+
+        // Then
+        assertEquals("testuser", verified.subject());
+        List<?> keys = (List<?>) jwks.get("keys");
+        assertEquals(1, keys.size());
+        Map<?, ?> jwk = (Map<?, ?>) keys.get(0);
+        assertEquals(algorithm.name(), jwk.get("alg"));
+        assertFalse(jwk.containsKey("d"));
+
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        assertTrue(header.contains("\"kid\":\"" + jwk.get("kid") + "\""));
+    }
+
+    @Test
+    void getPublicJwks_Hs256_DoesNotPublishSecret() {
+        assertEquals(List.of(), jwtService.getPublicJwks().get("keys"));
+    }
+
+    @Test
+    void verify_KeyRingRotation_AcceptsTokensFromOverlappingKeys() {
+        // Given
+        String legacyToken = jwtService.generateAccessToken(userDetails);
+        jwtProperties.setKeys(new ArrayList<>(List.of(
+                signingKey("k1", Instant.now().minus(1, ChronoUnit.DAYS), null))));
+        String k1Token = jwtService.generateAccessToken(userDetails);
+
+        // When
+        JwtProperties.SigningKey k1 = jwtProperties.getKeys().get(0);
+        k1.setRetireAt(Instant.now().plus(7, ChronoUnit.DAYS));
+        jwtProperties.getKeys().add(signingKey("k2", Instant.now().minusSeconds(1), null));
+        String k2Token = jwtService.generateAccessToken(userDetails);
+
+        // Then
+        assertTrue(headerOf(k1Token).contains("\"kid\":\"k1\""));
+        assertTrue(headerOf(k2Token).contains("\"kid\":\"k2\""));
+        assertEquals("testuser", jwtService.verify(legacyToken).subject());
+        assertEquals("testuser", jwtService.verify(k1Token).subject());
+        assertEquals("testuser", jwtService.verify(k2Token).subject());
+    }
+
+    @Test
+    void verify_LegacySecretRetired_RejectsTokensWithoutKid() {
+        // Given
+        String legacyToken = jwtService.generateAccessToken(userDetails);
+        jwtProperties.setKeys(new ArrayList<>(List.of(signingKey("k1", null, null))));
+
+        // When
+        jwtProperties.setSecretRetireAt(Instant.now().minusSeconds(1));
+        String k1Token = jwtService.generateAccessToken(userDetails);
+
+        // Then: el header sin kid tampoco se acepta por el camino rápido
+        assertThrows(JwtException.class, () -> jwtService.verify(legacyToken));
+        assertEquals("testuser", jwtService.verify(k1Token).subject());
+    }
+
+    @Test
+    void verify_RetiredKey_RejectsToken() {
+        // Given
+        jwtProperties.setKeys(new ArrayList<>(List.of(
+                signingKey("k1", null, null))));
+        String k1Token = jwtService.generateAccessToken(userDetails);
+
+        // When
+        jwtProperties.setKeys(new ArrayList<>(List.of(
+                signingKey("k1", null, Instant.now().minusSeconds(1)),
+                signingKey("k2", null, null))));
+
+        // Then
+        assertThrows(JwtException.class, () -> jwtService.verify(k1Token));
+    }
+
+    @Test
+    void generateAccessToken_SelfContained_PrincipalRebuiltFromClaims() {
+        // Given
+        jwtProperties.setSelfContained(true);
+        UserPrincipal principal = new UserPrincipal(
+                42L, "Test", "User", "testuser", "test@example.com", "encoded",
+                true, true, true, true,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), 0);
+        tokenVersions.advance(42L, 0);
+
+        // When
+        VerifiedToken verified = jwtService.verify(jwtService.generateAccessToken(principal));
+        UserPrincipal rebuilt = UserPrincipal.fromToken(verified);
+
+        // Then
+        assertTrue(jwtService.isSelfContained(verified));
+        assertEquals(42L, rebuilt.getId());
+        assertEquals("testuser", rebuilt.getUsername());
+        assertEquals("test@example.com", rebuilt.getEmail());
+        assertEquals("Test User", rebuilt.getFullName());
+        assertNull(rebuilt.getPassword());
+        assertTrue(rebuilt.isAccountAvailable());
+        assertTrue(rebuilt.hasRole("ADMIN"));
+        assertTrue(rebuilt.hasRole("USER"));
+    }
+
+    @Test
+    void generateAccessToken_SelfContainedDisabled_KeepsMinimalClaims() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(
+                42L, "Test", "User", "testuser", "test@example.com", "encoded",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        tokenVersions.advance(42L, 0);
+
+        // When
+        VerifiedToken verified = jwtService.verify(jwtService.generateAccessToken(principal));
+
+        // Then
+        assertFalse(jwtService.isSelfContained(verified));
+        assertFalse(verified.claims().containsKey(VerifiedToken.CLAIM_EMAIL));
+        assertFalse(verified.claims().containsKey(VerifiedToken.CLAIM_ROLES));
+        assertEquals(0, verified.tokenVersion());
+    }
+
+    @Test
+    void revoke_AccessToken_RejectedEvenWhenCached() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+        String otherToken = jwtService.generateAccessToken(userDetails);
+        VerifiedToken verified = jwtService.verify(token);
+
+        // When
+        jwtService.revoke(token);
+
+        // Then
+        assertNotNull(verified.tokenId());
+        assertNotEquals(verified.tokenId(), jwtService.verify(otherToken).tokenId());
+        assertThrows(RevokedTokenException.class, () -> jwtService.verify(token));
+        assertFalse(jwtService.validateToken(token));
+        assertTrue(jwtService.validateToken(otherToken));
+    }
+
+    @Test
+    void verify_RepeatedInvalidToken_RejectedFromNegativeCache() {
+        // Given
+        String token = jwtService.generateAccessToken(userDetails);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        RejectedTokenException repeated = assertThrows(RejectedTokenException.class, () -> jwtService.verify(tampered));
+
+        // Then
+        assertEquals(TokenRejectionReason.BAD_SIGNATURE, repeated.getReason());
+        assertEquals(0, repeated.getStackTrace().length);
+        assertEquals(1, rejectedTokens.stats().rejectedFromCache());
+        assertEquals(2L, rejectedTokens.stats().rejectionsByReason().get("BAD_SIGNATURE"));
+        assertNotNull(jwtService.verify(token));
+    }
+
+    @Test
+    void generateAccessToken_ReferenceFormat_IssuesOpaqueToken() {
+        // Given
+        jwtProperties.setTokenFormat(JwtProperties.TokenFormat.REFERENCE);
+        jwtProperties.getReferenceTokens().setCapacity(1024);
+        JwtService referenceService = new JwtService(jwtProperties, verifiedTokenCache, revocationList,
+                tokenVersions, new ReferenceTokenStore(jwtProperties), rejectedTokens);
+
+        // When
+        String accessToken = referenceService.generateAccessToken(userDetails);
+        String refreshToken = referenceService.generateRefreshToken(userDetails);
+
+        // Then
+        assertTrue(ReferenceTokenStore.isReferenceToken(accessToken));
+        assertTrue(accessToken.length() < 50);
+        assertFalse(ReferenceTokenStore.isReferenceToken(refreshToken));
+        assertEquals("testuser", referenceService.extractUsername(accessToken));
+        assertTrue(referenceService.isAccessToken(accessToken));
+
+        referenceService.revoke(accessToken);
+        assertFalse(referenceService.validateToken(accessToken));
+        assertThrows(JwtException.class, () -> jwtService.verify(accessToken));
+    }
+
+    @Test
+    void verify_TokenVersionAdvanced_RejectsPreviousTokensOfUser() {
+        // Given
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(3));
+        UserPrincipal principal = new UserPrincipal(
+                42L, "Test", "User", "testuser", "test@example.com", "encoded",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 3);
+        UserPrincipal otherUser = new UserPrincipal(
+                43L, "Other", "User", "otheruser", "other@example.com", "encoded",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        tokenVersions.advance(43L, 0);
+        String accessToken = jwtService.generateAccessToken(principal);
+        String refreshToken = jwtService.generateRefreshToken(principal);
+        String otherToken = jwtService.generateAccessToken(otherUser);
+        jwtService.verify(accessToken);
+
+        // When
+        tokenVersions.advance(42L, 4);
+
+        // Then
+        assertThrows(RevokedTokenException.class, () -> jwtService.verify(accessToken));
+        assertFalse(jwtService.validateToken(refreshToken));
+        assertTrue(jwtService.validateToken(otherToken));
+        verify(userRepository, times(1)).findTokenVersionById(42L);
+    }
+
+    @Test
+    void verify_UserRemoved_RejectsTokensWithCachedVersion() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(
+                42L, "Test", "User", "testuser", "test@example.com", "encoded",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 2);
+        tokenVersions.advance(42L, 2);
+        String accessToken = jwtService.generateAccessToken(principal);
+        jwtService.verify(accessToken);
+
+        // When
+        tokenVersions.remove(42L);
+        tokenVersions.advance(42L, 3);
+
+        // Then: la marca de eliminado prevalece sobre avances posteriores
+        assertThrows(RevokedTokenException.class, () -> jwtService.verify(accessToken));
+        verify(userRepository, never()).findTokenVersionById(42L);
+    }
+
+    private JwtProperties.SigningKey signingKey(String id, Instant activeFrom, Instant retireAt) {
+        JwtProperties.SigningKey key = new JwtProperties.SigningKey();
+        key.setId(id);
+        key.setSecret("RingSecretFor-" + id + "-WithAtLeastThirtyTwoCharactersOfEntropy");
+        key.setActiveFrom(activeFrom);
+        key.setRetireAt(retireAt);
+        return key;
+    }
+
+    private String headerOf(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+    }
+}
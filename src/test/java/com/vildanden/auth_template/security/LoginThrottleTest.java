@@ -0,0 +1,155 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.exception.LoginThrottledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para LoginThrottle (ventana deslizante por usuario y dirección)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class LoginThrottleTest {
+
+    private static final long WINDOW = 60_000;
+    private static final long T0 = 1_700_000_040_000L; // inicio de una ventana de 60 s
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        AuthProperties authProperties = new AuthProperties();
+        authProperties.getLoginThrottling().setWindow(Duration.ofMillis(WINDOW));
+        authProperties.getLoginThrottling().setMaxFailuresPerUsername(3);
+        authProperties.getLoginThrottling().setMaxFailuresPerAddress(5);
+        loginThrottle = new LoginThrottle(authProperties);
+    }
+
+    @Test
+    void begin_UsernameOverLimit_ThrottledWithRetryAfter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.begin("TestUser", "10.0.0." + i, T0 + i);
+        }
+
+        // When & Then: el username se compara sin distinguir mayúsculas
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.begin("testuser", "10.0.0.99", T0 + 10));
+        assertEquals(WINDOW / 1000, exception.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> loginThrottle.begin("otheruser", "10.0.0.99", T0 + 10));
+        assertEquals(1, loginThrottle.stats().throttledByUsername());
+    }
+
+    @Test
+    void begin_AddressOverLimit_ThrottlesEveryUsernameAndRefundsUsername() {
+        // Given: un origen que prueba muchos usuarios distintos
+        for (int i = 0; i < 5; i++) {
+            loginThrottle.begin("user" + i, "198.51.100.1", T0 + i);
+        }
+
+        // When & Then
+        for (int i = 0; i < 3; i++) {
+            assertThrows(LoginThrottledException.class,
+                    () -> loginThrottle.begin("newuser", "198.51.100.1", T0 + 10));
+        }
+        // Los intentos bloqueados por la dirección no consumen el límite del usuario
+        assertDoesNotThrow(() -> loginThrottle.begin("newuser", "198.51.100.2", T0 + 10));
+    }
+
+    @Test
+    void begin_ConcurrentAttempts_NeverExceedLimit() throws InterruptedException {
+        // Given
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String address = "10.0.1." + i;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    loginThrottle.begin("testuser", address, T0 + 10);
+                    allowed.incrementAndGet();
+                } catch (LoginThrottledException | InterruptedException ignored) {
+                    // Bloqueado
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+
+        // When
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Then: la reserva es atómica, sólo pasan tantos intentos como el límite
+        assertEquals(3, allowed.get());
+    }
+
+    @Test
+    void bindAccount_UsernameAndEmailShareLimit() {
+        // Given: fallos alternando username y email de la misma cuenta
+        for (int i = 0; i < 3; i++) {
+            String login = i % 2 == 0 ? "testuser" : "test@example.com";
+            loginThrottle.begin(login, "10.0.0." + i, T0 + i).bindAccount(42L, T0 + i);
+        }
+
+        // When & Then: el email todavía no alcanzó su límite, pero la cuenta sí
+        LoginThrottle.Attempt attempt = loginThrottle.begin("test@example.com", "10.0.0.9", T0 + 10);
+        assertThrows(LoginThrottledException.class, () -> attempt.bindAccount(42L, T0 + 10));
+        assertDoesNotThrow(() -> loginThrottle.begin("test@example.com", "10.0.0.9", T0 + 11).bindAccount(7L, T0 + 11));
+    }
+
+    @Test
+    void begin_FailuresSlideOutOfWindow_AllowedAgain() {
+        // Given: 4 fallos al inicio de una ventana
+        for (int i = 0; i < 4; i++) {
+            loginThrottle.begin("user" + i, "10.0.0.1", T0 + i);
+        }
+        // Con límite 5 por dirección se admite un quinto intento, que también queda como fallo
+        loginThrottle.begin("user4", "10.0.0.1", T0 + 5);
+
+        // When & Then: en la ventana siguiente pesan según la fracción que aún se solapa
+        // (5 * (1 - f) < 5 apenas empieza la ventana, 5 * (1 - f) < 4 a partir del 20%)
+        LoginThrottle.Attempt attempt = loginThrottle.begin("other", "10.0.0.1", T0 + WINDOW + 1_000);
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.begin("other2", "10.0.0.1", T0 + WINDOW + 1_000));
+        assertEquals(12, exception.getRetryAfterSeconds());
+        attempt.cancel(T0 + WINDOW + 1_000);
+        assertDoesNotThrow(() -> loginThrottle.begin("other2", "10.0.0.1", T0 + WINDOW + 1_000));
+        assertDoesNotThrow(() -> loginThrottle.begin("other3", "10.0.0.1", T0 + 2 * WINDOW + 1));
+    }
+
+    @Test
+    void succeeded_ClearsUsernameAndRefundsOnlyThisAttemptOfAddress() {
+        // Given
+        for (int i = 0; i < 2; i++) {
+            loginThrottle.begin("testuser", "10.0.0.1", T0 + i);
+        }
+        for (int i = 0; i < 2; i++) {
+            loginThrottle.begin("user" + i, "10.0.0.1", T0 + i);
+        }
+
+        // When
+        loginThrottle.begin("testuser", "10.0.0.1", T0 + 5).succeeded(T0 + 5);
+
+        // Then: el usuario queda limpio; la dirección conserva sus 4 fallos
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.begin("testuser", "10.0.0." + (10 + i), T0 + 10);
+        }
+        loginThrottle.begin("another", "10.0.0.1", T0 + 10);
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottle.begin("another2", "10.0.0.1", T0 + 10));
+    }
+}
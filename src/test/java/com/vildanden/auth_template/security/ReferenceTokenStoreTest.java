@@ -0,0 +1,109 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReferenceTokenStore
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class ReferenceTokenStoreTest {
+
+    private JwtProperties jwtProperties;
+    private ReferenceTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setTokenFormat(JwtProperties.TokenFormat.REFERENCE);
+        jwtProperties.getReferenceTokens().setCapacity(64);
+        store = new ReferenceTokenStore(jwtProperties);
+    }
+
+    @Test
+    void issue_ThenResolve_ReturnsSession() {
+        // Given
+        long now = System.currentTimeMillis();
+
+        // When
+        String token = store.issue(VerifiedToken.TYPE_ACCESS, "josé", 42L, 3, now, now + 60_000);
+        VerifiedToken resolved = store.resolve(token, now);
+
+        // Then
+        assertTrue(token.startsWith(ReferenceTokenStore.TOKEN_PREFIX));
+        assertEquals(46, token.length());
+        assertNotNull(resolved);
+        assertEquals("josé", resolved.subject());
+        assertTrue(resolved.isAccessToken());
+        assertEquals(42L, resolved.longClaim(VerifiedToken.CLAIM_USER_ID));
+        assertEquals(3, resolved.tokenVersion());
+        assertEquals(now + 60_000, resolved.expiresAt().toEpochMilli());
+        assertNull(store.resolve(ReferenceTokenStore.TOKEN_PREFIX + "unknown", now));
+    }
+
+    @Test
+    void resolve_ExpiredOrRemoved_ReturnsNull() {
+        // Given
+        long now = System.currentTimeMillis();
+        String expiring = store.issue(VerifiedToken.TYPE_ACCESS, "testuser", null, null, now, now + 1_000);
+        String removed = store.issue(VerifiedToken.TYPE_ACCESS, "testuser", null, null, now, now + 60_000);
+
+        // When
+        boolean wasRemoved = store.remove(removed);
+
+        // Then
+        assertTrue(wasRemoved);
+        assertNull(store.resolve(removed, now));
+        assertNotNull(store.resolve(expiring, now));
+        assertNull(store.resolve(expiring, now + 1_000));
+        assertFalse(store.remove(removed));
+    }
+
+    @Test
+    void issue_FullSegment_CompactsExpiredSessions() {
+        // Given: 48 huecos utilizables (factor de carga 0.75 sobre 64)
+        long now = System.currentTimeMillis();
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            store.issue(VerifiedToken.TYPE_ACCESS, "expired" + i, null, null, now - 2_000, now - 1_000);
+        }
+        for (int i = 0; i < 8; i++) {
+            live.add(store.issue(VerifiedToken.TYPE_ACCESS, "live" + i, null, null, now, now + 60_000));
+        }
+
+        // When
+        List<String> issued = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            issued.add(store.issue(VerifiedToken.TYPE_ACCESS, "new" + i, null, null, now, now + 60_000));
+        }
+
+        // Then
+        assertTrue(issued.stream().allMatch(token -> token != null && store.resolve(token, now) != null));
+        for (int i = 0; i < live.size(); i++) {
+            assertEquals("live" + i, store.resolve(live.get(i), now).subject());
+        }
+        assertTrue(store.stats().compactions() >= 1);
+        assertTrue(store.stats().occupiedSlots() <= 48);
+    }
+
+    @Test
+    void issue_DisabledOrSubjectTooLong_ReturnsNull() {
+        // Given
+        ReferenceTokenStore disabled = new ReferenceTokenStore(new JwtProperties());
+        long now = System.currentTimeMillis();
+
+        // When & Then
+        assertNull(disabled.issue(VerifiedToken.TYPE_ACCESS, "testuser", null, null, now, now + 60_000));
+        assertFalse(disabled.stats().enabled());
+        assertNull(store.issue(VerifiedToken.TYPE_ACCESS, "x".repeat(ReferenceTokenStore.MAX_SUBJECT_BYTES + 1),
+                null, null, now, now + 60_000));
+    }
+}
@@ -0,0 +1,96 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TokenRevocationList
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class TokenRevocationListTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JwtProperties jwtProperties;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.getRevocation().setExpectedRevocations(1000);
+        jwtProperties.getRevocation().setSnapshotFile(tempDir.resolve("revoked.bin").toString());
+    }
+
+    @Test
+    void isRevoked_NonRevokedIds_RejectedByBloomFilter() {
+        // Given
+        TokenRevocationList revocationList = new TokenRevocationList(jwtProperties);
+        revocationList.revoke("revoked-id", Instant.now().plusSeconds(60));
+
+        // When
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(revocationList.isRevoked("active-" + i));
+        }
+        long falsePositives = revocationList.stats().exactLookups();
+
+        // Then
+        assertTrue(revocationList.isRevoked("revoked-id"));
+        assertTrue(falsePositives < 50, "Demasiados falsos positivos: " + falsePositives);
+    }
+
+    @Test
+    void maintain_ExpiredIds_ArePurged() {
+        // Given
+        TokenRevocationList revocationList = new TokenRevocationList(jwtProperties);
+        revocationList.revoke("short-lived", Instant.now().plusMillis(1100));
+        revocationList.revoke("long-lived", Instant.now().plusSeconds(3600));
+
+        // When
+        sleep(2100);
+        revocationList.maintain();
+
+        // Then
+        assertFalse(revocationList.isRevoked("short-lived"));
+        assertTrue(revocationList.isRevoked("long-lived"));
+        assertEquals(1, revocationList.stats().revokedTokens());
+    }
+
+    @Test
+    void loadSnapshot_RestartedNode_RecoversRevokedIds() {
+        // Given
+        TokenRevocationList revocationList = new TokenRevocationList(jwtProperties);
+        for (int i = 0; i < 500; i++) {
+            revocationList.revoke("jti-" + i, Instant.now().plusSeconds(3600));
+        }
+        revocationList.maintain();
+        assertTrue(Files.exists(tempDir.resolve("revoked.bin")));
+
+        // When
+        TokenRevocationList restarted = new TokenRevocationList(jwtProperties);
+        restarted.loadSnapshot();
+
+        // Then
+        assertEquals(500, restarted.stats().revokedTokens());
+        assertTrue(restarted.isRevoked("jti-0"));
+        assertTrue(restarted.isRevoked("jti-499"));
+        assertFalse(restarted.isRevoked("jti-500"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.vildanden.auth_template.security;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TokenVersionRegistry
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class TokenVersionRegistryTest {
+
+    private static final long REFRESH = 30_000;
+
+    private UserRepository userRepository;
+    private TokenVersionRegistry tokenVersions;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setTokenVersionRefreshInterval(REFRESH);
+        userRepository = mock(UserRepository.class);
+        tokenVersions = new TokenVersionRegistry(userRepository, jwtProperties);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void currentVersion_AfterRefreshInterval_ReloadsChangesFromOtherNodes() {
+        // Given
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(1));
+        assertEquals(1, tokenVersions.currentVersion(42L, now));
+
+        // When: otro nodo incrementa la versión
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(2));
+
+        // Then: dentro del intervalo se usa la versión en memoria; pasado, se relee
+        assertEquals(1, tokenVersions.currentVersion(42L, now + REFRESH - 1_000));
+        assertEquals(2, tokenVersions.currentVersion(42L, now + REFRESH));
+        verify(userRepository, times(2)).findTokenVersionById(42L);
+    }
+
+    @Test
+    void currentVersion_UserDeletedOnOtherNode_RejectedAfterRefresh() {
+        // Given
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.of(1));
+        tokenVersions.currentVersion(42L, now);
+
+        // When
+        when(userRepository.findTokenVersionById(42L)).thenReturn(Optional.empty());
+
+        // Then: la marca de eliminado ya no vuelve a consultar
+        assertEquals(Integer.MAX_VALUE, tokenVersions.currentVersion(42L, now + REFRESH));
+        assertEquals(Integer.MAX_VALUE, tokenVersions.currentVersion(42L, now + 2 * REFRESH));
+        verify(userRepository, times(2)).findTokenVersionById(42L);
+    }
+
+    @Test
+    void advance_LocalChange_ServedWithoutQuery() {
+        // When
+        tokenVersions.advance(42L, 3);
+
+        // Then
+        assertEquals(3, tokenVersions.currentVersion(42L, System.currentTimeMillis()));
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -1,31 +1,45 @@
 package com.vildanden.auth_template.service;
 
 import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.dto.auth.ChangePasswordRequestDTO;
 import com.vildanden.auth_template.dto.auth.LoginRequestDTO;
 import com.vildanden.auth_template.dto.auth.LoginResponseDTO;
+import com.vildanden.auth_template.dto.auth.RefreshTokenRequestDTO;
 import com.vildanden.auth_template.dto.auth.RegisterRequestDTO;
 import com.vildanden.auth_template.dto.auth.RegisterResponseDTO;
+import com.vildanden.auth_template.dto.auth.TokenIntrospectionDTO;
+import com.vildanden.auth_template.dto.auth.UserSummaryDTO;
 import com.vildanden.auth_template.entity.Role;
 import com.vildanden.auth_template.entity.RoleName;
 import com.vildanden.auth_template.entity.User;
-import com.vildanden.auth_template.repository.RoleRepository;
 import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.exception.LoginThrottledException;
+import com.vildanden.auth_template.exception.PasswordHashingBusyException;
 import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.LoginThrottle;
+import com.vildanden.auth_template.security.PrincipalCache;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.UserPrincipal;
+import com.vildanden.auth_template.security.VerifiedToken;
 import com.vildanden.auth_template.util.mapper.MapperDTO;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.BadCredentialsException;
 
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -39,17 +53,19 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
 
+    private static final String CLIENT_ADDRESS = "203.0.113.7";
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleResolver roleResolver;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private PasswordHashingService passwordHashing;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingCompletionExecutor completionExecutor;
 
     @Mock
     private JwtService jwtService;
@@ -60,6 +76,24 @@ class AuthServiceTest {
     @Mock
     private JwtProperties jwtProperties;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
+
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private LoginThrottle.Attempt loginAttempt;
+
+    @Mock
+    private RevokedTokenService revokedTokenService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -68,6 +102,13 @@ class AuthServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Las continuaciones corren en el hilo del test
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(completionExecutor).execute(any(Runnable.class));
+        lenient().when(loginThrottle.begin(anyString(), anyString())).thenReturn(loginAttempt);
+
         userRole = Role.builder()
                 .name("USER")
                 .description("Usuario estándar")
@@ -93,23 +134,17 @@ class AuthServiceTest {
     void login_SuccessfulAuthentication_ReturnsLoginResponse() {
         // Given
         LoginRequestDTO loginRequest = new LoginRequestDTO("testuser", "password123");
-        Authentication authentication = mock(Authentication.class);
-        org.springframework.security.core.userdetails.User userDetails =
-                new org.springframework.security.core.userdetails.User(
-                        "testuser", "password", java.util.Collections.emptyList());
-
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
+
         when(userRepository.findByUsernameOrEmail("testuser", "testuser"))
                 .thenReturn(Optional.of(testUser));
-        when(jwtService.generateAccessToken(userDetails)).thenReturn("access-token");
-        when(jwtService.generateRefreshToken(userDetails)).thenReturn("refresh-token");
+        when(passwordHashing.verify("password123", "encodedPassword")).thenReturn(completedFuture(PasswordVerification.accepted()));
+        when(jwtService.generateAccessToken(any(UserPrincipal.class))).thenReturn("access-token");
+        when(refreshTokenService.issue(eq(testUser), any(UserPrincipal.class))).thenReturn("refresh-token");
         when(jwtProperties.getExpirationInSeconds()).thenReturn(3600L);
         when(mapperDTO.toUserSummaryDTO(testUser)).thenReturn(null); // Simplificado para test
 
         // When
-        LoginResponseDTO result = authService.login(loginRequest);
+        LoginResponseDTO result = authService.login(loginRequest, CLIENT_ADDRESS).join();
 
         // Then
         assertNotNull(result);
@@ -118,32 +153,127 @@ class AuthServiceTest {
         assertEquals("Bearer", result.tokenType());
         assertEquals(3600L, result.expiresIn());
 
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository).findByUsernameOrEmail("testuser", "testuser");
-        verify(jwtService).generateAccessToken(userDetails);
-        verify(jwtService).generateRefreshToken(userDetails);
+        verify(jwtService).generateAccessToken(argThat(details -> "testuser".equals(details.getUsername())));
+        verify(refreshTokenService).issue(eq(testUser), any(UserPrincipal.class));
+        verify(principalCache).put(any(UserPrincipal.class));
+        verify(loginAttempt).bindAccount(1L);
+        verify(loginAttempt).succeeded();
         verify(jwtProperties).getExpirationInSeconds();
     }
 
     @Test
-    void login_UserNotFoundAfterAuthentication_ThrowsException() {
+    void login_SuccessfulAuthentication_LoadsUserWithSingleQuery() {
+        // Given
+        LoginRequestDTO loginRequest = new LoginRequestDTO("test@example.com", "password123");
+
+        when(userRepository.findByUsernameOrEmail("test@example.com", "test@example.com"))
+                .thenReturn(Optional.of(testUser));
+        when(passwordHashing.verify("password123", "encodedPassword")).thenReturn(completedFuture(PasswordVerification.accepted()));
+
+        // When
+        authService.login(loginRequest, CLIENT_ADDRESS).join();
+
+        // Then
+        verify(userRepository, times(1)).findByUsernameOrEmail("test@example.com", "test@example.com");
+        verifyNoMoreInteractions(userRepository);
+        verify(mapperDTO).toUserSummaryDTO(testUser);
+    }
+
+    @Test
+    void login_OutdatedHash_UpgradesStoredPassword() {
         // Given
         LoginRequestDTO loginRequest = new LoginRequestDTO("testuser", "password123");
-        Authentication authentication = mock(Authentication.class);
-        org.springframework.security.core.userdetails.User userDetails =
-                new org.springframework.security.core.userdetails.User(
-                        "testuser", "password", java.util.Collections.emptyList());
-
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(userDetails);
+
         when(userRepository.findByUsernameOrEmail("testuser", "testuser"))
-                .thenReturn(Optional.empty());
+                .thenReturn(Optional.of(testUser));
+        when(passwordHashing.verify("password123", "encodedPassword"))
+                .thenReturn(completedFuture(new PasswordVerification(true, "{bcrypt}upgradedPassword")));
+        when(userRepository.upgradePassword(1L, "encodedPassword", "{bcrypt}upgradedPassword")).thenReturn(1);
+
+        // When
+        authService.login(loginRequest, CLIENT_ADDRESS).join();
+
+        // Then
+        verify(userRepository).upgradePassword(1L, "encodedPassword", "{bcrypt}upgradedPassword");
+        assertEquals("{bcrypt}upgradedPassword", testUser.getPassword());
+    }
+
+    @Test
+    void login_UnknownUser_VerifiesPasswordAndThrowsBadCredentials() {
+        // Given
+        LoginRequestDTO loginRequest = new LoginRequestDTO("ghost", "password123");
+
+        when(userRepository.findByUsernameOrEmail("ghost", "ghost")).thenReturn(Optional.empty());
+        when(passwordHashing.verify("password123", null)).thenReturn(completedFuture(PasswordVerification.rejected()));
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> authService.login(loginRequest));
-        assertEquals("Usuario no encontrado después de autenticación", exception.getMessage());
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.login(loginRequest, CLIENT_ADDRESS).join());
+        assertInstanceOf(BadCredentialsException.class, exception.getCause());
+        verify(passwordHashing).verify("password123", null);
+        verifyNoInteractions(jwtService, refreshTokenService);
+    }
+
+    @Test
+    void login_WrongPassword_ThrowsBadCredentials() {
+        // Given
+        LoginRequestDTO loginRequest = new LoginRequestDTO("testuser", "wrong");
+
+        when(userRepository.findByUsernameOrEmail("testuser", "testuser"))
+                .thenReturn(Optional.of(testUser));
+        when(passwordHashing.verify("wrong", "encodedPassword")).thenReturn(completedFuture(PasswordVerification.rejected()));
+
+        // When & Then
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.login(loginRequest, CLIENT_ADDRESS).join());
+        assertInstanceOf(BadCredentialsException.class, exception.getCause());
+        // La reserva del intento queda como fallo
+        verify(loginAttempt, never()).succeeded();
+        verify(loginAttempt, never()).cancel();
+        verifyNoInteractions(jwtService, refreshTokenService);
+    }
+
+    @Test
+    void login_HashingBusy_CancelsReservedAttempt() {
+        // Given
+        LoginRequestDTO loginRequest = new LoginRequestDTO("testuser", "password123");
+
+        when(userRepository.findByUsernameOrEmail("testuser", "testuser"))
+                .thenReturn(Optional.of(testUser));
+        when(passwordHashing.verify("password123", "encodedPassword")).thenThrow(new PasswordHashingBusyException(1));
+
+        // When & Then: la contraseña no llegó a verificarse, el intento no cuenta
+        assertThrows(PasswordHashingBusyException.class, () -> authService.login(loginRequest, CLIENT_ADDRESS));
+        verify(loginAttempt).cancel();
+    }
+
+    @Test
+    void login_Throttled_RejectedBeforeLookupAndHashing() {
+        // Given
+        LoginRequestDTO loginRequest = new LoginRequestDTO("testuser", "password123");
+        when(loginThrottle.begin("testuser", CLIENT_ADDRESS)).thenThrow(new LoginThrottledException(30));
+
+        // When & Then
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> authService.login(loginRequest, CLIENT_ADDRESS));
+        assertEquals(30, exception.getRetryAfterSeconds());
+        verifyNoInteractions(userRepository, passwordHashing, jwtService);
+    }
+
+    @Test
+    void login_DisabledAccount_ThrowsException() {
+        // Given
+        LoginRequestDTO loginRequest = new LoginRequestDTO("testuser", "password123");
+        testUser.setEnabled(false);
+
+        when(userRepository.findByUsernameOrEmail("testuser", "testuser"))
+                .thenReturn(Optional.of(testUser));
+        when(passwordHashing.verify("password123", "encodedPassword")).thenReturn(completedFuture(PasswordVerification.accepted()));
+
+        // When & Then
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.login(loginRequest, CLIENT_ADDRESS).join());
+        assertEquals("La cuenta de usuario no está disponible", exception.getCause().getMessage());
     }
 
     @Test
@@ -152,26 +282,26 @@ class AuthServiceTest {
         RegisterRequestDTO registerRequest = new RegisterRequestDTO(
                 "newuser", "new@example.com", "password123", "New", "User");
 
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
-        when(roleRepository.findByName(RoleName.USER.getName()))
+        when(roleResolver.findByName(RoleName.USER.getName()))
                 .thenReturn(Optional.of(userRole));
-        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(passwordHashing.encode("password123")).thenReturn(completedFuture("encodedPassword"));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
         when(mapperDTO.toUserSummaryDTO(testUser)).thenReturn(null); // Simplificado para test
 
         // When
-        RegisterResponseDTO result = authService.register(registerRequest);
+        RegisterResponseDTO result = authService.register(registerRequest).join();
 
         // Then
         assertNotNull(result);
         assertEquals("Usuario registrado exitosamente", result.message());
 
-        verify(userRepository).existsByUsername("newuser");
-        verify(userRepository).existsByEmail("new@example.com");
-        verify(roleRepository).findByName(RoleName.USER.getName());
-        verify(passwordEncoder).encode("password123");
-        verify(userRepository).save(any(User.class));
+        verify(roleResolver).findByName(RoleName.USER.getName());
+        verify(passwordHashing).encode("password123");
+        // Una única operación contra la base: la inserción
+        verify(userRepository).saveAndFlush(argThat(user ->
+                "newuser".equals(user.getUsername()) && "encodedPassword".equals(user.getPassword())
+                        && user.getRoles().contains(userRole)));
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
@@ -180,27 +310,175 @@ class AuthServiceTest {
         RegisterRequestDTO registerRequest = new RegisterRequestDTO(
                 "existinguser", "new@example.com", "password123", "New", "User");
 
-        when(userRepository.existsByUsername("existinguser")).thenReturn(true);
+        givenDuplicateKeyOnInsert("Duplicate entry 'existinguser' for key 'users.uk_users_username'");
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> authService.register(registerRequest));
-        assertEquals("El username ya está en uso: existinguser", exception.getMessage());
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.register(registerRequest).join());
+        assertEquals("El username ya está en uso: existinguser", exception.getCause().getMessage());
     }
 
     @Test
     void register_EmailAlreadyExists_ThrowsException() {
+        // Given: el valor duplicado contiene "username", sólo cuenta el nombre de la clave
+        RegisterRequestDTO registerRequest = new RegisterRequestDTO(
+                "newuser", "username@example.com", "password123", "New", "User");
+
+        givenDuplicateKeyOnInsert("Duplicate entry 'username@example.com' for key 'users.uk_users_email'");
+
+        // When & Then
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.register(registerRequest).join());
+        assertEquals("El email ya está en uso: username@example.com", exception.getCause().getMessage());
+    }
+
+    @Test
+    void register_OtherIntegrityViolation_PropagatesOriginalException() {
         // Given
         RegisterRequestDTO registerRequest = new RegisterRequestDTO(
-                "newuser", "existing@example.com", "password123", "New", "User");
+                "newuser", "new@example.com", "password123", "New", "User");
 
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        givenDuplicateKeyOnInsert("Column 'first_name' cannot be null");
+
+        // When & Then
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authService.register(registerRequest).join());
+        assertInstanceOf(DataIntegrityViolationException.class, exception.getCause());
+    }
+
+    private void givenDuplicateKeyOnInsert(String databaseMessage) {
+        when(roleResolver.findByName(RoleName.USER.getName())).thenReturn(Optional.of(userRole));
+        when(passwordHashing.encode("password123")).thenReturn(completedFuture("encodedPassword"));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLIntegrityConstraintViolationException(databaseMessage)));
+    }
+
+    @Test
+    void refreshToken_ValidToken_ReturnsRotatedRefreshToken() {
+        // Given
+        when(jwtService.verify("refresh-token")).thenReturn(refreshVerified());
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(refreshTokenService.rotate(eq("refresh-token"), any(), eq(testUser), any())).thenReturn("rotated-token");
+        when(jwtService.generateAccessToken(any())).thenReturn("access-token");
+
+        // When
+        LoginResponseDTO result = authService.refreshToken(new RefreshTokenRequestDTO("refresh-token"));
+
+        // Then
+        assertEquals("access-token", result.accessToken());
+        assertEquals("rotated-token", result.refreshToken());
+        verify(jwtService, times(1)).verify("refresh-token");
+    }
+
+    @Test
+    void refreshToken_AccessToken_Rejected() {
+        // Given
+        VerifiedToken accessToken = new VerifiedToken("testuser", VerifiedToken.TYPE_ACCESS,
+                Instant.now().minusSeconds(60), Instant.now().plusSeconds(3600), Map.of());
+        when(jwtService.verify("access-token")).thenReturn(accessToken);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> authService.refreshToken(new RefreshTokenRequestDTO("access-token")));
+        assertEquals("Token inválido para renovación", exception.getMessage());
+        verifyNoInteractions(userRepository, refreshTokenService);
+    }
+
+    @Test
+    void refreshToken_TokenNotRedeemable_ThrowsException() {
+        // Given
+        when(jwtService.verify("reused-token")).thenReturn(refreshVerified());
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(refreshTokenService.rotate(eq("reused-token"), any(), eq(testUser), any())).thenReturn(null);
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> authService.register(registerRequest));
-        assertEquals("El email ya está en uso: existing@example.com", exception.getMessage());
+                () -> authService.refreshToken(new RefreshTokenRequestDTO("reused-token")));
+        assertEquals("Refresh token expirado o inválido", exception.getMessage());
+        verify(jwtService, never()).generateAccessToken(any());
+    }
+
+    @Test
+    void changePassword_ValidCurrentPassword_UpdatesAndInvalidatesSessions() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHashing.matchesAndWait("password123", "encodedPassword")).thenReturn(true);
+        when(passwordHashing.matchesAndWait("newPassword123", "encodedPassword")).thenReturn(false);
+        when(passwordHashing.encodeAndWait("newPassword123")).thenReturn("newHash");
+        when(userRepository.changePassword(1L, "encodedPassword", "newHash")).thenReturn(1);
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(1));
+
+        // When
+        authService.changePassword("testuser", new ChangePasswordRequestDTO("password123", "newPassword123"));
+
+        // Then
+        verify(tokenVersions).advance(1L, 1);
+        verify(refreshTokenService).revokeAllForUser(1L);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void changePassword_PasswordChangedConcurrently_Rejected() {
+        // Given: otra petición cambió la contraseña mientras se verificaba la actual
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHashing.matchesAndWait("password123", "encodedPassword")).thenReturn(true);
+        when(passwordHashing.matchesAndWait("newPassword123", "encodedPassword")).thenReturn(false);
+        when(passwordHashing.encodeAndWait("newPassword123")).thenReturn("newHash");
+        when(userRepository.changePassword(1L, "encodedPassword", "newHash")).thenReturn(0);
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> authService.changePassword(
+                "testuser", new ChangePasswordRequestDTO("password123", "newPassword123")));
+        verify(tokenVersions, never()).advance(anyLong(), anyInt());
+        verify(refreshTokenService, never()).revokeAllForUser(anyLong());
+    }
+
+    @Test
+    void logout_WithRefreshToken_RevokesOnlyThatSession() {
+        // Given
+        VerifiedToken access = accessVerified("jti-1");
+        when(jwtService.revoke("access-token")).thenReturn(access);
+        when(refreshTokenService.revokeFamilyOf("refresh-token", 1L)).thenReturn(true);
+
+        // When
+        authService.logout("access-token", 1L, "refresh-token");
+
+        // Then: la revocación se guarda para el resto de los nodos
+        verify(revokedTokenService).record("jti-1", access.expiresAt());
+        verify(refreshTokenService).revokeFamilyOf("refresh-token", 1L);
+        verify(refreshTokenService, never()).revokeAllForUser(anyLong());
+    }
+
+    @Test
+    void logout_WithoutOrForeignRefreshToken_RevokesAllSessionsOfUser() {
+        // Given
+        when(jwtService.revoke("access-token")).thenReturn(accessVerified("jti-1"));
+        when(refreshTokenService.revokeFamilyOf("other-user-token", 1L)).thenReturn(false);
+
+        // When
+        authService.logout("access-token", 1L, null);
+        authService.logout("access-token", 1L, "other-user-token");
+
+        // Then
+        verify(jwtService, times(2)).revoke("access-token");
+        verify(refreshTokenService, times(2)).revokeAllForUser(1L);
+    }
+
+    @Test
+    void logout_TokenWithoutId_AdvancesTokenVersionOfUser() {
+        // Given
+        testUser.setTokenVersion(3);
+        when(jwtService.revoke("legacy-token")).thenReturn(accessVerified(null));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        authService.logout("legacy-token", 1L, null);
+
+        // Then: sin jti se invalidan todos los tokens del usuario en todos los nodos
+        assertEquals(4, testUser.getTokenVersion());
+        verify(userRepository).save(testUser);
+        verify(tokenVersions).advance(1L, 4);
+        verify(revokedTokenService, never()).record(any(), any());
     }
 
     @Test
@@ -230,4 +508,53 @@ class AuthServiceTest {
         assertFalse(result);
         verify(jwtService).validateToken(token);
     }
-}
\ No newline at end of file
+
+    @Test
+    void introspectToken_ValidAccessToken_ReturnsActiveWithRoles() {
+        // Given
+        Instant issuedAt = Instant.now().minusSeconds(60);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        VerifiedToken verified = new VerifiedToken("testuser", VerifiedToken.TYPE_ACCESS, issuedAt, expiresAt, Map.of());
+        UserSummaryDTO summary = new UserSummaryDTO(
+                1L, "testuser", "test@example.com", "Test", "User", "Test User", Set.of("USER"));
+
+        when(jwtService.verify("access-token")).thenReturn(verified);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(mapperDTO.toUserSummaryDTO(testUser)).thenReturn(summary);
+
+        // When
+        TokenIntrospectionDTO result = authService.introspectToken("access-token");
+
+        // Then
+        assertTrue(result.active());
+        assertEquals("testuser", result.sub());
+        assertEquals(Set.of("USER"), result.roles());
+        assertEquals(VerifiedToken.TYPE_ACCESS, result.tokenType());
+        assertEquals(expiresAt.getEpochSecond(), result.exp());
+    }
+
+    @Test
+    void introspectToken_InvalidToken_ReturnsInactive() {
+        // Given
+        when(jwtService.verify("invalid-token")).thenThrow(new MalformedJwtException("malformado"));
+
+        // When
+        TokenIntrospectionDTO result = authService.introspectToken("invalid-token");
+
+        // Then
+        assertFalse(result.active());
+        assertNull(result.sub());
+        verifyNoInteractions(userRepository);
+    }
+
+    private static VerifiedToken accessVerified(String tokenId) {
+        Map<String, Object> claims = tokenId != null ? Map.of(VerifiedToken.CLAIM_TOKEN_ID, tokenId) : Map.of();
+        return new VerifiedToken("testuser", VerifiedToken.TYPE_ACCESS,
+                Instant.now().minusSeconds(60), Instant.now().plusSeconds(900), claims);
+    }
+
+    private static VerifiedToken refreshVerified() {
+        return new VerifiedToken("testuser", VerifiedToken.TYPE_REFRESH,
+                Instant.now().minusSeconds(60), Instant.now().plusSeconds(3600), Map.of());
+    }
+}
@@ -0,0 +1,167 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.exception.PasswordHashingBusyException;
+import com.vildanden.auth_template.security.FlooredBCryptPasswordEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PasswordHashingService
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class PasswordHashingServiceTest {
+
+    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashing;
+
+    @BeforeEach
+    void setUp() {
+        AuthProperties authProperties = new AuthProperties();
+        authProperties.getPasswordHashing().setPoolSize(1);
+        authProperties.getPasswordHashing().setQueueCapacity(1);
+        authProperties.getPasswordHashing().setRetryAfter(Duration.ofSeconds(3));
+
+        passwordEncoder = mock(PasswordEncoder.class);
+        passwordHashing = new PasswordHashingService(passwordEncoder, authProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashing.shutdown();
+    }
+
+    @Test
+    void verify_UnknownUser_VerifiesAgainstRandomHashAndRejects() {
+        // Given
+        when(passwordEncoder.encode(anyString())).thenReturn("randomHash");
+        when(passwordEncoder.matches("password123", "randomHash")).thenReturn(true);
+
+        // When
+        PasswordVerification verification = passwordHashing.verify("password123", null).join();
+
+        // Then
+        assertFalse(verification.matches());
+        verify(passwordEncoder).matches("password123", "randomHash");
+    }
+
+    @Test
+    void verify_LegacyHash_MatchesAndReturnsUpgradedHash() {
+        // Given: hashes BCrypt sin prefijo y de menor costo, como los anteriores al encoder delegante
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                "bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(5)));
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        PasswordHashingService service = new PasswordHashingService(delegating, new AuthProperties());
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+        String lowCostHash = "{bcrypt}" + legacyHash;
+        String currentHash = delegating.encode("password123");
+
+        try {
+            // When
+            PasswordVerification legacy = service.verify("password123", legacyHash).join();
+            PasswordVerification lowCost = service.verify("password123", lowCostHash).join();
+            PasswordVerification current = service.verify("password123", currentHash).join();
+            PasswordVerification wrong = service.verify("wrong", legacyHash).join();
+
+            // Then
+            assertTrue(legacy.matches());
+            assertTrue(legacy.upgradedHash().startsWith("{bcrypt}$2a$05$"));
+            assertTrue(delegating.matches("password123", legacy.upgradedHash()));
+            assertTrue(lowCost.needsUpgrade());
+            assertTrue(current.matches());
+            assertFalse(current.needsUpgrade());
+            assertFalse(wrong.matches());
+            assertFalse(wrong.needsUpgrade());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void verify_HashFromFasterNode_NotUpgraded() {
+        // Given: este nodo calibró costo 5 y el mínimo del clúster es 5
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                "bcrypt", Map.of("bcrypt", new FlooredBCryptPasswordEncoder(5, 5)));
+        PasswordHashingService service = new PasswordHashingService(delegating, new AuthProperties());
+        String fasterNodeHash = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("password123");
+        String belowFloorHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123");
+
+        try {
+            // When
+            PasswordVerification fasterNode = service.verify("password123", fasterNodeHash).join();
+            PasswordVerification belowFloor = service.verify("password123", belowFloorHash).join();
+
+            // Then: el hash de costo 6 de un nodo más rápido se conserva; sólo se sube el de costo 4
+            assertTrue(fasterNode.matches());
+            assertFalse(fasterNode.needsUpgrade());
+            assertTrue(belowFloor.needsUpgrade());
+            assertTrue(belowFloor.upgradedHash().startsWith("{bcrypt}$2a$05$"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void verify_HashAtClusterFloor_NotUpgradedToLocalCost() {
+        // Given: este nodo calibró costo 6, pero el mínimo del clúster es 5
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                "bcrypt", Map.of("bcrypt", new FlooredBCryptPasswordEncoder(6, 5)));
+        PasswordHashingService service = new PasswordHashingService(delegating, new AuthProperties());
+        String floorHash = "{bcrypt}" + new BCryptPasswordEncoder(5).encode("password123");
+
+        try {
+            // When
+            PasswordVerification verification = service.verify("password123", floorHash).join();
+
+            // Then
+            assertTrue(verification.matches());
+            assertFalse(verification.needsUpgrade());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void encode_QueueFull_RejectsImmediatelyWithRetryAfter() throws Exception {
+        // Given: el único hilo ocupado y la cola con un hash en espera
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(eq("slow"))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "slowHash";
+        });
+        when(passwordEncoder.encode(eq("queued"))).thenReturn("queuedHash");
+
+        CompletableFuture<String> running = passwordHashing.encode("slow");
+        started.await();
+        CompletableFuture<String> queued = passwordHashing.encode("queued");
+
+        // When & Then
+        PasswordHashingBusyException exception = assertThrows(PasswordHashingBusyException.class,
+                () -> passwordHashing.encode("rejected"));
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1, passwordHashing.stats().rejectedTasks());
+
+        release.countDown();
+        assertEquals("slowHash", running.join());
+        assertEquals("queuedHash", queued.join());
+        verify(passwordEncoder, never()).encode("rejected");
+    }
+}
@@ -0,0 +1,185 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.entity.RefreshToken;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.RefreshTokenRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RefreshTokenService (rotación, reutilización y purga)
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final Instant ISSUED_AT = Instant.parse("2025-01-10T00:00:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetails userDetails;
+
+    private AuthProperties authProperties;
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        authProperties = new AuthProperties();
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, jwtService, jwtProperties, authProperties);
+
+        user = User.builder().username("testuser").build();
+        user.setId(7L);
+    }
+
+    @Test
+    void rotate_RedeemableToken_MarksUsedAndIssuesSameFamily() {
+        // Given
+        RefreshToken current = stored("old-token", false, false);
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("old-token"))).thenReturn(Optional.of(current));
+        when(jwtService.generateRefreshToken(userDetails)).thenReturn("new-token");
+
+        // When
+        String rotated = refreshTokenService.rotate("old-token", ISSUED_AT, user, userDetails);
+
+        // Then
+        assertEquals("new-token", rotated);
+        assertTrue(current.getUsed());
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(TokenDigest.hashOf("new-token"), saved.getValue().getTokenHash());
+        assertEquals("family-1", saved.getValue().getFamilyId());
+        assertTrue(saved.getValue().isNew());
+    }
+
+    @Test
+    void rotate_ReusedToken_RevokesFamily() {
+        // Given
+        RefreshToken current = stored("old-token", true, false);
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("old-token"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.revokeFamily("family-1")).thenReturn(2);
+
+        // When
+        String rotated = refreshTokenService.rotate("old-token", ISSUED_AT, user, userDetails);
+
+        // Then
+        assertNull(rotated);
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void rotate_UnknownOrRevokedToken_ReturnsNull() {
+        // Given
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("unknown"))).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("revoked")))
+                .thenReturn(Optional.of(stored("revoked", true, true)));
+
+        // When & Then
+        assertNull(refreshTokenService.rotate("unknown", ISSUED_AT, user, userDetails));
+        assertNull(refreshTokenService.rotate("revoked", ISSUED_AT, user, userDetails));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void rotate_UnregisteredTokenIssuedBeforeCutoff_AdoptedIntoNewFamily() {
+        // Given: token firmado antes del despliegue del registro, sin fila
+        authProperties.getRefreshTokens().setAdoptIssuedBefore(ISSUED_AT.plusSeconds(3600));
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("legacy-token"))).thenReturn(Optional.empty());
+        when(jwtService.generateRefreshToken(userDetails)).thenReturn("new-token");
+
+        // When
+        String rotated = refreshTokenService.rotate("legacy-token", ISSUED_AT, user, userDetails);
+
+        // Then: el token presentado queda registrado como usado en la misma familia que el nuevo
+        assertEquals("new-token", rotated);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(saved.capture());
+        RefreshToken adopted = saved.getAllValues().get(0);
+        RefreshToken issued = saved.getAllValues().get(1);
+        assertEquals(TokenDigest.hashOf("legacy-token"), adopted.getTokenHash());
+        assertTrue(adopted.getUsed());
+        assertEquals(7L, adopted.getUserId());
+        assertEquals(TokenDigest.hashOf("new-token"), issued.getTokenHash());
+        assertEquals(adopted.getFamilyId(), issued.getFamilyId());
+    }
+
+    @Test
+    void rotate_UnregisteredTokenIssuedAfterCutoff_ReturnsNull() {
+        // Given
+        authProperties.getRefreshTokens().setAdoptIssuedBefore(ISSUED_AT);
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("unregistered-token"))).thenReturn(Optional.empty());
+
+        // When & Then: emitido después del despliegue, sin fila, no se adopta
+        assertNull(refreshTokenService.rotate("unregistered-token", ISSUED_AT, user, userDetails));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void revokeFamilyOf_OwnToken_RevokesFamily() {
+        // Given
+        when(refreshTokenRepository.findForUpdate(TokenDigest.hashOf("old-token")))
+                .thenReturn(Optional.of(stored("old-token", false, false)));
+
+        // When & Then
+        assertTrue(refreshTokenService.revokeFamilyOf("old-token", 7L));
+        verify(refreshTokenRepository).revokeFamily("family-1");
+
+        // El token de otro usuario no se revoca
+        assertFalse(refreshTokenService.revokeFamilyOf("old-token", 8L));
+        verify(refreshTokenRepository, times(1)).revokeFamily(anyString());
+    }
+
+    @Test
+    void purgeExpired_DeletesInBatchesUntilPartialBatch() {
+        // Given
+        authProperties.getRefreshTokens().setPurgeBatchSize(100);
+        when(refreshTokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 37);
+
+        // When
+        refreshTokenService.purgeExpired();
+
+        // Then
+        verify(refreshTokenRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+    }
+
+    private RefreshToken stored(String token, boolean used, boolean revoked) {
+        return RefreshToken.builder()
+                .tokenHash(TokenDigest.hashOf(token))
+                .familyId("family-1")
+                .userId(user.getId())
+                .expiresAt(LocalDateTime.now().plusDays(1))
+                .used(used)
+                .revoked(revoked)
+                .newToken(false)
+                .build();
+    }
+}
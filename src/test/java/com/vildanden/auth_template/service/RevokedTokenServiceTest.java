@@ -0,0 +1,84 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.entity.RevokedToken;
+import com.vildanden.auth_template.repository.RevokedTokenRepository;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RevokedTokenService
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class RevokedTokenServiceTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationList revocationList;
+    private RevokedTokenService revokedTokenService;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getRevocation().setExpectedRevocations(1000);
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        revocationList = new TokenRevocationList(jwtProperties);
+        revokedTokenService = new RevokedTokenService(revokedTokenRepository, revocationList);
+    }
+
+    @Test
+    void record_PersistsRevocationForOtherNodes() {
+        // When
+        revokedTokenService.record("jti-1", Instant.now().plusSeconds(900));
+
+        // Then
+        assertTrue(revocationList.isRevoked("jti-1"));
+        verify(revokedTokenRepository).save(argThat(token -> "jti-1".equals(token.getTokenId())));
+    }
+
+    @Test
+    void record_AlreadyRecordedByOtherNode_Ignored() {
+        // Given
+        when(revokedTokenRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // When / Then
+        assertDoesNotThrow(() -> revokedTokenService.record("jti-1", Instant.now().plusSeconds(900)));
+        assertTrue(revocationList.isRevoked("jti-1"));
+    }
+
+    @Test
+    void synchronize_RevocationsFromOtherNodes_RejectedLocally() {
+        // Given: la primera lectura trae todas las revocaciones vigentes
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(revoked("jti-1")));
+        revokedTokenService.synchronize();
+
+        // When: otro nodo revoca un token después
+        when(revokedTokenRepository.findRevokedSince(any(), any())).thenReturn(List.of(revoked("jti-2")));
+        revokedTokenService.synchronize();
+
+        // Then
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertTrue(revocationList.isRevoked("jti-2"));
+        verify(revokedTokenRepository).findByExpiresAtAfter(any());
+        verify(revokedTokenRepository).findRevokedSince(any(), any());
+    }
+
+    private static RevokedToken revoked(String tokenId) {
+        return RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(LocalDateTime.now().plusMinutes(15))
+                .revokedAt(LocalDateTime.now())
+                .build();
+    }
+}
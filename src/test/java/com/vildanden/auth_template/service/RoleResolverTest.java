@@ -0,0 +1,101 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RoleResolver
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class RoleResolverTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @InjectMocks
+    private RoleResolver roleResolver;
+
+    @Test
+    void findByName_ConcurrentLookups_RunOneQueryPerRole() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(roleRepository.findByName(anyString())).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(Role.builder().name(invocation.getArgument(0)).build());
+        });
+
+        // When
+        Queue<Role> results = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            String name = i % 3 == 0 ? "ADMIN" : "USER";
+            threads.add(new Thread(() -> results.add(roleResolver.findByName(name).orElseThrow())));
+        }
+        threads.forEach(Thread::start);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Los hilos no llegaron a esperar la carga");
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(30, results.size());
+        assertEquals(10, results.stream().filter(role -> "ADMIN".equals(role.getName())).count());
+        verify(roleRepository, times(1)).findByName("USER");
+        verify(roleRepository, times(1)).findByName("ADMIN");
+    }
+
+    @Test
+    void findByName_SequentialLookups_QueryEachTime() {
+        // Given
+        when(roleRepository.findByName("USER")).thenReturn(Optional.empty());
+
+        // When
+        roleResolver.findByName("USER");
+        roleResolver.findByName("USER");
+
+        // Then
+        verify(roleRepository, times(2)).findByName("USER");
+    }
+
+    @Test
+    void findByName_FoundRole_ResolvedFromMemoryUntilEvicted() {
+        // Given
+        Role userRole = Role.builder().name("USER").build();
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+
+        // When
+        roleResolver.findByName("USER");
+        Optional<Role> cached = roleResolver.findByName("USER");
+        roleResolver.evict("USER");
+        roleResolver.findByName("USER");
+
+        // Then
+        assertSame(userRole, cached.orElseThrow());
+        verify(roleRepository, times(2)).findByName("USER");
+    }
+}
@@ -0,0 +1,200 @@
+package com.vildanden.auth_template.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vildanden.auth_template.config.JwtProperties;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.JwtService;
+import com.vildanden.auth_template.security.ReferenceTokenStore;
+import com.vildanden.auth_template.security.RejectedTokenCache;
+import com.vildanden.auth_template.security.TokenRevocationList;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.security.UserPrincipal;
+import com.vildanden.auth_template.security.VerifiedTokenCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para TokenBatchValidationService
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class TokenBatchValidationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JwtProperties jwtProperties;
+    private UserRepository userRepository;
+    private JwtService jwtService;
+    private TokenBatchValidationService batchValidationService;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.getBatchValidation().setChunkSize(3);
+        userRepository = mock(UserRepository.class);
+        jwtService = new JwtService(jwtProperties, new VerifiedTokenCache(jwtProperties),
+                new TokenRevocationList(jwtProperties),
+                new TokenVersionRegistry(userRepository, jwtProperties),
+                new ReferenceTokenStore(jwtProperties), new RejectedTokenCache(jwtProperties));
+        batchValidationService = new TokenBatchValidationService(jwtService, jwtProperties, objectMapper);
+        userDetails = new User("testuser", "password", List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchValidationService.shutdown();
+    }
+
+    @Test
+    void validate_JsonArray_StreamsResultsInInputOrder() throws IOException {
+        // Given
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tokens.add(i % 2 == 0 ? jwtService.generateAccessToken(userDetails) : "invalid.token." + i);
+        }
+        String body = objectMapper.writeValueAsString(tokens);
+
+        // When
+        List<JsonNode> results = validate(body);
+
+        // Then
+        assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, results.get(i).get("index").asInt());
+            assertEquals(i % 2 == 0, results.get(i).get("valid").asBoolean());
+        }
+        assertEquals("testuser", results.get(0).get("subject").asText());
+        assertEquals("access", results.get(0).get("type").asText());
+        assertTrue(results.get(0).get("expiresIn").asLong() > 0);
+    }
+
+    @Test
+    void validate_Ndjson_AcceptsStringsAndObjects() throws IOException {
+        // Given
+        String refreshToken = jwtService.generateRefreshToken(userDetails);
+        String body = "\"" + refreshToken + "\"\n{\"token\":\"" + refreshToken + "\"}\n\"\"\n";
+
+        // When
+        List<JsonNode> results = validate(body);
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals("refresh", results.get(0).get("type").asText());
+        assertTrue(results.get(1).get("valid").asBoolean());
+        assertFalse(results.get(2).get("valid").asBoolean());
+    }
+
+    @Test
+    void validate_ExceedsMaxTokens_ThrowsAfterEmittingAllowedResultsAndAbortedStatus() throws IOException {
+        // Given
+        jwtProperties.getBatchValidation().setMaxTokens(2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] body = "[\"a\",\"b\",\"c\"]".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> batchValidationService.validate(new ByteArrayInputStream(body), output));
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        JsonNode status = objectMapper.readTree(lines.get(2));
+        assertEquals("aborted", status.get("status").asText());
+        assertEquals(2, status.get("processed").asInt());
+        assertTrue(status.get("error").asText().contains("2 tokens"));
+    }
+
+    @Test
+    void validate_MalformedInput_EndsWithAbortedStatus() throws IOException {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] body = "[\"a\", nope".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThrows(IOException.class,
+                () -> batchValidationService.validate(new ByteArrayInputStream(body), output));
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        JsonNode status = objectMapper.readTree(lines.get(1));
+        assertEquals("aborted", status.get("status").asText());
+        assertEquals("Formato de lote inválido", status.get("error").asText());
+    }
+
+    @Test
+    void validate_UnexpectedErrorOnOneToken_ReportedAsInvalid() throws IOException {
+        // Given: la versión del usuario no se puede consultar
+        when(userRepository.findTokenVersionById(42L)).thenThrow(new IllegalStateException("Sin conexión"));
+        UserPrincipal principal = new UserPrincipal(
+                42L, "Test", "User", "testuser", "test@example.com", "encoded",
+                true, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_USER")), 0);
+        String body = objectMapper.writeValueAsString(List.of(
+                jwtService.generateAccessToken(principal), jwtService.generateAccessToken(userDetails)));
+
+        // When
+        List<JsonNode> results = validate(body);
+
+        // Then
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).get("valid").asBoolean());
+        assertEquals("Error validando token", results.get(0).get("error").asText());
+        assertTrue(results.get(1).get("valid").asBoolean());
+    }
+
+    @Test
+    void validate_ClientDisconnected_StopsWritingAndRethrows() throws IOException {
+        // Given
+        AtomicInteger writes = new AtomicInteger();
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writes.incrementAndGet();
+                throw new IOException("Broken pipe");
+            }
+        };
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            tokens.add("invalid.token." + i);
+        }
+        byte[] body = objectMapper.writeValueAsBytes(tokens);
+
+        // When & Then: el primer fallo de escritura corta el lote, sin drenar el resto
+        IOException exception = assertThrows(IOException.class,
+                () -> batchValidationService.validate(new ByteArrayInputStream(body), disconnected));
+        assertEquals("Broken pipe", exception.getMessage());
+        assertEquals(1, writes.get());
+    }
+
+    private List<JsonNode> validate(String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchValidationService.validate(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+
+        // La última línea es el estado del lote, no un resultado
+        JsonNode status = results.remove(results.size() - 1);
+        assertEquals("completed", status.get("status").asText());
+        assertEquals(results.size(), status.get("processed").asInt());
+        return results;
+    }
+}
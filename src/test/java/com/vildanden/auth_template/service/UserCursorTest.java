@@ -0,0 +1,72 @@
+package com.vildanden.auth_template.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para UserCursor
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class UserCursorTest {
+
+    @Test
+    void first_SortsByKeyThenIdInSameDirection() {
+        // When
+        UserCursor cursor = UserCursor.first("username", Sort.Direction.DESC);
+
+        // Then
+        assertEquals(Sort.by(Sort.Direction.DESC, "username").and(Sort.by(Sort.Direction.DESC, "id")), cursor.sort());
+        assertTrue(cursor.toScrollPosition().isInitial());
+    }
+
+    @Test
+    void encodeDecode_RoundTripsPositionAndSort() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 10, 30, 15);
+        UserCursor cursor = UserCursor.first("createdAt", Sort.Direction.ASC)
+                .after(ScrollPosition.forward(Map.of("createdAt", createdAt, "id", 42L)));
+
+        // When
+        String encoded = cursor.encode();
+        UserCursor decoded = UserCursor.decode(encoded);
+
+        // Then
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor.sort(), decoded.sort());
+        KeysetScrollPosition position = (KeysetScrollPosition) decoded.toScrollPosition();
+        assertEquals(Map.of("createdAt", createdAt, "id", 42L), position.getKeys());
+    }
+
+    @Test
+    void encodeDecode_ValueWithSeparator_IsPreserved() {
+        // Given
+        UserCursor cursor = UserCursor.first("username", Sort.Direction.ASC)
+                .after(ScrollPosition.forward(Map.of("username", "a|b|c", "id", 7L)));
+
+        // When
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals("a|b|c", ((KeysetScrollPosition) decoded.toScrollPosition()).getKeys().get("username"));
+    }
+
+    @Test
+    void first_UnindexedSortKey_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.first("firstName", Sort.Direction.ASC));
+    }
+
+    @Test
+    void decode_TamperedCursor_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode("Zmlyc3ROYW1lfEFTQ3wxfHg"));
+    }
+}
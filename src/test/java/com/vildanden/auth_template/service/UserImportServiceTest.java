@@ -0,0 +1,231 @@
+package com.vildanden.auth_template.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vildanden.auth_template.config.AuthProperties;
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.RoleRepository;
+import com.vildanden.auth_template.repository.UserBatchInsertRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para UserImportService
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class UserImportServiceTest {
+
+    private static final String CSV_HEADER = "username,email,password,first_name,last_name,roles\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserBatchInsertRepository userBatchInsertRepository;
+    private AuthProperties authProperties;
+    private UserImportService userImportService;
+    private List<List<User>> insertedBatches;
+    private Role userRole;
+    private Role adminRole;
+
+    @BeforeEach
+    void setUp() {
+        userRole = Role.builder().name("USER").build();
+        userRole.setId(2L);
+        adminRole = Role.builder().name("ADMIN").build();
+        adminRole.setId(1L);
+
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(adminRole, userRole));
+
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> "{bcrypt}" + invocation.getArgument(0));
+
+        insertedBatches = new ArrayList<>();
+        userBatchInsertRepository = mock(UserBatchInsertRepository.class);
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.stream().anyMatch(user -> user.getUsername().equals("taken"))) {
+                throw new DataIntegrityViolationException("could not execute statement",
+                        new SQLIntegrityConstraintViolationException(
+                                "Duplicate entry 'taken' for key 'users.uk_users_username'"));
+            }
+            insertedBatches.add(List.copyOf(users));
+            return null;
+        }).when(userBatchInsertRepository).insertAll(anyList());
+
+        authProperties = new AuthProperties();
+        authProperties.getUserImport().setChunkSize(2);
+        authProperties.getUserImport().setHashParallelism(2);
+
+        userImportService = new UserImportService(userBatchInsertRepository, roleRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, authProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userImportService.shutdown();
+    }
+
+    @Test
+    void importCsv_ValidRows_InsertsInChunksAndReportsProgress() throws IOException {
+        // Given
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 1; i <= 5; i++) {
+            csv.append("user").append(i).append(",user").append(i).append("@example.com,password").append(i)
+                    .append(",Nombre,\"Apellido, ").append(i).append("\",\n");
+        }
+
+        // When
+        List<JsonNode> events = importCsv(csv.toString());
+
+        // Then
+        assertEquals(3, insertedBatches.size());
+        assertEquals(List.of(2, 2, 1), insertedBatches.stream().map(List::size).toList());
+
+        User first = insertedBatches.get(0).get(0);
+        assertEquals("user1", first.getUsername());
+        assertEquals("{bcrypt}password1", first.getPassword());
+        assertEquals("Apellido, 1", first.getLastName());
+        assertEquals(List.of(userRole), List.copyOf(first.getRoles()));
+
+        assertEquals(List.of("progress", "progress", "progress", "completed"),
+                events.stream().map(event -> event.get("type").asText()).toList());
+        JsonNode summary = events.get(3);
+        assertEquals(5, summary.get("processed").asInt());
+        assertEquals(5, summary.get("imported").asInt());
+        assertEquals(0, summary.get("failed").asInt());
+    }
+
+    @Test
+    void importCsv_InvalidRowsAndUnknownRole_ReportedPerRowWithoutStoppingTheImport() throws IOException {
+        // Given
+        String csv = CSV_HEADER
+                + "admin2,admin2@example.com,password1,Ana,Admin,ADMIN|USER\n"
+                + "x,not-an-email,password2,Bea,Bad,\n"
+                + "ghost,ghost@example.com,password3,Gus,Ghost,GHOST\n";
+
+        // When
+        List<JsonNode> events = importCsv(csv);
+
+        // Then
+        assertEquals(1, insertedBatches.stream().mapToInt(List::size).sum());
+        assertTrue(insertedBatches.get(0).get(0).getRoles().containsAll(List.of(adminRole, userRole)));
+
+        JsonNode invalid = events.get(0);
+        assertEquals("error", invalid.get("type").asText());
+        assertEquals(2, invalid.get("row").asInt());
+        assertTrue(invalid.get("error").asText().contains("El email debe tener un formato válido"));
+        assertTrue(invalid.get("error").asText().contains("El username debe tener entre 3 y 50 caracteres"));
+
+        JsonNode unknownRole = events.stream()
+                .filter(event -> event.has("row") && event.get("row").asInt() == 3)
+                .findFirst().orElseThrow();
+        assertEquals("Rol no encontrado: GHOST", unknownRole.get("error").asText());
+
+        JsonNode summary = events.get(events.size() - 1);
+        assertEquals("completed", summary.get("type").asText());
+        assertEquals(1, summary.get("imported").asInt());
+        assertEquals(2, summary.get("failed").asInt());
+    }
+
+    @Test
+    void importNdjson_DuplicateInChunk_RetriesRowByRowAndReportsConflict() throws IOException {
+        // Given
+        String ndjson = """
+                {"username":"fresh","email":"fresh@example.com","password":"password1","firstName":"F","lastName":"R"}
+                {"username":"taken","email":"taken@example.com","password":"password2","firstName":"T","lastName":"K"}
+                """;
+
+        // When
+        List<JsonNode> events = importNdjson(ndjson);
+
+        // Then
+        // Lote completo rechazado, luego una inserción por fila
+        verify(userBatchInsertRepository, times(3)).insertAll(anyList());
+        assertEquals(1, insertedBatches.size());
+        assertEquals("fresh", insertedBatches.get(0).get(0).getUsername());
+
+        JsonNode conflict = events.get(0);
+        assertEquals("error", conflict.get("type").asText());
+        assertEquals(2, conflict.get("row").asInt());
+        assertEquals("El username ya está en uso: taken", conflict.get("error").asText());
+
+        JsonNode summary = events.get(events.size() - 1);
+        assertEquals(1, summary.get("imported").asInt());
+        assertEquals(1, summary.get("failed").asInt());
+    }
+
+    @Test
+    void importNdjson_OverMaxRows_ImportsReadRowsAndAborts() throws IOException {
+        // Given
+        authProperties.getUserImport().setMaxRows(3);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append(objectMapper.writeValueAsString(new UserImportRow(
+                    "user" + i, "user" + i + "@example.com", "password" + i, "N", "A"))).append('\n');
+        }
+
+        // When
+        List<JsonNode> events = importNdjson(ndjson.toString());
+
+        // Then
+        assertEquals(3, insertedBatches.stream().mapToInt(List::size).sum());
+        JsonNode summary = events.get(events.size() - 1);
+        assertEquals("aborted", summary.get("type").asText());
+        assertEquals(3, summary.get("imported").asInt());
+        assertTrue(summary.get("error").asText().contains("máximo de 3 filas"));
+    }
+
+    @Test
+    void importCsv_MissingRequiredColumn_AbortsWithoutInserting() throws IOException {
+        // When
+        List<JsonNode> events = importCsv("username,email,password\nuser1,user1@example.com,password1\n");
+
+        // Then
+        verifyNoInteractions(userBatchInsertRepository);
+        assertEquals(1, events.size());
+        assertEquals("aborted", events.get(0).get("type").asText());
+        assertEquals("Encabezado CSV inválido: falta la columna firstName", events.get(0).get("error").asText());
+    }
+
+    private List<JsonNode> importCsv(String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userImportService.importCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+        return readEvents(output);
+    }
+
+    private List<JsonNode> importNdjson(String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+        return readEvents(output);
+    }
+
+    private List<JsonNode> readEvents(ByteArrayOutputStream output) throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private record UserImportRow(String username, String email, String password, String firstName, String lastName) {}
+}
@@ -0,0 +1,185 @@
+package com.vildanden.auth_template.service;
+
+import com.vildanden.auth_template.dto.common.CursorPageResponseDTO;
+import com.vildanden.auth_template.dto.user.UserResponseDTO;
+import com.vildanden.auth_template.dto.user.UserRolesUpdateRequestDTO;
+import com.vildanden.auth_template.dto.user.UserUpdateRequestDTO;
+import com.vildanden.auth_template.entity.Role;
+import com.vildanden.auth_template.entity.User;
+import com.vildanden.auth_template.repository.UserRepository;
+import com.vildanden.auth_template.security.PrincipalCache;
+import com.vildanden.auth_template.security.TokenVersionRegistry;
+import com.vildanden.auth_template.util.mapper.MapperDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para UserService
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class UserServiceTest {
+
+    private UserRepository userRepository;
+    private RoleResolver roleResolver;
+    private TokenVersionRegistry tokenVersions;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        roleResolver = mock(RoleResolver.class);
+        tokenVersions = mock(TokenVersionRegistry.class);
+        userService = new UserService(userRepository, null, new MapperDTO(), mock(PrincipalCache.class),
+                roleResolver, tokenVersions);
+    }
+
+    @Test
+    void updateUserRoles_AdvancesTokenVersion() {
+        // Given
+        User user = user(7L, "alice");
+        Role admin = Role.builder().name("ADMIN").description("Administrador").build();
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(roleResolver.findByName("ADMIN")).thenReturn(Optional.of(admin));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // When
+        userService.updateUserRoles(7L, new UserRolesUpdateRequestDTO(Set.of("ADMIN")));
+
+        // Then: los tokens con los roles anteriores dejan de ser válidos
+        assertEquals(1, user.getTokenVersion());
+        verify(tokenVersions).advance(7L, 1);
+    }
+
+    @Test
+    void updateUser_ProfileChanged_AdvancesTokenVersion() {
+        // Given
+        User user = user(7L, "alice");
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // When
+        userService.updateUser(7L, new UserUpdateRequestDTO("alice@example.com", "Alice", "User"));
+
+        // Then: los tokens autocontenidos con el nombre anterior dejan de ser válidos
+        assertEquals(1, user.getTokenVersion());
+        verify(tokenVersions).advance(7L, 1);
+    }
+
+    @Test
+    void updateUser_SameValues_KeepsTokenVersion() {
+        // Given
+        User user = user(7L, "alice");
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // When
+        userService.updateUser(7L, new UserUpdateRequestDTO("alice@example.com", "Test", "User"));
+
+        // Then
+        assertEquals(0, user.getTokenVersion());
+        verify(tokenVersions, never()).advance(any(), anyInt());
+    }
+
+    @Test
+    void deleteUser_RemovesUserFromTokenVersions() {
+        // Given
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(7L, "alice")));
+
+        // When
+        userService.deleteUser(7L);
+
+        // Then
+        verify(userRepository).deleteById(7L);
+        verify(tokenVersions).remove(7L);
+    }
+
+    @Test
+    void getUsersByCursor_FirstPage_SeeksWithoutCountAndReturnsNextCursor() {
+        // Given
+        List<User> users = List.of(user(1L, "alice"), user(2L, "bob"));
+        when(userRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(window(users, true));
+
+        // When
+        CursorPageResponseDTO<UserResponseDTO> page =
+                userService.getUsersByCursor(null, 2, "username", "ASC", false);
+
+        // Then
+        assertEquals(List.of("alice", "bob"), page.content().stream().map(UserResponseDTO::username).toList());
+        assertTrue(page.hasNext());
+        assertNull(page.totalElements());
+        verify(userRepository).findAllBy(ScrollPosition.keyset(),
+                Sort.by("username").and(Sort.by("id")), Limit.of(2));
+        verify(userRepository, never()).count();
+
+        // La página siguiente continúa después del último usuario, con el mismo orden
+        when(userRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(window(List.of(user(3L, "carol")), false));
+        CursorPageResponseDTO<UserResponseDTO> next =
+                userService.getUsersByCursor(page.nextCursor(), 2, "id", "DESC", false);
+
+        verify(userRepository).findAllBy(
+                eq(ScrollPosition.forward(Map.of("username", "bob", "id", 2L))),
+                eq(Sort.by("username").and(Sort.by("id"))),
+                eq(Limit.of(2)));
+        assertFalse(next.hasNext());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void getUsersByCursor_IncludeTotal_CountsUsers() {
+        // Given
+        when(userRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenReturn(window(List.of(), false));
+        when(userRepository.count()).thenReturn(0L);
+
+        // When
+        CursorPageResponseDTO<UserResponseDTO> page = userService.getUsersByCursor("", 10, "id", "ASC", true);
+
+        // Then
+        assertEquals(0L, page.totalElements());
+        assertTrue(page.content().isEmpty());
+    }
+
+    @Test
+    void getUsersByCursor_SizeOutOfRange_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsersByCursor(null, 0, "id", "ASC", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsersByCursor(null, 101, "id", "ASC", false));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static Window<User> window(List<User> users, boolean hasNext) {
+        return Window.from(users, index -> ScrollPosition.forward(
+                Map.of("username", users.get(index).getUsername(), "id", users.get(index).getId())), hasNext);
+    }
+
+    private static User user(Long id, String username) {
+        User user = User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .firstName("Test")
+                .lastName("User")
+                .build();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,206 @@
+package com.vildanden.auth_template.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para PasswordRehashJob
+ *
+ * @author Guido Alfredo Albarracín
+ * @version 1.0.0
+ */
+class PasswordRehashJobTest {
+
+    private static final Pattern SQL_UPDATE =
+            Pattern.compile("UPDATE users SET password = '([^']+)' WHERE username = '(.+)';");
+
+    private final PasswordEncoder encoder = PasswordRehashJob.bcryptEncoder(4);
+    private final PrintStream progress = new PrintStream(OutputStream.nullOutputStream());
+
+    @TempDir
+    Path dir;
+
+    private Path input;
+    private Path output;
+
+    @BeforeEach
+    void setUp() {
+        input = dir.resolve("export.csv");
+        output = dir.resolve("rehash.out");
+    }
+
+    @Test
+    void run_Sql_WritesOneTransactionPerChunkAndEscapesUsernames() throws IOException {
+        // Given
+        Files.writeString(input, """
+                id,username,password
+                1,alice,secret-1
+                2,o'brien,secret-2
+                3,"back\\slash",secret-3
+                """);
+
+        // When
+        PasswordRehashJob.Result result = job("--format=sql", "--chunk-size=2", "--plaintext").run();
+
+        // Then
+        assertEquals(3, result.rows());
+        assertEquals(3, result.hashed());
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(2, lines.stream().filter("START TRANSACTION;"::equals).count());
+        assertEquals(2, lines.stream().filter("COMMIT;"::equals).count());
+
+        List<Matcher> updates = lines.stream()
+                .map(SQL_UPDATE::matcher)
+                .filter(Matcher::matches)
+                .toList();
+        assertEquals(List.of("alice", "o''brien", "back\\\\slash"), updates.stream().map(m -> m.group(2)).toList());
+        assertTrue(updates.get(0).group(1).startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("secret-2", updates.get(1).group(1)));
+        assertFalse(Files.exists(dir.resolve("rehash.out.checkpoint")));
+    }
+
+    @Test
+    void run_Csv_KeepsExistingBcryptHashesAndSkipsEmptyRows() throws IOException {
+        // Given
+        String existing = "$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HHWuWWdUL6SupkmqQF2l.";
+        Files.writeString(input, "username,password\n"
+                + "admin," + existing + "\n"
+                + "nopassword,\n"
+                + "\"doe, john\",plain-text\n");
+
+        // When
+        PasswordRehashJob.Result result = job("--format=csv", "--plaintext").run();
+
+        // Then
+        assertEquals(3, result.rows());
+        assertEquals(1, result.hashed());
+        assertEquals(1, result.kept());
+        assertEquals(1, result.skipped());
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals("username,password", lines.get(0));
+        assertEquals("admin,{bcrypt}" + existing, lines.get(1));
+        assertTrue(lines.get(2).startsWith("\"doe, john\",{bcrypt}"));
+        List<String> values = CsvLineParser.parse(lines.get(2));
+        assertTrue(encoder.matches("plain-text", values.get(1)));
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    void run_LegacyDigests_SkippedInsteadOfHashedAsPlaintext() throws IOException {
+        // Given
+        Files.writeString(input, """
+                username,password
+                md5,5f4dcc3b5aa765d61d8327deb882cf99
+                sha256,{sha256}5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8
+                sha1b64,W6ph5Mm5Pz8GgiULbPgzG37mj9g=
+                crypt,$6$salt$IxDD3jeSOb5eB1CX5LBsqZFVkJdido3OUILO5Ifz5iwMuTS4XMS130MTSuDDl3aCI6WouIL9AjRbLCelDCy.g.
+                noop,{noop}secret-1
+                plain,secret-2
+                """);
+
+        // When: sin --plaintext sólo se hashea el valor declarado {noop}
+        PasswordRehashJob.Result strict = job("--format=csv").run();
+
+        // Then
+        assertEquals(6, strict.rows());
+        assertEquals(1, strict.hashed());
+        assertEquals(5, strict.skipped());
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(2, lines.size());
+        assertTrue(encoder.matches("secret-1", CsvLineParser.parse(lines.get(1)).get(1)));
+
+        // When: con --plaintext los digests se siguen omitiendo
+        PasswordRehashJob.Result plaintext = job("--format=csv", "--plaintext").run();
+
+        // Then
+        assertEquals(2, plaintext.hashed());
+        assertEquals(4, plaintext.skipped());
+        List<String> plaintextLines = Files.readAllLines(output);
+        assertEquals(List.of("noop", "plain"),
+                plaintextLines.stream().skip(1).map(line -> CsvLineParser.parse(line).get(0)).toList());
+    }
+
+    @Test
+    void run_Interrupted_ResumesFromCheckpointWithoutDuplicates() throws IOException {
+        // Given
+        StringBuilder export = new StringBuilder("username,password\n");
+        for (int i = 1; i <= 6; i++) {
+            export.append("user").append(i).append(",secret-").append(i).append('\n');
+        }
+        Files.writeString(input, export);
+
+        PasswordEncoder failing = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("secret-4".contentEquals(rawPassword)) {
+                    throw new IllegalStateException("Corte simulado");
+                }
+                return encoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+        };
+
+        // When: el segundo bloque falla y además queda una escritura parcial tras el checkpoint
+        String[] args = {"--input=" + input, "--output=" + output, "--format=sql", "--chunk-size=2", "--threads=2",
+                "--plaintext"};
+        assertThrows(RuntimeException.class,
+                () -> new PasswordRehashJob(PasswordRehashJob.Options.parse(args), failing, progress).run());
+        assertTrue(Files.exists(dir.resolve("rehash.out.checkpoint")));
+        Files.writeString(output, "UPDATE users SET password = 'parcial", StandardOpenOption.APPEND);
+
+        PasswordRehashJob.Result result =
+                new PasswordRehashJob(PasswordRehashJob.Options.parse(args), encoder, progress).run();
+
+        // Then
+        assertEquals(6, result.rows());
+        assertEquals(4, result.hashed());
+
+        String sql = Files.readString(output, StandardCharsets.UTF_8);
+        assertFalse(sql.contains("parcial"));
+        List<String> usernames = sql.lines()
+                .map(SQL_UPDATE::matcher)
+                .filter(Matcher::matches)
+                .map(m -> m.group(2))
+                .toList();
+        assertEquals(List.of("user1", "user2", "user3", "user4", "user5", "user6"), usernames);
+        assertFalse(Files.exists(dir.resolve("rehash.out.checkpoint")));
+    }
+
+    @Test
+    void optionsParse_MissingOutput_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PasswordRehashJob.Options.parse(new String[]{"--input=export.csv"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> PasswordRehashJob.Options.parse(new String[]{"--input=a", "--output=b", "--unknown=1"}));
+    }
+
+    private PasswordRehashJob job(String... extraArgs) {
+        String[] args = new String[extraArgs.length + 3];
+        args[0] = "--input=" + input;
+        args[1] = "--output=" + output;
+        args[2] = "--threads=2";
+        System.arraycopy(extraArgs, 0, args, 3, extraArgs.length);
+        return new PasswordRehashJob(PasswordRehashJob.Options.parse(args), encoder, progress);
+    }
+}